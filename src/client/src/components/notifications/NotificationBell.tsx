@@ -6,10 +6,16 @@ import {
   getUnreadCount,
   markAsRead,
   markAllAsRead,
+  syncNotifications,
   type Notification,
 } from '../../services/notificationService';
 import { toast } from 'sonner';
 import { useAuth } from '../../context/AuthContext';
+import {
+  subscribe,
+  onReconnect,
+  NOTIFICATIONS_DESTINATION,
+} from '../../services/realtimeService';
 
 interface NotificationBellProps {
   showScrolledStyle?: boolean;
@@ -49,6 +55,41 @@ export default function NotificationBell({
     }
   }, [user?.id]);
 
+  // Catch up after a reconnect: fetch only the notifications we do not have yet
+  const syncLatest = useCallback(async () => {
+    if (!user?.id) return;
+    // List never loaded: the badge is all there is to refresh
+    if (notifications.length === 0) {
+      await fetchUnreadCount();
+      return;
+    }
+    try {
+      let after = notifications.reduce((max, n) => Math.max(max, n.id), 0);
+      let hasMore = true;
+      while (hasMore) {
+        const sync = await syncNotifications(after);
+        setNotifications((prev) => {
+          const known = new Set(prev.map((n) => n.id));
+          const fresh = sync.notifications
+            .filter((n) => !known.has(n.id))
+            .reverse();
+          return [...fresh, ...prev];
+        });
+        setUnreadCount(sync.unreadCount);
+        after = sync.nextAfterId;
+        hasMore = sync.hasMore;
+      }
+    } catch (error) {
+      console.error('Failed to sync notifications:', error);
+    }
+  }, [user?.id, notifications, fetchUnreadCount]);
+
+  // The push subscription outlives list changes: always call the latest sync
+  const syncLatestRef = useRef(syncLatest);
+  useEffect(() => {
+    syncLatestRef.current = syncLatest;
+  }, [syncLatest]);
+
   // Initial load - only fetch unread count
   useEffect(() => {
     if (user?.id) {
@@ -58,6 +99,32 @@ export default function NotificationBell({
     }
   }, [user?.id, fetchUnreadCount]);
 
+  // Real-time: new notifications are pushed by the server (no polling)
+  useEffect(() => {
+    if (!user?.id) return;
+
+    const unsubscribe = subscribe<Notification>(
+      NOTIFICATIONS_DESTINATION,
+      (notification) => {
+        setNotifications((prev) =>
+          prev.some((n) => n.id === notification.id)
+            ? prev
+            : [notification, ...prev]
+        );
+        if (!notification.isRead) {
+          setUnreadCount((prev) => prev + 1);
+        }
+      }
+    );
+    // Pushes sent while disconnected are lost: sync after reconnecting
+    const removeReconnect = onReconnect(() => syncLatestRef.current());
+
+    return () => {
+      unsubscribe();
+      removeReconnect();
+    };
+  }, [user?.id]);
+
   // Fetch notifications when dropdown opens (via click handler, not effect)
   const handleToggleDropdown = () => {
     const newIsOpen = !isOpen;
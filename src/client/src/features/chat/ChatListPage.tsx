@@ -1,26 +1,17 @@
 import { useState, useEffect, useCallback } from 'react';
 import { useNavigate } from 'react-router-dom';
 import {
-  getConversationPartners,
-  getConversation,
+  getConversations,
   getUnreadCount,
-  type Message,
+  markAllAsRead,
+  type Conversation,
 } from '../../services/messageService';
 import { MessageCircle, Loader2, Search } from 'lucide-react';
-import { useAuth } from '../../context/AuthContext';
-
-interface ConversationPartner {
-  userId: number;
-  userName: string;
-  userAvatar?: string;
-  lastMessage?: Message;
-  unreadCount: number;
-}
+import { toast } from 'sonner';
 
 export default function ChatListPage() {
   const navigate = useNavigate();
-  const { user } = useAuth();
-  const [conversations, setConversations] = useState<ConversationPartner[]>([]);
+  const [conversations, setConversations] = useState<Conversation[]>([]);
   const [loading, setLoading] = useState(true);
   const [searchQuery, setSearchQuery] = useState('');
   const [totalUnread, setTotalUnread] = useState(0);
@@ -37,57 +28,26 @@ export default function ChatListPage() {
   const fetchConversations = useCallback(async () => {
     try {
       setLoading(true);
-      const partnerIds = await getConversationPartners();
-
-      const conversationsData = await Promise.all(
-        partnerIds.map(async (partnerId) => {
-          const messages = await getConversation(partnerId);
-          const lastMessage =
-            messages.length > 0 ? messages[messages.length - 1] : undefined;
-
-          const unreadCount = messages.filter(
-            (msg) => !msg.isRead && msg.receiverId === user?.id
-          ).length;
-
-          const userMessage = lastMessage || messages[0];
-          const userName = userMessage
-            ? userMessage.senderId === partnerId
-              ? userMessage.senderName
-              : userMessage.receiverName
-            : `User ${partnerId}`;
-          const userAvatar = userMessage
-            ? userMessage.senderId === partnerId
-              ? userMessage.senderAvatar
-              : userMessage.receiverAvatar
-            : undefined;
-
-          return {
-            userId: partnerId,
-            userName,
-            userAvatar,
-            lastMessage,
-            unreadCount,
-          };
-        })
-      );
-
-      conversationsData.sort((a, b) => {
-        if (!a.lastMessage && !b.lastMessage) return 0;
-        if (!a.lastMessage) return 1;
-        if (!b.lastMessage) return -1;
-        return (
-          new Date(b.lastMessage.createdAt).getTime() -
-          new Date(a.lastMessage.createdAt).getTime()
-        );
-      });
-
+      // Inbox comes sorted by last activity, with names and unread counts
+      const conversationsData = await getConversations();
       setConversations(conversationsData);
     } catch (error) {
       console.error('Failed to fetch conversations:', error);
     } finally {
       setLoading(false);
     }
-  }, [user?.id]);
+  }, []);
+
+  const handleMarkAllAsRead = async () => {
+    try {
+      await markAllAsRead();
+      setConversations((prev) => prev.map((c) => ({ ...c, unreadCount: 0 })));
+      setTotalUnread(0);
+    } catch (error) {
+      console.error('Failed to mark all as read:', error);
+      toast.error('Không thể đánh dấu tất cả là đã đọc');
+    }
+  };
 
   useEffect(() => {
     fetchConversations();
@@ -113,7 +73,7 @@ export default function ChatListPage() {
   };
 
   const filteredConversations = conversations.filter((conv) =>
-    conv.userName.toLowerCase().includes(searchQuery.toLowerCase())
+    conv.otherUserName.toLowerCase().includes(searchQuery.toLowerCase())
   );
 
   if (loading) {
@@ -140,6 +100,14 @@ export default function ChatListPage() {
                 </p>
               )}
             </div>
+            {totalUnread > 0 && (
+              <button
+                onClick={handleMarkAllAsRead}
+                className="text-sm text-brand-accent hover:underline"
+              >
+                Đánh dấu tất cả đã đọc
+              </button>
+            )}
           </div>
 
           {/* Search */}
@@ -161,21 +129,22 @@ export default function ChatListPage() {
             <div className="divide-y divide-slate-100">
               {filteredConversations.map((conversation) => (
                 <button
-                  key={conversation.userId}
-                  onClick={() => navigate(`/chat/${conversation.userId}`)}
+                  key={conversation.otherUserId}
+                  onClick={() => navigate(`/chat/${conversation.otherUserId}`)}
                   className="w-full p-4 hover:bg-slate-50 transition-colors text-left flex items-center gap-3 group relative"
                 >
                   {/* Avatar */}
                   <div className="relative flex-shrink-0">
                     <div className="w-14 h-14 rounded-full bg-gradient-to-br from-brand-accent to-brand-dark flex items-center justify-center text-white font-semibold text-lg overflow-hidden ring-2 ring-white shadow-sm">
-                      {conversation.userAvatar ? (
+                      {conversation.otherUserAvatar ? (
                         <img
-                          src={conversation.userAvatar}
-                          alt={conversation.userName}
+                          src={conversation.otherUserAvatar}
+                          alt={conversation.otherUserName}
                           className="w-full h-full object-cover"
                         />
                       ) : (
-                        conversation.userName?.charAt(0).toUpperCase() || 'U'
+                        conversation.otherUserName?.charAt(0).toUpperCase() ||
+                        'U'
                       )}
                     </div>
                     {/* Online status dot - you can add this later if needed */}
@@ -185,18 +154,18 @@ export default function ChatListPage() {
                   <div className="flex-1 min-w-0">
                     <div className="flex items-center justify-between mb-1">
                       <h3 className="font-semibold text-slate-900 text-base truncate">
-                        {conversation.userName}
+                        {conversation.otherUserName}
                       </h3>
-                      {conversation.lastMessage && (
+                      {conversation.lastMessageAt && (
                         <span className="text-xs text-slate-500 flex-shrink-0 ml-2">
-                          {formatTime(conversation.lastMessage.createdAt)}
+                          {formatTime(conversation.lastMessageAt)}
                         </span>
                       )}
                     </div>
                     <div className="flex items-center justify-between gap-2">
-                      {conversation.lastMessage ? (
+                      {conversation.lastMessageId ? (
                         <p className="text-sm text-slate-600 truncate flex-1">
-                          {conversation.lastMessage.content}
+                          {conversation.lastMessagePreview}
                         </p>
                       ) : (
                         <p className="text-sm text-slate-400 italic">
@@ -1,12 +1,19 @@
 import { useState, useEffect, useRef, useCallback } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import {
-  getConversation,
+  getConversationHistory,
+  toMessages,
   sendMessage,
   markConversationAsRead,
-  checkConversationUpdate,
+  syncConversation,
   type Message,
+  type Participant,
 } from '../../services/messageService';
+import {
+  subscribe,
+  onReconnect,
+  MESSAGES_DESTINATION,
+} from '../../services/realtimeService';
 import { useAuth } from '../../context/AuthContext';
 import {
   ArrowLeft,
@@ -27,6 +34,9 @@ export default function ChatPage() {
   const [loading, setLoading] = useState(true);
   const [sending, setSending] = useState(false);
   const [messageText, setMessageText] = useState('');
+  const [otherProfile, setOtherProfile] = useState<Participant | null>(null);
+  const [olderCursor, setOlderCursor] = useState<string | null>(null);
+  const [loadingOlder, setLoadingOlder] = useState(false);
   const messagesEndRef = useRef<HTMLDivElement>(null);
   const messagesContainerRef = useRef<HTMLDivElement>(null);
   const lastMessageIdRef = useRef<number | null>(null);
@@ -35,9 +45,13 @@ export default function ChatPage() {
   const fetchConversation = useCallback(async () => {
     if (!otherUserIdNum || !user?.id) return;
     try {
-      const data = await getConversation(otherUserIdNum);
+      // Latest window only; older messages are loaded on demand
+      const history = await getConversationHistory(otherUserIdNum);
+      const data = toMessages(history);
       setMessages(data);
-      // Store last message ID for polling
+      setOtherProfile(history.otherUser);
+      setOlderCursor(history.nextCursor);
+      // Store last message ID (newest message we have)
       if (data.length > 0) {
         lastMessageIdRef.current = data[data.length - 1].id;
         await markConversationAsRead(otherUserIdNum);
@@ -46,7 +60,7 @@ export default function ChatPage() {
       }
     } catch (error) {
       console.error('Failed to fetch conversation:', error);
-      // Don't show toast on every poll, only on initial load
+      // Don't show toast on every reload, only on initial load
       if (loading) {
         toast.error('Không thể tải cuộc trò chuyện');
       }
@@ -55,6 +69,70 @@ export default function ChatPage() {
     }
   }, [otherUserIdNum, user?.id, loading]);
 
+  // Load the window before the oldest message shown, keeping scroll position
+  const loadOlderMessages = async () => {
+    if (!otherUserIdNum || !olderCursor || loadingOlder) return;
+    const container = messagesContainerRef.current;
+    const previousHeight = container?.scrollHeight ?? 0;
+    try {
+      setLoadingOlder(true);
+      const history = await getConversationHistory(otherUserIdNum, olderCursor);
+      setMessages((prev) => {
+        const known = new Set(prev.map((m) => m.id));
+        return [
+          ...toMessages(history).filter((m) => !known.has(m.id)),
+          ...prev,
+        ];
+      });
+      setOlderCursor(history.nextCursor);
+      requestAnimationFrame(() => {
+        if (container) {
+          container.scrollTo({
+            top: container.scrollTop + container.scrollHeight - previousHeight,
+            behavior: 'instant',
+          });
+        }
+      });
+    } catch (error) {
+      console.error('Failed to load older messages:', error);
+      toast.error('Không thể tải tin nhắn cũ hơn');
+    } finally {
+      setLoadingOlder(false);
+    }
+  };
+
+  // Catch up after a reconnect: fetch only the messages we do not have yet
+  const syncMessages = useCallback(async () => {
+    if (!otherUserIdNum || !user?.id) return;
+    try {
+      let after = lastMessageIdRef.current ?? 0;
+      let hasMore = true;
+      while (hasMore) {
+        const sync = await syncConversation(otherUserIdNum, after);
+        const readUpToId = sync.readUpToId ?? 0;
+        setMessages((prev) => {
+          const known = new Set(prev.map((m) => m.id));
+          return [
+            ...prev,
+            ...sync.messages.filter((m) => !known.has(m.id)),
+          ].map((m) =>
+            m.senderId === user.id && !m.isRead && m.id <= readUpToId
+              ? { ...m, isRead: true }
+              : m
+          );
+        });
+        if (sync.messages.some((m) => m.senderId === otherUserIdNum)) {
+          await markConversationAsRead(otherUserIdNum);
+        }
+        after = sync.nextAfterId;
+        hasMore = sync.hasMore;
+      }
+      lastMessageIdRef.current = after || null;
+    } catch (error) {
+      console.error('Failed to sync conversation:', error);
+    }
+  }, [otherUserIdNum, user?.id]);
+
   // Initial load
   useEffect(() => {
     if (otherUserIdNum && user?.id) {
@@ -62,66 +140,46 @@ export default function ChatPage() {
     }
   }, [otherUserIdNum, user?.id, fetchConversation]);
 
-  // Real-time: polling when tab is active + check when tab becomes visible
+  // Real-time: messages of this conversation are pushed by the server
+  // (both the ones we receive and the ones we send from another tab)
   useEffect(() => {
     if (!otherUserIdNum || !user?.id) return;
 
-    let pollingInterval: NodeJS.Timeout | null = null;
+    const unsubscribe = subscribe<Message>(MESSAGES_DESTINATION, (message) => {
+      const inConversation =
+        (message.senderId === otherUserIdNum &&
+          message.receiverId === user.id) ||
+        (message.senderId === user.id && message.receiverId === otherUserIdNum);
+      if (!inConversation) return;
 
-    const checkForUpdates = async () => {
-      if (document.visibilityState !== 'visible') return;
-      try {
-        const update = await checkConversationUpdate(
-          otherUserIdNum,
-          lastMessageIdRef.current || undefined
+      setMessages((prev) =>
+        prev.some((m) => m.id === message.id) ? prev : [...prev, message]
+      );
+      lastMessageIdRef.current = Math.max(
+        lastMessageIdRef.current ?? 0,
+        message.id
+      );
+      if (message.senderId === otherUserIdNum && !message.isRead) {
+        markConversationAsRead(otherUserIdNum).catch((error) =>
+          console.error('Failed to mark conversation as read:', error)
         );
-        if (update.hasUpdate) {
-          await fetchConversation();
-        }
-      } catch (error) {
-        console.error('Failed to check conversation update:', error);
-      }
-    };
-
-    const startPolling = () => {
-      if (pollingInterval) return;
-      pollingInterval = setInterval(checkForUpdates, 3000); // Check every 3 seconds when tab is active
-    };
-
-    const stopPolling = () => {
-      if (pollingInterval) {
-        clearInterval(pollingInterval);
-        pollingInterval = null;
-      }
-    };
-
-    // Handle tab visibility changes
-    const handleVisibilityChange = () => {
-      if (document.visibilityState === 'visible') {
-        checkForUpdates(); // Check immediately
-        startPolling(); // Start polling
-      } else {
-        stopPolling(); // Stop when hidden to save resources
       }
-    };
-
-    // Start polling if tab is already visible
-    if (document.visibilityState === 'visible') {
-      startPolling();
-    }
-
-    document.addEventListener('visibilitychange', handleVisibilityChange);
+    });
+    // Pushes sent while disconnected are lost: sync after reconnecting
+    const removeReconnect = onReconnect(syncMessages);
 
     return () => {
-      stopPolling();
-      document.removeEventListener('visibilitychange', handleVisibilityChange);
+      unsubscribe();
+      removeReconnect();
     };
-  }, [otherUserIdNum, user?.id, fetchConversation]);
+  }, [otherUserIdNum, user?.id, syncMessages]);
 
-  // Auto-scroll to bottom when new messages arrive
+  // Auto-scroll to bottom when new messages arrive (not for older ones)
+  const newestMessageId =
+    messages.length > 0 ? messages[messages.length - 1].id : null;
   useEffect(() => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
-  }, [messages]);
+  }, [newestMessageId]);
 
   const handleSendMessage = async (e: React.FormEvent) => {
     e.preventDefault();
@@ -147,12 +205,10 @@ export default function ChatPage() {
       });
 
       // Update last message ID
-      lastMessageIdRef.current = newMessage.id;
-
-      // After sending, reload conversation to get latest messages (in case receiver also sent)
-      setTimeout(() => {
-        fetchConversation();
-      }, 1000); // Reload after 1 second
+      lastMessageIdRef.current = Math.max(
+        lastMessageIdRef.current ?? 0,
+        newMessage.id
+      );
     } catch (error) {
       console.error('Failed to send message:', error);
       toast.error('Không thể gửi tin nhắn');
@@ -197,19 +253,13 @@ export default function ChatPage() {
     );
   }
 
-  // Get other user info from messages
-  const otherUser = messages[0]
-    ? messages[0].senderId === otherUserIdNum
-      ? {
-          id: otherUserIdNum,
-          name: messages[0].senderName,
-          avatar: messages[0].senderAvatar,
-        }
-      : {
-          id: otherUserIdNum,
-          name: messages[0].receiverName,
-          avatar: messages[0].receiverAvatar,
-        }
+  // Other user info from the conversation header
+  const otherUser = otherProfile
+    ? {
+        id: otherProfile.id,
+        name: otherProfile.fullName,
+        avatar: otherProfile.avatarUrl,
+      }
     : null;
 
   return (
@@ -260,6 +310,18 @@ export default function ChatPage() {
             scrollbarColor: '#cbd5e1 transparent',
           }}
         >
+          {!loading && olderCursor && (
+            <div className="flex justify-center">
+              <button
+                onClick={loadOlderMessages}
+                disabled={loadingOlder}
+                className="text-xs text-brand-accent hover:underline disabled:opacity-50 flex items-center gap-1"
+              >
+                {loadingOlder && <Loader2 className="w-3 h-3 animate-spin" />}
+                Xem tin nhắn cũ hơn
+              </button>
+            </div>
+          )}
           {loading ? (
             <div className="flex items-center justify-center h-full">
               <Loader2 className="w-6 h-6 animate-spin text-brand-accent" />
@@ -1,23 +1,14 @@
 import { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import {
-  getConversationPartners,
-  getConversation,
-  type Message,
+  getConversations,
+  type Conversation,
 } from '../../../services/messageService';
 import { MessageCircle, Loader2 } from 'lucide-react';
 
-interface ConversationPartner {
-  userId: number;
-  userName: string;
-  userAvatar?: string;
-  lastMessage?: Message;
-  unreadCount: number;
-}
-
 export default function HostChatList() {
   const navigate = useNavigate();
-  const [conversations, setConversations] = useState<ConversationPartner[]>([]);
+  const [conversations, setConversations] = useState<Conversation[]>([]);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
@@ -27,56 +18,8 @@ export default function HostChatList() {
   const fetchConversations = async () => {
     try {
       setLoading(true);
-      // Get list of user IDs that have conversations with the host
-      const partnerIds = await getConversationPartners();
-
-      // For each partner, get the last message and user info
-      const conversationsData = await Promise.all(
-        partnerIds.map(async (partnerId) => {
-          // Get conversation to get last message and user info
-          const messages = await getConversation(partnerId);
-          const lastMessage =
-            messages.length > 0 ? messages[messages.length - 1] : undefined;
-
-          // Count unread messages in this conversation
-          const unreadCount = messages.filter(
-            (msg) => !msg.isRead && msg.senderId === partnerId
-          ).length;
-
-          // Get user info from last message or first message
-          const userMessage = lastMessage || messages[0];
-          const userName = userMessage
-            ? userMessage.senderId === partnerId
-              ? userMessage.senderName
-              : userMessage.receiverName
-            : `User ${partnerId}`;
-          const userAvatar = userMessage
-            ? userMessage.senderId === partnerId
-              ? userMessage.senderAvatar
-              : userMessage.receiverAvatar
-            : undefined;
-
-          return {
-            userId: partnerId,
-            userName,
-            userAvatar,
-            lastMessage,
-            unreadCount,
-          };
-        })
-      );
-
-      // Sort by last message time (most recent first)
-      conversationsData.sort((a, b) => {
-        if (!a.lastMessage && !b.lastMessage) return 0;
-        if (!a.lastMessage) return 1;
-        if (!b.lastMessage) return -1;
-        return (
-          new Date(b.lastMessage.createdAt).getTime() -
-          new Date(a.lastMessage.createdAt).getTime()
-        );
-      });
-
+      // Inbox comes sorted by last activity, with names and unread counts
+      const conversationsData = await getConversations();
       setConversations(conversationsData);
     } catch (error) {
       console.error('Failed to fetch conversations:', error);
@@ -123,35 +66,35 @@ export default function HostChatList() {
         <div className="space-y-2">
           {conversations.map((conversation) => (
             <button
-              key={conversation.userId}
-              onClick={() => navigate(`/chat/${conversation.userId}`)}
+              key={conversation.otherUserId}
+              onClick={() => navigate(`/chat/${conversation.otherUserId}`)}
               className="w-full p-4 bg-white rounded-2xl border border-brand-dark/10 hover:border-brand-accent hover:shadow-lg transition-all text-left flex items-center gap-4 group"
             >
               <div className="w-12 h-12 rounded-xl bg-gradient-to-br from-brand-accent to-brand-dark flex items-center justify-center text-white font-bold flex-shrink-0 overflow-hidden">
-                {conversation.userAvatar ? (
+                {conversation.otherUserAvatar ? (
                   <img
-                    src={conversation.userAvatar}
-                    alt={conversation.userName}
+                    src={conversation.otherUserAvatar}
+                    alt={conversation.otherUserName}
                     className="w-full h-full object-cover"
                   />
                 ) : (
-                  conversation.userName?.charAt(0) || 'U'
+                  conversation.otherUserName?.charAt(0) || 'U'
                 )}
               </div>
               <div className="flex-1 min-w-0">
                 <div className="flex items-center justify-between mb-1">
                   <h3 className="font-bold text-brand-dark truncate">
-                    {conversation.userName}
+                    {conversation.otherUserName}
                   </h3>
-                  {conversation.lastMessage && (
+                  {conversation.lastMessageAt && (
                     <span className="text-xs text-brand-dark/50 flex-shrink-0 ml-2">
-                      {formatTime(conversation.lastMessage.createdAt)}
+                      {formatTime(conversation.lastMessageAt)}
                     </span>
                   )}
                 </div>
-                {conversation.lastMessage && (
+                {conversation.lastMessagePreview && (
                   <p className="text-sm text-brand-dark/60 truncate">
-                    {conversation.lastMessage.content}
+                    {conversation.lastMessagePreview}
                   </p>
                 )}
               </div>
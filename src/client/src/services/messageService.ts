@@ -25,9 +25,75 @@ export async function sendMessage(
   return response.data;
 }
 
-export async function getConversation(otherUserId: number): Promise<Message[]> {
-  const response = await api.get<Message[]>(
-    `/v1/messages/conversation/${otherUserId}`
+export interface Participant {
+  id: number;
+  fullName: string;
+  avatarUrl?: string;
+}
+
+// A message of a history window: profiles are in the window's header
+export interface MessageItem {
+  id: number;
+  senderId: number;
+  content: string;
+  isRead: boolean;
+  createdAt: string;
+}
+
+export interface MessageHistory {
+  currentUser: Participant;
+  otherUser: Participant;
+  content: MessageItem[]; // oldest first
+  nextCursor: string | null; // older messages
+  hasNext: boolean;
+}
+
+// Latest `size` messages, or with `cursor` the ones before the previous window
+export async function getConversationHistory(
+  otherUserId: number,
+  cursor?: string,
+  size = 50
+): Promise<MessageHistory> {
+  const response = await api.get<MessageHistory>(
+    `/v1/messages/conversation/${otherUserId}/history`,
+    { params: { cursor, size } }
+  );
+  return response.data;
+}
+
+// Expand a history window into full messages, using its header for the profiles
+export function toMessages(history: MessageHistory): Message[] {
+  const { currentUser, otherUser } = history;
+  return history.content.map((item) => {
+    const sender = item.senderId === currentUser.id ? currentUser : otherUser;
+    const receiver = sender === currentUser ? otherUser : currentUser;
+    return {
+      ...item,
+      senderName: sender.fullName,
+      senderAvatar: sender.avatarUrl,
+      receiverId: receiver.id,
+      receiverName: receiver.fullName,
+      receiverAvatar: receiver.avatarUrl,
+    };
+  });
+}
+
+export interface ConversationSync {
+  messages: Message[]; // oldest first
+  nextAfterId: number;
+  hasMore: boolean;
+  readUpToId: number | null; // our messages up to this id have been read
+}
+
+// Only the messages after `after`; the browser revalidates with the ETag (304)
+export async function syncConversation(
+  otherUserId: number,
+  after: number,
+  size = 100
+): Promise<ConversationSync> {
+  const response = await api.get<ConversationSync>(
+    `/v1/messages/conversation/${otherUserId}/sync`,
+    { params: { after, size } }
   );
   return response.data;
 }
@@ -42,13 +108,31 @@ export async function markConversationAsRead(
   await api.put(`/v1/messages/conversation/${otherUserId}/read`);
 }
 
+export async function markAllAsRead(): Promise<void> {
+  await api.put('/v1/messages/read-all');
+}
+
 export async function getUnreadCount(): Promise<number> {
   const response = await api.get<number>('/v1/messages/unread-count');
   return response.data;
 }
 
-export async function getConversationPartners(): Promise<number[]> {
-  const response = await api.get<number[]>('/v1/messages/conversations');
+// One inbox entry, seen from the current user
+export interface Conversation {
+  id: number;
+  otherUserId: number;
+  otherUserName: string;
+  otherUserAvatar?: string;
+  lastMessageId?: number;
+  lastSenderId?: number;
+  lastMessagePreview?: string;
+  lastMessageAt?: string;
+  unreadCount: number;
+}
+
+// Inbox, most recent activity first
+export async function getConversations(): Promise<Conversation[]> {
+  const response = await api.get<Conversation[]>('/v1/messages/conversations');
   return response.data;
 }
 
@@ -16,6 +16,24 @@ export async function getNotifications(): Promise<Notification[]> {
   return response.data;
 }
 
+export interface NotificationSync {
+  notifications: Notification[]; // oldest first
+  nextAfterId: number;
+  hasMore: boolean;
+  unreadCount: number;
+}
+
+// Only the notifications after `after`; the browser revalidates with the ETag (304)
+export async function syncNotifications(
+  after: number,
+  size = 100
+): Promise<NotificationSync> {
+  const response = await api.get<NotificationSync>('/v1/notifications/sync', {
+    params: { after, size },
+  });
+  return response.data;
+}
+
 export async function getUnreadCount(): Promise<number> {
   const response = await api.get<number>('/v1/notifications/unread-count');
   return response.data;
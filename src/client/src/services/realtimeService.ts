@@ -0,0 +1,119 @@
+import { Client, type IMessage, type StompSubscription } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+
+// Push channel of the backend: STOMP over SockJS at /ws (next to /api).
+// SockJS falls back to server-sent events / XHR streaming when websockets are blocked.
+const API_BASE_URL =
+  import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
+const WS_URL = `${API_BASE_URL.replace(/\/api\/?$/, '')}/ws`;
+
+export const NOTIFICATIONS_DESTINATION = '/user/queue/notifications';
+export const MESSAGES_DESTINATION = '/user/queue/messages';
+
+type Handler = (payload: unknown) => void;
+
+const handlers = new Map<string, Set<Handler>>();
+const subscriptions = new Map<string, StompSubscription>();
+const reconnectListeners = new Set<() => void>();
+let client: Client | null = null;
+let connectedOnce = false;
+
+function subscribeDestination(destination: string) {
+  if (!client?.connected || subscriptions.has(destination)) return;
+  subscriptions.set(
+    destination,
+    client.subscribe(destination, (message: IMessage) => {
+      let payload: unknown;
+      try {
+        payload = JSON.parse(message.body);
+      } catch {
+        return;
+      }
+      handlers.get(destination)?.forEach((handler) => handler(payload));
+    })
+  );
+}
+
+function ensureClient() {
+  if (client) return;
+  client = new Client({
+    webSocketFactory: () => new SockJS(WS_URL),
+    reconnectDelay: 5000,
+    heartbeatIncoming: 0,
+    heartbeatOutgoing: 0,
+    // Read the token on every (re)connect: it may have changed since
+    beforeConnect: (stompClient: Client) => {
+      const token = localStorage.getItem('token');
+      stompClient.connectHeaders = token
+        ? { Authorization: `Bearer ${token}` }
+        : {};
+    },
+    onConnect: () => {
+      subscriptions.clear();
+      handlers.forEach((_, destination) => subscribeDestination(destination));
+      // Events pushed while disconnected are lost: let screens catch up
+      if (connectedOnce) {
+        reconnectListeners.forEach((listener) => listener());
+      }
+      connectedOnce = true;
+    },
+    onStompError: (frame) => {
+      console.error('Push channel error:', frame.headers['message']);
+    },
+  });
+  client.activate();
+}
+
+function maybeDeactivate() {
+  if (client && handlers.size === 0 && reconnectListeners.size === 0) {
+    const current = client;
+    client = null;
+    connectedOnce = false;
+    subscriptions.clear();
+    current.deactivate();
+  }
+}
+
+/**
+ * Receive the events pushed to a destination of the current user.
+ * Returns a function that stops receiving them.
+ */
+export function subscribe<T>(
+  destination: string,
+  handler: (payload: T) => void
+): () => void {
+  const wrapped: Handler = (payload) => handler(payload as T);
+  let destinationHandlers = handlers.get(destination);
+  if (!destinationHandlers) {
+    destinationHandlers = new Set();
+    handlers.set(destination, destinationHandlers);
+  }
+  destinationHandlers.add(wrapped);
+  ensureClient();
+  subscribeDestination(destination);
+
+  return () => {
+    const current = handlers.get(destination);
+    if (!current) return;
+    current.delete(wrapped);
+    if (current.size === 0) {
+      handlers.delete(destination);
+      subscriptions.get(destination)?.unsubscribe();
+      subscriptions.delete(destination);
+    }
+    maybeDeactivate();
+  };
+}
+
+/**
+ * Called after the channel reconnects (not on the first connect), to refetch
+ * what may have been missed. Returns a function that removes the listener.
+ */
+export function onReconnect(listener: () => void): () => void {
+  reconnectListeners.add(listener);
+  ensureClient();
+  return () => {
+    reconnectListeners.delete(listener);
+    maybeDeactivate();
+  };
+}
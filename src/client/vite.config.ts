@@ -26,6 +26,12 @@ export default defineConfig({
         changeOrigin: true, // Thay đổi origin của request
         secure: false, // Không verify SSL certificate
       },
+      // Push channel (STOMP over SockJS/websocket)
+      '/ws': {
+        target: 'http://localhost:8080',
+        changeOrigin: true,
+        ws: true,
+      },
       '/uploads': {
         target: 'http://localhost:8080',
         changeOrigin: true,
@@ -0,0 +1,22 @@
+package com.verzol.stayhub.common;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a cursor-paginated list.
+ * Pass {@code nextCursor} back as {@code cursor} to get the next page; it is null on the last page.
+ * {@code totalElements} is only computed when asked for (it costs a COUNT query).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+}
@@ -0,0 +1,65 @@
+package com.verzol.stayhub.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pushes events to the connected sessions of a user over the push channel (see WebSocketConfig),
+ * so clients no longer poll for them. A user without open sessions costs nothing; clients catch
+ * up through the REST endpoints when they (re)connect.
+ */
+@Service
+public class PushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushService.class);
+
+    /** New notifications (Notification) */
+    public static final String NOTIFICATIONS = "/queue/notifications";
+    /** Chat messages sent or received (MessageDTO) */
+    public static final String MESSAGES = "/queue/messages";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Counter pushedCounter;
+
+    public PushService(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.pushedCounter = Counter.builder("stayhub.push.sent")
+                .description("Events pushed to users over the push channel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send payload to every session of the user - once the current transaction commits, so the
+     * client never hears of a change it cannot read yet (or that was rolled back)
+     */
+    public void publish(Long userId, String destination, Object payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(userId, destination, payload);
+                }
+            });
+        } else {
+            send(userId, destination, payload);
+        }
+    }
+
+    private void send(Long userId, String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSendToUser(String.valueOf(userId), destination, payload);
+            pushedCounter.increment();
+        } catch (MessagingException e) {
+            // Best effort: the client catches up on its next fetch
+            logger.warn("Failed to push {} to user {}: {}", destination, userId, e.getMessage());
+        }
+    }
+}
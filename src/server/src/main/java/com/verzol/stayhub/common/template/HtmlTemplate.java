@@ -0,0 +1,229 @@
+package com.verzol.stayhub.common.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML template parsed once into literal chunks and numbered slots.
+ *
+ * Syntax:
+ * <ul>
+ *   <li>{@code {{name}}} - value, HTML-escaped</li>
+ *   <li>{@code {{{name}}}} - value as is</li>
+ *   <li>{@code {{#name}} ... {{/name}}} - rendered only if the value of name is not null</li>
+ * </ul>
+ * Callers resolve slot numbers once ({@link #slot}), fill a {@code String[]} from
+ * {@link #newValues()} per render and render into a builder or writer: no parsing, lookups or
+ * format strings per render. Null values render as nothing. Thread-safe.
+ */
+public final class HtmlTemplate {
+
+    private static final byte LITERAL = 0;
+    private static final byte ESCAPED = 1;
+    private static final byte RAW = 2;
+    private static final byte SECTION = 3;
+    private static final byte SECTION_END = 4;
+
+    private final String name;
+    private final byte[] ops;
+    // LITERAL: index in literals; ESCAPED/RAW/SECTION: slot
+    private final int[] args;
+    // SECTION: index of its SECTION_END
+    private final int[] jumps;
+    private final String[] literals;
+    private final Map<String, Integer> slots;
+    private final int literalLength;
+
+    private HtmlTemplate(String name, byte[] ops, int[] args, int[] jumps, String[] literals, Map<String, Integer> slots) {
+        this.name = name;
+        this.ops = ops;
+        this.args = args;
+        this.jumps = jumps;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static HtmlTemplate compile(String name, String source) {
+        List<Byte> ops = new ArrayList<>();
+        List<Integer> args = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<Integer> openSections = new ArrayList<>();
+        List<Integer> jumps = new ArrayList<>();
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int literalStart = pos;
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", open);
+            String closing = raw ? "}}}" : "}}";
+            int close = source.indexOf(closing, open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Template " + name + ": unclosed tag at " + open);
+            }
+            String tag = source.substring(open + (raw ? 3 : 2), close).trim();
+            int literalEnd = open;
+            pos = close + closing.length();
+
+            // A section tag alone on its line takes the whole line with it
+            if (!raw && (tag.startsWith("#") || tag.startsWith("/"))) {
+                int lineStart = source.lastIndexOf('\n', open - 1) + 1;
+                int lineEnd = source.indexOf('\n', pos);
+                lineEnd = lineEnd < 0 ? source.length() : lineEnd + 1;
+                if (lineStart >= literalStart
+                        && source.substring(lineStart, open).isBlank() && source.substring(pos, lineEnd).isBlank()) {
+                    literalEnd = lineStart;
+                    pos = lineEnd;
+                }
+            }
+            if (literalEnd > literalStart) {
+                ops.add(LITERAL);
+                args.add(literals.size());
+                jumps.add(-1);
+                literals.add(source.substring(literalStart, literalEnd));
+            }
+
+            if (!raw && tag.startsWith("#")) {
+                openSections.add(ops.size());
+                ops.add(SECTION);
+                args.add(slots.computeIfAbsent(tag.substring(1).trim(), key -> slots.size()));
+                jumps.add(-1);
+            } else if (!raw && tag.startsWith("/")) {
+                String section = tag.substring(1).trim();
+                if (openSections.isEmpty()
+                        || !args.get(openSections.get(openSections.size() - 1)).equals(slots.get(section))) {
+                    throw new IllegalArgumentException("Template " + name + ": unexpected {{/" + section + "}}");
+                }
+                jumps.set(openSections.remove(openSections.size() - 1), ops.size());
+                ops.add(SECTION_END);
+                args.add(-1);
+                jumps.add(-1);
+            } else {
+                ops.add(raw ? RAW : ESCAPED);
+                args.add(slots.computeIfAbsent(tag, key -> slots.size()));
+                jumps.add(-1);
+            }
+        }
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Template " + name + ": unclosed section");
+        }
+        if (pos < source.length()) {
+            ops.add(LITERAL);
+            args.add(literals.size());
+            jumps.add(-1);
+            literals.add(source.substring(pos));
+        }
+
+        byte[] opArray = new byte[ops.size()];
+        int[] argArray = new int[ops.size()];
+        int[] jumpArray = new int[ops.size()];
+        for (int i = 0; i < opArray.length; i++) {
+            opArray[i] = ops.get(i);
+            argArray[i] = args.get(i);
+            jumpArray[i] = jumps.get(i);
+        }
+        return new HtmlTemplate(name, opArray, argArray, jumpArray, literals.toArray(new String[0]), Map.copyOf(slots));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of a slot, to index the values array with
+     */
+    public int slot(String slotName) {
+        Integer slot = slots.get(slotName);
+        if (slot == null) {
+            throw new IllegalArgumentException("Template " + name + " has no slot " + slotName);
+        }
+        return slot;
+    }
+
+    public String[] newValues() {
+        return new String[slots.size()];
+    }
+
+    public String render(String[] values) {
+        int length = literalLength;
+        for (String value : values) {
+            if (value != null) {
+                length += value.length();
+            }
+        }
+        StringBuilder out = new StringBuilder(length + 64);
+        render(values, out);
+        return out.toString();
+    }
+
+    public void render(String[] values, StringBuilder out) {
+        try {
+            renderTo(values, out);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void render(String[] values, Writer out) throws IOException {
+        renderTo(values, out);
+    }
+
+    private void renderTo(String[] values, Appendable out) throws IOException {
+        for (int i = 0; i < ops.length; i++) {
+            switch (ops[i]) {
+                case LITERAL -> out.append(literals[args[i]]);
+                case ESCAPED -> escape(values[args[i]], out);
+                case RAW -> {
+                    String value = values[args[i]];
+                    if (value != null) {
+                        out.append(value);
+                    }
+                }
+                case SECTION -> {
+                    if (values[args[i]] == null) {
+                        i = jumps[i];
+                    }
+                }
+                default -> {
+                    // SECTION_END
+                }
+            }
+        }
+    }
+
+    private static void escape(String value, Appendable out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(value, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,47 @@
+package com.verzol.stayhub.common.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every classpath:templates/**&#47;*.html, compiled once at startup and looked up by path without
+ * the extension (e.g. "email/otp"). A broken template fails the startup, not a request.
+ */
+@Component
+public class TemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    private static final String LOCATION = "templates/";
+
+    private final Map<String, HtmlTemplate> templates = new HashMap<>();
+
+    public TemplateRegistry() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:" + LOCATION + "**/*.html");
+        for (Resource resource : resources) {
+            String url = resource.getURL().toString();
+            String name = url.substring(url.lastIndexOf(LOCATION) + LOCATION.length(), url.length() - ".html".length());
+            try (InputStream in = resource.getInputStream()) {
+                templates.put(name, HtmlTemplate.compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        logger.info("Compiled {} templates", templates.size());
+    }
+
+    public HtmlTemplate get(String name) {
+        HtmlTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalStateException("Template not found: " + name);
+        }
+        return template;
+    }
+}
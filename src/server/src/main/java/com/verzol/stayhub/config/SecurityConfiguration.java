@@ -69,6 +69,9 @@ public class SecurityConfiguration {
                 .requestMatchers("/login/oauth2/**").permitAll()
                 .requestMatchers("/uploads/**").permitAll()
                 
+                // Push channel handshake - STOMP CONNECT is authenticated with the JWT instead
+                .requestMatchers("/ws/**").permitAll()
+                
                 // Public endpoints - Hotel search and details (no authentication required)
                 .requestMatchers("/api/public/hotels/**").permitAll()
                 .requestMatchers("/api/public/promotions/**").permitAll()
@@ -0,0 +1,81 @@
+package com.verzol.stayhub.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import com.verzol.stayhub.module.user.entity.User;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Authenticates STOMP sessions of the push channel.
+ *
+ * CONNECT must carry "Authorization: Bearer <jwt>", checked like JwtAuthenticationFilter does for
+ * HTTP requests; the session's user is then named by the user id, which is what PushService
+ * addresses. Only the session's own /user/queue/** destinations can be subscribed, and SEND is
+ * refused.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String USER_QUEUES = "/user/queue/";
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    public StompAuthChannelInterceptor(JwtService jwtService, UserDetailsService userDetailsService) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (command == StompCommand.SUBSCRIBE) {
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith(USER_QUEUES)) {
+                throw new AccessDeniedException("Only your own " + USER_QUEUES + "** destinations can be subscribed");
+            }
+        } else if (command == StompCommand.SEND) {
+            throw new AccessDeniedException("Sending over the push channel is not supported");
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Missing bearer token");
+        }
+        String jwt = authHeader.substring(7);
+        try {
+            String userEmail = jwtService.extractUsername(jwt);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            if (!jwtService.isTokenValid(jwt, userDetails) || !userDetails.isEnabled()
+                    || !(userDetails instanceof User user)) {
+                throw new AccessDeniedException("Invalid token");
+            }
+            return new UsernamePasswordAuthenticationToken(
+                    String.valueOf(user.getId()), null, userDetails.getAuthorities());
+        } catch (JwtException | UsernameNotFoundException | IllegalArgumentException e) {
+            throw new AccessDeniedException("Invalid token");
+        }
+    }
+}
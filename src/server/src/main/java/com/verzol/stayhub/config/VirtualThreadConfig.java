@@ -0,0 +1,59 @@
+package com.verzol.stayhub.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Extra wiring when the app runs on virtual threads (spring.threads.virtual.enabled=true).
+ *
+ * Spring Boot itself moves Tomcat request handling, @Async tasks and @Scheduled jobs onto virtual
+ * threads; this adds the connection guard in front of the pool that used to be implied by the
+ * bounded Tomcat thread pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wrap the DataSource in a {@link ConnectionLimitingDataSource}, one permit per pool connection
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        int permits = environment.getProperty("app.datasource.guard.permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long timeoutMs = environment.getProperty("app.datasource.guard.timeout-ms", Long.class,
+                environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30000L));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, permits, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitingDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitingDataSource guard) {
+                Gauge.builder("stayhub.datasource.guard.waiting", guard, ConnectionLimitingDataSource::getQueueLength)
+                        .description("Threads waiting for a database connection permit")
+                        .register(registry);
+                Gauge.builder("stayhub.datasource.guard.available", guard, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Database connection permits currently free")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -13,8 +13,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.verzol.stayhub.common.CursorPage;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.BookingRequest;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.BookingResponse;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.CancellationRequest;
@@ -91,6 +94,27 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getUserBookings(user.getId()));
     }
 
+    /**
+     * Cursor-paginated booking history, newest first
+     * GET /api/bookings/my-bookings/page?size=20&cursor=...&includeTotal=false
+     */
+    @GetMapping("/my-bookings/page")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<CursorPage<BookingResponse>> getMyBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        if ("HOST".equalsIgnoreCase(user.getRole().name())) {
+            throw new RuntimeException("Hosts cannot view guest bookings. Please use the Host Dashboard to manage your property bookings.");
+        }
+        
+        return ResponseEntity.ok(bookingService.getUserBookingsPage(user.getId(), cursor, size, includeTotal));
+    }
+
     /**
      * Cancel booking - Guest can cancel their own booking
      */
@@ -124,6 +148,41 @@ public class BookingController {
             @PathVariable Long id,
             @AuthenticationPrincipal UserDetails userDetails) {
         
+        InvoiceSource source = loadInvoiceSource(id, userDetails);
+        String invoiceHtml = invoiceService.generateInvoiceHtml(
+                source.booking(), source.room(), source.hotel(), source.guestName());
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_HTML);
+        headers.setContentDispositionFormData("attachment", "invoice_" + id + ".html");
+        
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(invoiceHtml);
+    }
+
+    /**
+     * Download invoice/confirmation as PDF, written straight to the response
+     * GET /api/bookings/{id}/invoice?format=pdf
+     */
+    @GetMapping(value = "/{id}/invoice", params = "format=pdf")
+    public ResponseEntity<StreamingResponseBody> downloadInvoicePdf(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        InvoiceSource source = loadInvoiceSource(id, userDetails);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "invoice_" + id + ".pdf");
+        
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> invoiceService.writeInvoicePdf(
+                        source.booking(), source.room(), source.hotel(), source.guestName(), out));
+    }
+
+    private InvoiceSource loadInvoiceSource(Long id, UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
@@ -144,14 +203,9 @@ public class BookingController {
                 ? booking.getGuestName()
                 : user.getFullName();
         
-        String invoiceHtml = invoiceService.generateInvoiceHtml(booking, room, hotel, guestName);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_HTML);
-        headers.setContentDispositionFormData("attachment", "invoice_" + booking.getId() + ".html");
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(invoiceHtml);
+        return new InvoiceSource(booking, room, hotel, guestName);
+    }
+
+    private record InvoiceSource(Booking booking, Room room, Hotel hotel, String guestName) {
     }
 }
@@ -1,9 +1,15 @@
 package com.verzol.stayhub.module.booking.controller;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -15,10 +21,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.verzol.stayhub.common.CursorPage;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.AnalyticsResponse;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.EarningsResponse;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.HostBookingResponse;
+import com.verzol.stayhub.module.booking.dto.BookingDTOs.InvoiceExportResponse;
 import com.verzol.stayhub.module.booking.service.BookingService;
+import com.verzol.stayhub.module.booking.service.InvoiceExportService;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
 import com.verzol.stayhub.module.hotel.repository.HotelRepository;
 import com.verzol.stayhub.module.user.entity.User;
@@ -36,6 +45,7 @@ import lombok.RequiredArgsConstructor;
 public class HostBookingController {
 
     private final BookingService bookingService;
+    private final InvoiceExportService invoiceExportService;
     private final HotelRepository hotelRepository;
     private final UserRepository userRepository;
 
@@ -65,6 +75,36 @@ public class HostBookingController {
         return ResponseEntity.ok(bookingService.getHostBookings(hotelId, status, startDate, endDate));
     }
 
+    /**
+     * Bookings của một hotel theo trang (cursor), mới nhất trước
+     * GET /api/host/bookings/page?hotelId=1&status=CONFIRMED&size=50&cursor=...&includeTotal=true
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<HostBookingResponse>> getHotelBookingsPage(
+            @RequestParam Long hotelId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        // Verify hotel ownership
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        if (!hotel.getOwnerId().equals(user.getId())) {
+            throw new RuntimeException("You don't have permission to view bookings for this hotel");
+        }
+        
+        return ResponseEntity.ok(bookingService.getHostBookingsPage(
+                hotelId, status, startDate, endDate, cursor, size, includeTotal));
+    }
+
     /**
      * Lấy danh sách bookings sắp tới của một hotel
      * GET /api/host/bookings/{hotelId}/upcoming
@@ -199,6 +239,23 @@ public class HostBookingController {
         return ResponseEntity.ok(bookingService.getAllHostBookings(user.getId()));
     }
 
+    /**
+     * Bookings of all the host's hotels, cursor-paginated, newest first
+     * GET /api/host/bookings/all/page?size=50&cursor=...&includeTotal=false
+     */
+    @GetMapping("/all/page")
+    public ResponseEntity<CursorPage<HostBookingResponse>> getAllBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return ResponseEntity.ok(bookingService.getAllHostBookingsPage(user.getId(), cursor, size, includeTotal));
+    }
+
     /**
      * Get analytics for host's hotels
      * GET /api/host/bookings/analytics?hotelId=1&startDate=2024-01-01&endDate=2024-12-31
@@ -252,4 +309,84 @@ public class HostBookingController {
         
         return ResponseEntity.ok(bookingService.getEarnings(user.getId(), hotelId, startDate, endDate));
     }
+
+    /**
+     * Queue an export of a month's invoices (ZIP of PDFs + CSV ledger), built in the background
+     * POST /api/host/bookings/exports?month=2024-03&hotelId=1 (hotelId optional = all hotels)
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<InvoiceExportResponse> requestInvoiceExport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false) Long hotelId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        if (hotelId != null) {
+            // Verify hotel ownership
+            Hotel hotel = hotelRepository.findById(hotelId)
+                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
+            if (!hotel.getOwnerId().equals(user.getId())) {
+                throw new RuntimeException("You don't have permission to export bookings for this hotel");
+            }
+        }
+        
+        return ResponseEntity.accepted().body(invoiceExportService.requestExport(user.getId(), hotelId, month));
+    }
+
+    /**
+     * Latest invoice exports of the host
+     * GET /api/host/bookings/exports?limit=20
+     */
+    @GetMapping("/exports")
+    public ResponseEntity<List<InvoiceExportResponse>> getInvoiceExports(
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return ResponseEntity.ok(invoiceExportService.getExports(user.getId(), limit));
+    }
+
+    /**
+     * Status and progress of an invoice export
+     * GET /api/host/bookings/exports/{exportId}
+     */
+    @GetMapping("/exports/{exportId}")
+    public ResponseEntity<InvoiceExportResponse> getInvoiceExport(
+            @PathVariable Long exportId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return ResponseEntity.ok(invoiceExportService.getExport(user.getId(), exportId));
+    }
+
+    /**
+     * Download a completed invoice export
+     * GET /api/host/bookings/exports/{exportId}/download
+     */
+    @GetMapping("/exports/{exportId}/download")
+    public ResponseEntity<Resource> downloadInvoiceExport(
+            @PathVariable Long exportId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        InvoiceExportResponse export = invoiceExportService.getExport(user.getId(), exportId);
+        Path file = invoiceExportService.getExportFile(user.getId(), exportId);
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "invoices_" + export.getMonth()
+                + (export.getHotelId() != null ? "_hotel" + export.getHotelId() : "") + ".zip");
+        
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(file));
+    }
 }
@@ -158,4 +158,21 @@ public class BookingDTOs {
         private LocalDate checkoutDate;
         private BigDecimal amount;
     }
+
+    // Invoice export job (ZIP of a month's invoices + CSV ledger) and its progress
+    @Data
+    public static class InvoiceExportResponse {
+        private Long id;
+        private Long hotelId; // null = all hotels
+        private String month; // Format: "YYYY-MM"
+        private String status; // PENDING, RUNNING, COMPLETED, FAILED
+        private Integer totalBookings; // Known once the export has started
+        private Integer processedBookings;
+        private Double progress; // Percentage, 0-100
+        private Long fileSize; // Bytes, once completed
+        private String downloadUrl; // Set once completed
+        private String error;
+        private LocalDateTime createdAt;
+        private LocalDateTime completedAt;
+    }
 }
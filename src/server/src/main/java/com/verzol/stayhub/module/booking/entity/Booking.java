@@ -9,7 +9,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_status_locked_until", columnList = "status, locked_until"),
+    @Index(name = "idx_bookings_user_id_id", columnList = "user_id, id"),
+    @Index(name = "idx_bookings_room_id_id", columnList = "room_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,97 @@
+package com.verzol.stayhub.module.booking.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A host's request to export a month of bookings: one ZIP with the PDF invoice of every booking
+ * checking in that month plus a CSV ledger, built in the background by InvoiceExportWorker.
+ *
+ * Lifecycle: PENDING -> RUNNING (claimed by a worker, heartbeat on every batch) -> COMPLETED or
+ * FAILED. A RUNNING export whose heartbeat is stale (worker died) is claimed again and rebuilt.
+ */
+@Entity
+@Table(name = "invoice_exports", indexes = {
+    @Index(name = "idx_invoice_exports_owner_id_id", columnList = "owner_id, id"),
+    @Index(name = "idx_invoice_exports_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceExport {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "hotel_id")
+    private Long hotelId; // null = all hotels of the owner
+
+    @Column(name = "export_month", nullable = false, length = 7)
+    private String month; // "YYYY-MM", by check-in date
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "total_bookings")
+    private Integer totalBookings;
+
+    @Column(name = "processed_bookings", nullable = false)
+    private Integer processedBookings;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "file_path", columnDefinition = "text")
+    private String filePath;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (status == null) {
+            status = PENDING;
+        }
+        if (processedBookings == null) {
+            processedBookings = 0;
+        }
+    }
+}
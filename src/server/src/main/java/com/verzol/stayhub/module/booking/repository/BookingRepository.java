@@ -1,30 +1,98 @@
 package com.verzol.stayhub.module.booking.repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.verzol.stayhub.module.booking.entity.Booking;
 
+import jakarta.persistence.LockModeType;
+
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' AND b.lockedUntil < :now")
-    List<Booking> findExpiredPendingBookings(LocalDateTime now);
+    /**
+     * Load a booking and row-lock it until the end of the transaction, so status transitions of
+     * one booking (payment, cancel, check-in / out, expiry) run one after the other and each sees
+     * the status the previous one committed
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Oldest expired PENDING bookings first, as (id, lockedUntil) - one batch of the expiry reaper
+     */
+    @Query("SELECT b.id, b.lockedUntil FROM Booking b WHERE b.status = 'PENDING' AND b.lockedUntil < :now " +
+           "ORDER BY b.lockedUntil ASC")
+    List<Object[]> findExpiredPendingBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Row-lock the bookings of a batch that are still expired PENDING, so exactly these are cancelled
+     * by {@link #cancelExpiredPending}. confirmBooking takes the same lock through
+     * {@link #findByIdForUpdate}: a payment for one of them waits for the sweep to commit, then
+     * finds the booking CANCELLED and is refused before touching the released inventory.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.status = 'PENDING' AND b.lockedUntil < :now " +
+           "ORDER BY b.id")
+    List<Booking> lockExpiredPending(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Cancel a batch of expired PENDING bookings in one UPDATE.
+     * Re-checks status and expiry so a payment confirmed in the meantime is never cancelled.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CANCELLED', b.cancelledAt = :now, b.cancelledBy = 'SYSTEM', " +
+           "b.cancellationReason = :reason " +
+           "WHERE b.id IN :ids AND b.status = 'PENDING' AND b.lockedUntil < :now")
+    int cancelExpiredPending(@Param("ids") List<Long> ids,
+                             @Param("now") LocalDateTime now,
+                             @Param("reason") String reason);
 
     List<Booking> findByUserId(Long userId);
 
-    @Query("SELECT b FROM Booking b WHERE b.roomId = :roomId " +
-           "AND b.status IN ('PENDING', 'CONFIRMED') " +
-           "AND ((b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn)) " +
-           "AND (b.status != 'PENDING' OR b.lockedUntil > :now)")
-    List<Booking> findOverlappingBookings(@Param("roomId") Long roomId, 
-                                          @Param("checkIn") LocalDate checkIn, 
-                                          @Param("checkOut") LocalDate checkOut,
-                                          @Param("now") LocalDateTime now);
+    // ========== Cursor pages: newest first, rows with id < beforeId (Long.MAX_VALUE = first page) ==========
+
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<Booking> findPageByUserId(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    @Query("SELECT b FROM Booking b JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
+           "WHERE r.hotelId = :hotelId AND b.id < :beforeId " +
+           "AND (:status IS NULL OR b.status = :status) " +
+           "AND (:startDate IS NULL OR b.checkInDate >= :startDate) " +
+           "AND (:endDate IS NULL OR b.checkInDate <= :endDate) " +
+           "ORDER BY b.id DESC")
+    List<Booking> findPageByHotelId(@Param("hotelId") Long hotelId,
+                                    @Param("status") String status,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("beforeId") Long beforeId,
+                                    Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Booking b JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
+           "WHERE r.hotelId = :hotelId " +
+           "AND (:status IS NULL OR b.status = :status) " +
+           "AND (:startDate IS NULL OR b.checkInDate >= :startDate) " +
+           "AND (:endDate IS NULL OR b.checkInDate <= :endDate)")
+    long countByHotelIdFiltered(@Param("hotelId") Long hotelId,
+                                @Param("status") String status,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT b FROM Booking b " +
+           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
+           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
+           "WHERE h.ownerId = :ownerId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<Booking> findPageByOwnerId(@Param("ownerId") Long ownerId, @Param("beforeId") Long beforeId, Pageable pageable);
 
     // Host queries: Find bookings by hotel through room
     @Query("SELECT b FROM Booking b JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
@@ -79,86 +147,105 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Long countByOwnerId(@Param("ownerId") Long ownerId);
     
     /**
-     * Count confirmed bookings for owner (optimized)
+     * Get recent bookings (last 5) for owner (optimized - only loads 5 records)
+     * Using native query with LIMIT for better performance
      */
-    @Query("SELECT COUNT(b) FROM Booking b " +
-           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
-           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED')")
-    Long countConfirmedByOwnerId(@Param("ownerId") Long ownerId);
-    
+    @Query(value = "SELECT b.* FROM bookings b " +
+           "INNER JOIN rooms r ON b.room_id = r.id " +
+           "INNER JOIN hotels h ON r.hotel_id = h.id " +
+           "WHERE h.owner_id = :ownerId " +
+           "ORDER BY b.created_at DESC LIMIT 5", 
+           nativeQuery = true)
+    List<Booking> findRecentBookingsByOwnerId(@Param("ownerId") Long ownerId);
+
+    List<Booking> findByRoomId(Long roomId);
+
+    // ========== Host analytics / earnings: aggregated in the database ==========
+
     /**
-     * Count upcoming bookings for owner (optimized)
+     * Bookings of an owner's hotels, optionally one hotel and a check-in range (null = no filter)
      */
-    @Query("SELECT COUNT(b) FROM Booking b " +
+    String HOST_SCOPE = "FROM Booking b " +
            "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
            "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status IN ('CONFIRMED', 'CHECKED_IN') " +
-           "AND b.checkInDate >= :today")
-    Long countUpcomingByOwnerId(@Param("ownerId") Long ownerId, @Param("today") LocalDate today);
-    
+           "WHERE h.ownerId = :ownerId " +
+           "AND (:hotelId IS NULL OR r.hotelId = :hotelId) " +
+           "AND (:startDate IS NULL OR b.checkInDate >= :startDate) " +
+           "AND (:endDate IS NULL OR b.checkInDate <= :endDate) ";
+
     /**
-     * Count pending check-ins for owner (optimized)
+     * Rows of [status, count, sum(totalPrice)]
      */
-    @Query("SELECT COUNT(b) FROM Booking b " +
-           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
-           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status = 'CONFIRMED' " +
-           "AND b.checkInDate <= :today")
-    Long countPendingCheckInsByOwnerId(@Param("ownerId") Long ownerId, @Param("today") LocalDate today);
-    
+    @Query("SELECT b.status, COUNT(b), COALESCE(SUM(b.totalPrice), 0) " + HOST_SCOPE + "GROUP BY b.status")
+    List<Object[]> sumByStatusForHost(@Param("ownerId") Long ownerId,
+                                      @Param("hotelId") Long hotelId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
     /**
-     * Count pending check-outs for owner (optimized)
+     * Rows of [year, month, sum(totalPrice)] of completed bookings by check-out month,
+     * checked out at or after {@code since} (null = all)
      */
-    @Query("SELECT COUNT(b) FROM Booking b " +
-           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
-           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status = 'CHECKED_IN' " +
-           "AND b.checkOutDate <= :today")
-    Long countPendingCheckOutsByOwnerId(@Param("ownerId") Long ownerId, @Param("today") LocalDate today);
-    
+    @Query("SELECT YEAR(b.checkedOutAt), MONTH(b.checkedOutAt), COALESCE(SUM(b.totalPrice), 0) " + HOST_SCOPE +
+           "AND b.status = 'COMPLETED' AND b.checkedOutAt IS NOT NULL " +
+           "AND (:since IS NULL OR b.checkedOutAt >= :since) " +
+           "GROUP BY YEAR(b.checkedOutAt), MONTH(b.checkedOutAt)")
+    List<Object[]> sumCompletedByMonthForHost(@Param("ownerId") Long ownerId,
+                                              @Param("hotelId") Long hotelId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              @Param("since") LocalDateTime since);
+
     /**
-     * Sum total revenue from completed bookings (optimized)
+     * Rows of [hotelId, sum(totalPrice)] of completed bookings
      */
-    @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b " +
-           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
-           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status = 'COMPLETED'")
-    BigDecimal sumTotalRevenueByOwnerId(@Param("ownerId") Long ownerId);
-    
+    @Query("SELECT r.hotelId, COALESCE(SUM(b.totalPrice), 0) " + HOST_SCOPE +
+           "AND b.status = 'COMPLETED' GROUP BY r.hotelId")
+    List<Object[]> sumCompletedByHotelForHost(@Param("ownerId") Long ownerId,
+                                              @Param("hotelId") Long hotelId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
     /**
-     * Sum revenue for this month (optimized)
+     * Rows of [bookingId, hotelName, guestName, checkedOutAt, totalPrice] of the latest check-outs
      */
-    @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b " +
-           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
-           "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status = 'COMPLETED' " +
-           "AND b.checkedOutAt >= :startOfMonth")
-    BigDecimal sumRevenueThisMonthByOwnerId(@Param("ownerId") Long ownerId, @Param("startOfMonth") LocalDateTime startOfMonth);
-    
+    @Query("SELECT b.id, h.name, b.guestName, b.checkedOutAt, b.totalPrice " + HOST_SCOPE +
+           "AND b.status = 'COMPLETED' AND b.checkedOutAt IS NOT NULL ORDER BY b.checkedOutAt DESC")
+    List<Object[]> findRecentCompletedForHost(@Param("ownerId") Long ownerId,
+                                              @Param("hotelId") Long hotelId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              Pageable pageable);
+
+    @Query("SELECT COUNT(b) " + HOST_SCOPE)
+    long countForHost(@Param("ownerId") Long ownerId,
+                      @Param("hotelId") Long hotelId,
+                      @Param("startDate") LocalDate startDate,
+                      @Param("endDate") LocalDate endDate);
+
+    // ========== Invoice exports ==========
+
     /**
-     * Sum revenue for last month (optimized)
+     * One batch of an invoice export: bookings of an owner's hotels (optionally one hotel) checking in
+     * between startDate and endDate with id > afterId, in id order, as rows of
+     * [id, status, createdAt, guestName, guestEmail, guestPhone, guests, checkInDate, checkOutDate,
+     *  couponCode, totalPrice, roomName, roomBasePrice, hotelName, hotelAddress, hotelCity, userFullName].
+     * Plain values, so nothing accumulates in the persistence context while an export runs.
      */
-    @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b " +
+    @Query("SELECT b.id, b.status, b.createdAt, b.guestName, b.guestEmail, b.guestPhone, b.guests, " +
+           "b.checkInDate, b.checkOutDate, b.couponCode, b.totalPrice, r.name, r.basePrice, " +
+           "h.name, h.address, h.city, u.fullName FROM Booking b " +
            "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
            "JOIN com.verzol.stayhub.module.hotel.entity.Hotel h ON r.hotelId = h.id " +
-           "WHERE h.ownerId = :ownerId AND b.status = 'COMPLETED' " +
-           "AND b.checkedOutAt >= :startOfLastMonth AND b.checkedOutAt <= :endOfLastMonth")
-    BigDecimal sumRevenueLastMonthByOwnerId(@Param("ownerId") Long ownerId, 
-                                           @Param("startOfLastMonth") LocalDateTime startOfLastMonth,
-                                           @Param("endOfLastMonth") LocalDateTime endOfLastMonth);
-    
-    /**
-     * Get recent bookings (last 5) for owner (optimized - only loads 5 records)
-     * Using native query with LIMIT for better performance
-     */
-    @Query(value = "SELECT b.* FROM bookings b " +
-           "INNER JOIN rooms r ON b.room_id = r.id " +
-           "INNER JOIN hotels h ON r.hotel_id = h.id " +
-           "WHERE h.owner_id = :ownerId " +
-           "ORDER BY b.created_at DESC LIMIT 5", 
-           nativeQuery = true)
-    List<Booking> findRecentBookingsByOwnerId(@Param("ownerId") Long ownerId);
-
-    List<Booking> findByRoomId(Long roomId);
+           "LEFT JOIN com.verzol.stayhub.module.user.entity.User u ON b.userId = u.id " +
+           "WHERE h.ownerId = :ownerId " +
+           "AND (:hotelId IS NULL OR r.hotelId = :hotelId) " +
+           "AND b.checkInDate >= :startDate AND b.checkInDate <= :endDate " +
+           "AND b.id > :afterId ORDER BY b.id")
+    List<Object[]> findInvoiceExportBatch(@Param("ownerId") Long ownerId,
+                                          @Param("hotelId") Long hotelId,
+                                          @Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
 }
@@ -0,0 +1,72 @@
+package com.verzol.stayhub.module.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.verzol.stayhub.module.booking.entity.InvoiceExport;
+
+public interface InvoiceExportRepository extends JpaRepository<InvoiceExport, Long> {
+
+    List<InvoiceExport> findByOwnerIdOrderByIdDesc(Long ownerId, Pageable pageable);
+
+    /**
+     * An export of the same bookings still queued or running (hotelId null = all hotels)
+     */
+    Optional<InvoiceExport> findFirstByOwnerIdAndHotelIdAndMonthAndStatusIn(Long ownerId, Long hotelId, String month,
+                                                                            Collection<String> statuses);
+
+    /**
+     * Ids of exports to build: queued, or running on a worker whose heartbeat is older than staleBefore, oldest first
+     */
+    @Query("SELECT e.id FROM InvoiceExport e WHERE e.status = 'PENDING' " +
+           "OR (e.status = 'RUNNING' AND e.heartbeatAt < :staleBefore) ORDER BY e.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    /**
+     * Claim an export for this worker; 0 if another worker got it first
+     */
+    @Modifying
+    @Query("UPDATE InvoiceExport e SET e.status = 'RUNNING', e.claimToken = :token, e.startedAt = :now, " +
+           "e.heartbeatAt = :now, e.processedBookings = 0, e.error = NULL " +
+           "WHERE e.id = :id AND (e.status = 'PENDING' OR (e.status = 'RUNNING' AND e.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Record progress and keep the claim alive; 0 if the claim was lost
+     */
+    @Modifying
+    @Query("UPDATE InvoiceExport e SET e.totalBookings = :total, e.processedBookings = :processed, e.heartbeatAt = :now " +
+           "WHERE e.id = :id AND e.claimToken = :token AND e.status = 'RUNNING'")
+    int heartbeat(@Param("id") Long id, @Param("token") String token, @Param("total") int total,
+                  @Param("processed") int processed, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InvoiceExport e SET e.status = 'COMPLETED', e.processedBookings = :processed, " +
+           "e.filePath = :filePath, e.fileSize = :fileSize, e.completedAt = :now, e.heartbeatAt = :now, " +
+           "e.claimToken = NULL WHERE e.id = :id AND e.claimToken = :token AND e.status = 'RUNNING'")
+    int markCompleted(@Param("id") Long id, @Param("token") String token, @Param("processed") int processed,
+                      @Param("filePath") String filePath, @Param("fileSize") long fileSize,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE InvoiceExport e SET e.status = 'FAILED', e.error = :error, e.completedAt = :now, " +
+           "e.claimToken = NULL WHERE e.id = :id AND e.claimToken = :token AND e.status = 'RUNNING'")
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Finished exports created before the given time, oldest first
+     */
+    @Query("SELECT e FROM InvoiceExport e WHERE e.status IN ('COMPLETED', 'FAILED') AND e.createdAt < :before " +
+           "ORDER BY e.id")
+    List<InvoiceExport> findFinishedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
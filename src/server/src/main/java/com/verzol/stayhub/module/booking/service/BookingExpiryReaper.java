@@ -0,0 +1,141 @@
+package com.verzol.stayhub.module.booking.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.booking.repository.BookingRepository;
+import com.verzol.stayhub.module.hotel.service.HostBookingStatsService;
+import com.verzol.stayhub.module.room.service.RoomInventoryService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background reaper for PENDING bookings whose payment hold has expired.
+ *
+ * Works in bounded batches, oldest expiry first: each batch cancels its bookings and releases
+ * their PENDING_HOLD slots with two set-based UPDATEs in its own short transaction, so booking
+ * requests never pay for cleaning up other guests' holds (readers already treat expired holds
+ * as free). The hosts' dashboard counters of the cancelled bookings are updated in the same
+ * transaction. Exposes how far behind the sweep is as stayhub.booking.reaper.lag.
+ */
+@Component
+public class BookingExpiryReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingExpiryReaper.class);
+
+    static final String EXPIRED_REASON = "Booking expired - payment not completed within time limit";
+
+    private final BookingRepository bookingRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final HostBookingStatsService hostBookingStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter reapedCounter;
+    private final Timer sweepTimer;
+
+    @Value("${app.booking.reaper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.booking.reaper.max-batches:20}")
+    private int maxBatches;
+
+    public BookingExpiryReaper(BookingRepository bookingRepository,
+                               RoomInventoryService roomInventoryService,
+                               HostBookingStatsService hostBookingStatsService,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.roomInventoryService = roomInventoryService;
+        this.hostBookingStatsService = hostBookingStatsService;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("stayhub.booking.reaper.lag", lagSeconds, AtomicLong::get)
+                .description("Seconds between the oldest expiry reaped in the last sweep and the sweep itself")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.reapedCounter = Counter.builder("stayhub.booking.reaper.reaped")
+                .description("Expired PENDING bookings cancelled by the reaper")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("stayhub.booking.reaper.sweep")
+                .description("Duration of one expiry sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.booking.reaper.interval-ms:30000}",
+               initialDelayString = "${app.booking.reaper.initial-delay-ms:30000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            try {
+                int reaped = reapExpired();
+                if (reaped > 0) {
+                    logger.info("Expired {} pending bookings", reaped);
+                }
+            } catch (Exception e) {
+                logger.error("Expired booking sweep failed", e);
+            }
+        });
+    }
+
+    /**
+     * Cancel expired PENDING bookings batch by batch, at most maxBatches per sweep
+     *
+     * @return number of bookings cancelled
+     */
+    public int reapExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldestExpiry = null;
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Object[]> rows = bookingRepository.findExpiredPendingBatch(now, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            if (oldestExpiry == null) {
+                oldestExpiry = (LocalDateTime) rows.get(0)[1];
+            }
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                ids.add((Long) row[0]);
+            }
+            Integer cancelled = transactionTemplate.execute(status -> {
+                // Bookings confirmed since the batch was read are no longer PENDING and are skipped
+                List<Booking> expired = bookingRepository.lockExpiredPending(ids, now);
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+                List<Long> expiredIds = expired.stream().map(Booking::getId).toList();
+                int count = bookingRepository.cancelExpiredPending(expiredIds, now, EXPIRED_REASON);
+                // Only the bookings really cancelled lose their in-memory claim
+                roomInventoryService.releaseExpired(expiredIds);
+                hostBookingStatsService.bookingsChanged(expired, "PENDING", "CANCELLED");
+                return count;
+            });
+            total += cancelled != null ? cancelled : 0;
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        lagSeconds.set(oldestExpiry != null ? Math.max(0, Duration.between(oldestExpiry, now).toSeconds()) : 0);
+        reapedCounter.increment(total);
+        return total;
+    }
+}
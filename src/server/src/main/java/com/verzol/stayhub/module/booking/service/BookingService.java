@@ -8,11 +8,11 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.verzol.stayhub.module.auth.service.EmailService;
+import com.verzol.stayhub.common.CursorPage;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.AnalyticsResponse;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.BookingRequest;
 import com.verzol.stayhub.module.booking.dto.BookingDTOs.BookingResponse;
@@ -27,13 +27,17 @@ import com.verzol.stayhub.module.booking.dto.BookingDTOs.RecentTransaction;
 import com.verzol.stayhub.module.booking.entity.Booking;
 import com.verzol.stayhub.module.booking.repository.BookingRepository;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.hotel.service.HostBookingStatsService;
 import com.verzol.stayhub.module.promotion.entity.Promotion;
 import com.verzol.stayhub.module.promotion.repository.PromotionRepository;
 import com.verzol.stayhub.module.room.entity.Room;
 import com.verzol.stayhub.module.room.repository.RoomRepository;
 import com.verzol.stayhub.module.room.service.RoomService;
 import com.verzol.stayhub.module.user.repository.UserRepository;
-import com.verzol.stayhub.module.notification.service.NotificationService;
+import com.verzol.stayhub.module.outbox.dto.OutboxPayloads.InvoiceEmailPayload;
+import com.verzol.stayhub.module.outbox.service.OutboxService;
+import com.verzol.stayhub.util.Cursor;
+import com.verzol.stayhub.util.Money;
 
 import lombok.RequiredArgsConstructor;
 
@@ -46,15 +50,19 @@ public class BookingService {
     private final PromotionRepository promotionRepository;
     private final com.verzol.stayhub.module.hotel.repository.HotelRepository hotelRepository;
     private final RoomService roomService;
-    private final EmailService emailService;
     private final UserRepository userRepository;
     private final BookingStateMachine stateMachine;
-    private final NotificationService notificationService;
+    private final OutboxService outboxService;
     private final RefundCalculationService refundCalculationService;
+    private final HostBookingStatsService hostBookingStatsService;
 
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
+    // Cursor pages of booking lists
+    private static final String BOOKING_CURSOR = "booking";
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Value("${app.booking.payment-hold-duration:200}")
     private int paymentHoldDurationMinutes;
 
@@ -155,34 +163,9 @@ public class BookingService {
             throw new RuntimeException("Room not found");
         }
         
-        // Clean up expired PENDING bookings first to free up rooms
-        // This ensures expired bookings don't block new bookings
-        List<Booking> expiredBookings = bookingRepository.findExpiredPendingBookings(LocalDateTime.now());
-        for (Booking expiredBooking : expiredBookings) {
-            try {
-                roomService.cancelReservation(expiredBooking.getId());
-            } catch (Exception e) {
-                // Log but don't fail - room might already be released
-                System.err.println("Failed to release room for expired booking " + expiredBooking.getId() + ": " + e.getMessage());
-            }
-            
-            expiredBooking.setStatus("CANCELLED");
-            expiredBooking.setCancelledAt(LocalDateTime.now());
-            expiredBooking.setCancelledBy("SYSTEM");
-            expiredBooking.setCancellationReason("Booking expired - payment not completed within time limit");
-            bookingRepository.save(expiredBooking);
-        }
-        
-        // Check for overlapping bookings (excluding cancelled and expired PENDING bookings)
-        // This includes only valid PENDING (non-expired temporary holds) and CONFIRMED bookings
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
-            request.getRoomId(), 
-            request.getCheckInDate(), 
-            request.getCheckOutDate(),
-            LocalDateTime.now() // Exclude expired PENDING bookings
-        );
-        
-        if (!overlappingBookings.isEmpty()) {
+        // Check availability against the in-memory inventory calendar (no DB round trip)
+        // Expired PENDING holds count as free, and rooms with quantity > 1 accept overlapping stays
+        if (!roomService.isAvailable(request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate())) {
             throw new RuntimeException("Room is not available for the selected dates");
         }
         
@@ -212,16 +195,16 @@ public class BookingService {
         Booking savedBooking = bookingRepository.save(booking);
 
         // Reserve room immediately with temporary hold (like major booking sites)
-        // This prevents double booking during payment process
+        // This prevents double booking during payment process: all nights are claimed atomically,
+        // and if any night was taken meanwhile the whole transaction (booking included) rolls back
         try {
-            roomService.reserveDatesTemporary(savedBooking.getRoomId(), savedBooking.getId(), 
+            roomService.reserveDatesTemporary(savedBooking.getRoomId(), savedBooking.getId(),
                 savedBooking.getCheckInDate(), savedBooking.getCheckOutDate(),
                 savedBooking.getLockedUntil());
-        } catch (Exception e) {
-            // If reservation fails, rollback the booking
-            bookingRepository.delete(savedBooking);
+        } catch (RuntimeException e) {
             throw new RuntimeException("Room is no longer available: " + e.getMessage());
         }
+        hostBookingStatsService.bookingChanged(savedBooking, null, savedBooking.getStatus());
 
         // 3. Return Response
         BookingResponse response = new BookingResponse();
@@ -247,9 +230,11 @@ public class BookingService {
 
     @Transactional
     public void confirmBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
+        // Row-locked: an expiry sweep cancelling this booking has committed by now, so a booking
+        // whose inventory was already released is refused here instead of being double-sold
         if (!"PENDING".equals(booking.getStatus())) {
             throw new RuntimeException("Booking is not pending");
         }
@@ -265,6 +250,7 @@ public class BookingService {
 
         booking.setStatus("CONFIRMED");
         bookingRepository.save(booking);
+        hostBookingStatsService.bookingChanged(booking, "PENDING", booking.getStatus());
         
         // Update promotion usage if applicable
         if (booking.getCouponCode() != null) {
@@ -277,149 +263,149 @@ public class BookingService {
             });
         }
 
-        // Send notification to guest
-        try {
-            Room room = roomRepository.findById(booking.getRoomId())
-                    .orElseThrow(() -> new RuntimeException("Room not found"));
-            Hotel hotel = hotelRepository.findById(room.getHotelId())
-                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
-            
-            String message = String.format("Đặt phòng #%d tại %s đã được xác nhận thành công!", 
-                    booking.getId(), hotel.getName());
-            notificationService.sendNotification(
-                    booking.getUserId(),
-                    "Đặt phòng thành công",
-                    message,
-                    "BOOKING"
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send booking confirmation notification: " + e.getMessage());
-        }
-
-        // Send invoice email
-        try {
-            Room room = roomRepository.findById(booking.getRoomId())
-                    .orElseThrow(() -> new RuntimeException("Room not found"));
-            Hotel hotel = hotelRepository.findById(room.getHotelId())
-                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
-            
-            String guestEmail = booking.getGuestEmail() != null && !booking.getGuestEmail().isEmpty()
-                    ? booking.getGuestEmail()
-                    : userRepository.findById(booking.getUserId())
-                            .map(user -> user.getEmail())
-                            .orElse(null);
-            
-            String guestName = booking.getGuestName() != null && !booking.getGuestName().isEmpty()
-                    ? booking.getGuestName()
-                    : userRepository.findById(booking.getUserId())
-                            .map(user -> user.getFullName())
-                            .orElse("Khách hàng");
-            
-            if (guestEmail != null) {
-                // Format price as VND
-                String formattedPrice = String.format("%,d VNĐ", booking.getTotalPrice().longValue());
-                
-                emailService.sendInvoiceEmail(
-                    guestEmail,
-                    guestName,
-                    booking.getId().toString(),
-                    hotel.getName(),
-                    room.getName(),
-                    booking.getCheckInDate().toString(),
-                    booking.getCheckOutDate().toString(),
-                    booking.getGuests(),
-                    formattedPrice,
-                    booking.getCouponCode(),
-                    frontendUrl
-                );
+        // Notification and invoice email go out from the outbox once this transaction commits
+        Room room = roomRepository.findById(booking.getRoomId())
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        Hotel hotel = hotelRepository.findById(room.getHotelId())
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+        String eventKey = "booking:" + bookingId + ":confirmed";
+
+        outboxService.recordNotification(eventKey + ":notification",
+                booking.getUserId(),
+                "Đặt phòng thành công",
+                String.format("Đặt phòng #%d tại %s đã được xác nhận thành công!", booking.getId(), hotel.getName()),
+                "BOOKING");
+
+        String guestEmail = booking.getGuestEmail();
+        String guestName = booking.getGuestName();
+        if (guestEmail == null || guestEmail.isEmpty() || guestName == null || guestName.isEmpty()) {
+            com.verzol.stayhub.module.user.entity.User user = userRepository.findById(booking.getUserId()).orElse(null);
+            if (guestEmail == null || guestEmail.isEmpty()) {
+                guestEmail = user != null ? user.getEmail() : null;
+            }
+            if (guestName == null || guestName.isEmpty()) {
+                guestName = user != null ? user.getFullName() : "Khách hàng";
             }
-        } catch (Exception e) {
-            // Log error but don't fail the booking confirmation
-            System.err.println("Failed to send invoice email: " + e.getMessage());
-            e.printStackTrace();
         }
-    }
 
-    @Scheduled(fixedRate = 60000) // Run every minute
-    @Transactional
-    public void cancelExpiredBookings() {
-        List<Booking> expiredBookings = bookingRepository.findExpiredPendingBookings(LocalDateTime.now());
-        for (Booking booking : expiredBookings) {
-            // Release room reservation if booking expires
-            try {
-                roomService.cancelReservation(booking.getId());
-            } catch (Exception e) {
-                System.err.println("Failed to release room for expired booking " + booking.getId() + ": " + e.getMessage());
-            }
-            
-            booking.setStatus("CANCELLED");
-            booking.setCancelledAt(LocalDateTime.now());
-            booking.setCancelledBy("SYSTEM");
-            booking.setCancellationReason("Booking expired - payment not completed within time limit");
-            bookingRepository.save(booking);
+        if (guestEmail != null) {
+            String formattedPrice = Money.formatVnd(booking.getTotalPrice());
+
+            outboxService.recordInvoiceEmail(eventKey + ":invoice-email", new InvoiceEmailPayload(
+                guestEmail,
+                guestName,
+                booking.getId().toString(),
+                hotel.getName(),
+                room.getName(),
+                booking.getCheckInDate().toString(),
+                booking.getCheckOutDate().toString(),
+                booking.getGuests(),
+                formattedPrice,
+                booking.getCouponCode(),
+                frontendUrl
+            ));
         }
     }
-    
+
     public Booking getBooking(Long id) {
         return bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
     public List<BookingResponse> getUserBookings(Long userId) {
         List<Booking> bookings = bookingRepository.findByUserId(userId);
-        return bookings.stream().map(this::mapToResponse).toList();
+        return mapToResponseBatch(bookings);
+    }
+
+    /**
+     * One page of a guest's bookings, newest first (seek on id - no OFFSET, COUNT only on request)
+     */
+    public CursorPage<BookingResponse> getUserBookingsPage(Long userId, String cursor, int size, boolean includeTotal) {
+        int limit = pageSize(size);
+        List<Booking> rows = bookingRepository.findPageByUserId(userId, beforeId(cursor), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, this::mapToResponseBatch,
+                includeTotal ? bookingRepository.countByUserId(userId) : null);
     }
 
     public BookingResponse mapToResponse(Booking booking) {
-        BookingResponse response = new BookingResponse();
-        response.setId(booking.getId());
-        response.setRoomId(booking.getRoomId());
-        response.setCheckInDate(booking.getCheckInDate());
-        response.setCheckOutDate(booking.getCheckOutDate());
-        response.setGuests(booking.getGuests());
-        response.setTotalPrice(booking.getTotalPrice());
-        response.setStatus(booking.getStatus());
-        response.setLockedUntil(booking.getLockedUntil());
-        response.setCouponCode(booking.getCouponCode());
-        response.setNote(booking.getNote());
-        response.setGuestName(booking.getGuestName());
-        response.setGuestEmail(booking.getGuestEmail());
-        response.setGuestPhone(booking.getGuestPhone());
-        
-        // New fields
-        response.setCheckedInAt(booking.getCheckedInAt());
-        response.setCheckedOutAt(booking.getCheckedOutAt());
-        response.setCancelledAt(booking.getCancelledAt());
-        response.setCancellationReason(booking.getCancellationReason());
-        response.setCancelledBy(booking.getCancelledBy());
-        response.setRefundAmount(booking.getRefundAmount());
-        response.setCancellationPolicy(booking.getCancellationPolicy());
-        response.setCreatedAt(booking.getCreatedAt());
-        response.setUpdatedAt(booking.getUpdatedAt());
-        
-        // Set cancellation policy description
-        if (booking.getCancellationPolicy() != null) {
-            response.setCancellationPolicyDescription(
-                refundCalculationService.getPolicyDescription(booking.getCancellationPolicy())
-            );
+        return mapToResponseBatch(List.of(booking)).get(0);
+    }
+
+    /**
+     * Map bookings to BookingResponse with batch loading: rooms, their first images and hotels
+     * are each loaded in one query, however many bookings there are
+     */
+    private List<BookingResponse> mapToResponseBatch(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
         }
-        
-        // Populate Room and Hotel details
-        roomRepository.findById(booking.getRoomId()).ifPresent(room -> {
-            response.setRoomName(room.getName());
-            if (room.getImages() != null && !room.getImages().isEmpty()) {
-                response.setRoomImage(room.getImages().get(0).getUrl());
-            }
-            
-            // Fetch Hotel details
-            if (room.getHotelId() != null) {
-                response.setHotelId(room.getHotelId());
-                hotelRepository.findById(room.getHotelId()).ifPresent(hotel -> {
-                    response.setHotelName(hotel.getName());
-                });
-            }
-        });
-        
-        return response;
+
+        List<Long> roomIds = bookings.stream()
+                .map(Booking::getRoomId)
+                .distinct()
+                .collect(Collectors.toList());
+        java.util.Map<Long, com.verzol.stayhub.module.room.entity.Room> roomMap = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(com.verzol.stayhub.module.room.entity.Room::getId, r -> r));
+
+        // First image per room without initializing each room's lazy image collection
+        java.util.Map<Long, String> roomImageMap = roomRepository.findFirstImageUrlByRoomIds(roomIds);
+
+        List<Long> hotelIds = roomMap.values().stream()
+                .map(com.verzol.stayhub.module.room.entity.Room::getHotelId)
+                .filter(id -> id != null)
+                .distinct()
+                .collect(Collectors.toList());
+        java.util.Map<Long, Hotel> hotelMap = hotelRepository.findAllById(hotelIds).stream()
+                .collect(Collectors.toMap(Hotel::getId, h -> h));
+
+        return bookings.stream()
+                .map(booking -> {
+                    BookingResponse response = new BookingResponse();
+                    response.setId(booking.getId());
+                    response.setRoomId(booking.getRoomId());
+                    response.setCheckInDate(booking.getCheckInDate());
+                    response.setCheckOutDate(booking.getCheckOutDate());
+                    response.setGuests(booking.getGuests());
+                    response.setTotalPrice(booking.getTotalPrice());
+                    response.setStatus(booking.getStatus());
+                    response.setLockedUntil(booking.getLockedUntil());
+                    response.setCouponCode(booking.getCouponCode());
+                    response.setNote(booking.getNote());
+                    response.setGuestName(booking.getGuestName());
+                    response.setGuestEmail(booking.getGuestEmail());
+                    response.setGuestPhone(booking.getGuestPhone());
+                    response.setCheckedInAt(booking.getCheckedInAt());
+                    response.setCheckedOutAt(booking.getCheckedOutAt());
+                    response.setCancelledAt(booking.getCancelledAt());
+                    response.setCancellationReason(booking.getCancellationReason());
+                    response.setCancelledBy(booking.getCancelledBy());
+                    response.setRefundAmount(booking.getRefundAmount());
+                    response.setCancellationPolicy(booking.getCancellationPolicy());
+                    response.setCreatedAt(booking.getCreatedAt());
+                    response.setUpdatedAt(booking.getUpdatedAt());
+
+                    if (booking.getCancellationPolicy() != null) {
+                        response.setCancellationPolicyDescription(
+                            refundCalculationService.getPolicyDescription(booking.getCancellationPolicy())
+                        );
+                    }
+
+                    // Use batch-loaded data
+                    com.verzol.stayhub.module.room.entity.Room room = roomMap.get(booking.getRoomId());
+                    if (room != null) {
+                        response.setRoomName(room.getName());
+                        response.setRoomImage(roomImageMap.get(room.getId()));
+                        if (room.getHotelId() != null) {
+                            response.setHotelId(room.getHotelId());
+                            Hotel hotel = hotelMap.get(room.getHotelId());
+                            if (hotel != null) {
+                                response.setHotelName(hotel.getName());
+                            }
+                        }
+                    }
+
+                    return response;
+                })
+                .collect(Collectors.toList());
     }
 
     /**
@@ -427,7 +413,7 @@ public class BookingService {
      */
     @Transactional
     public CancellationResponse cancelBooking(Long bookingId, Long userId, CancellationRequest request) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
         // Verify ownership
@@ -451,6 +437,7 @@ public class BookingService {
         booking.setCancelledBy("GUEST");
         
         // Transition to CANCELLED status
+        String previousStatus = booking.getStatus();
         stateMachine.transitionTo(booking, "CANCELLED");
         
         // Release room availability
@@ -462,26 +449,20 @@ public class BookingService {
         }
         
         bookingRepository.save(booking);
+        hostBookingStatsService.bookingChanged(booking, previousStatus, booking.getStatus());
         
         // Send notification to guest if cancelled by host
         if ("HOST".equals(booking.getCancelledBy())) {
-            try {
-                Room room = roomRepository.findById(booking.getRoomId())
-                        .orElseThrow(() -> new RuntimeException("Room not found"));
-                Hotel hotel = hotelRepository.findById(room.getHotelId())
-                        .orElseThrow(() -> new RuntimeException("Hotel not found"));
-                
-                String message = String.format("Đặt phòng #%d tại %s đã bị hủy bởi chủ khách sạn.", 
-                        booking.getId(), hotel.getName());
-                notificationService.sendNotification(
-                        booking.getUserId(),
-                        "Đặt phòng bị hủy",
-                        message,
-                        "BOOKING"
-                );
-            } catch (Exception e) {
-                System.err.println("Failed to send cancellation notification: " + e.getMessage());
-            }
+            Room room = roomRepository.findById(booking.getRoomId())
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+            Hotel hotel = hotelRepository.findById(room.getHotelId())
+                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
+
+            outboxService.recordNotification("booking:" + bookingId + ":cancelled:notification",
+                    booking.getUserId(),
+                    "Đặt phòng bị hủy",
+                    String.format("Đặt phòng #%d tại %s đã bị hủy bởi chủ khách sạn.", booking.getId(), hotel.getName()),
+                    "BOOKING");
         }
         
         // Build response
@@ -514,7 +495,7 @@ public class BookingService {
      */
     @Transactional
     public void checkIn(Long bookingId, Long hotelId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
         // Verify hotel ownership through room
@@ -531,8 +512,10 @@ public class BookingService {
         }
         
         // Transition to CHECKED_IN
+        String previousStatus = booking.getStatus();
         stateMachine.transitionTo(booking, "CHECKED_IN");
         bookingRepository.save(booking);
+        hostBookingStatsService.bookingChanged(booking, previousStatus, booking.getStatus());
     }
 
     /**
@@ -540,7 +523,7 @@ public class BookingService {
      */
     @Transactional
     public void checkOut(Long bookingId, Long hotelId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
         // Verify hotel ownership through room
@@ -557,8 +540,10 @@ public class BookingService {
         }
         
         // Transition to COMPLETED
+        String previousStatus = booking.getStatus();
         stateMachine.transitionTo(booking, "COMPLETED");
         bookingRepository.save(booking);
+        hostBookingStatsService.bookingChanged(booking, previousStatus, booking.getStatus());
     }
 
     /**
@@ -580,6 +565,20 @@ public class BookingService {
         return mapToHostResponseBatch(bookings);
     }
 
+    /**
+     * One page of a hotel's bookings, newest first; status and check-in range filters combine
+     */
+    public CursorPage<HostBookingResponse> getHostBookingsPage(Long hotelId, String status, LocalDate startDate,
+                                                               LocalDate endDate, String cursor, int size,
+                                                               boolean includeTotal) {
+        String statusFilter = status != null && !status.isEmpty() ? status : null;
+        int limit = pageSize(size);
+        List<Booking> rows = bookingRepository.findPageByHotelId(hotelId, statusFilter, startDate, endDate,
+                beforeId(cursor), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, this::mapToHostResponseBatch,
+                includeTotal ? bookingRepository.countByHotelIdFiltered(hotelId, statusFilter, startDate, endDate) : null);
+    }
+
     /**
      * Get upcoming bookings for a hotel
      */
@@ -616,6 +615,37 @@ public class BookingService {
         return mapToHostResponseBatch(bookings);
     }
 
+    /**
+     * One page of the bookings of all hotels owned by a host, newest first
+     */
+    public CursorPage<HostBookingResponse> getAllHostBookingsPage(Long ownerId, String cursor, int size, boolean includeTotal) {
+        int limit = pageSize(size);
+        List<Booking> rows = bookingRepository.findPageByOwnerId(ownerId, beforeId(cursor), PageRequest.of(0, limit + 1));
+        return toCursorPage(rows, limit, this::mapToHostResponseBatch,
+                includeTotal ? bookingRepository.countByOwnerId(ownerId) : null);
+    }
+
+    private static Long beforeId(String cursor) {
+        String[] keys = Cursor.decode(cursor, BOOKING_CURSOR, 1);
+        return keys == null ? Long.MAX_VALUE : Cursor.parse(keys[0], Long::valueOf);
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Rows were fetched with one extra row: its presence means there is a next page
+     */
+    private static <T> CursorPage<T> toCursorPage(List<Booking> rows, int size,
+                                                  java.util.function.Function<List<Booking>, List<T>> mapper,
+                                                  Long total) {
+        boolean hasNext = rows.size() > size;
+        List<Booking> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? Cursor.encode(BOOKING_CURSOR, page.get(page.size() - 1).getId()) : null;
+        return new CursorPage<>(mapper.apply(page), nextCursor, hasNext, total);
+    }
+
     /**
      * Map bookings to HostBookingResponse with batch loading (optimized - avoids N+1 queries)
      */
@@ -687,17 +717,10 @@ public class BookingService {
                 })
                 .collect(Collectors.toList());
     }
-    
-    /**
-     * Map booking to HostBookingResponse (single booking - for backward compatibility)
-     */
-    private HostBookingResponse mapToHostResponse(Booking booking) {
-        return mapToHostResponseBatch(List.of(booking)).get(0);
-    }
 
     /**
      * Get analytics for a hotel or all hotels owned by a host
-     * Optimized: Calculates analytics directly from filtered bookings
+     * Optimized: aggregated with GROUP BY queries - no booking entities are loaded
      * 
      * @param ownerId The host owner ID
      * @param hotelId Optional hotel ID filter (null = all hotels)
@@ -706,137 +729,75 @@ public class BookingService {
      * @return AnalyticsResponse with pre-calculated metrics
      */
     public AnalyticsResponse getAnalytics(Long ownerId, Long hotelId, LocalDate startDate, LocalDate endDate) {
-        List<Booking> bookings;
-        
         if (hotelId != null) {
-            // Verify hotel ownership
-            Hotel hotel = hotelRepository.findById(hotelId)
-                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
-            if (!hotel.getOwnerId().equals(ownerId)) {
-                throw new RuntimeException("You don't have permission to view analytics for this hotel");
-            }
-            
-            // Get bookings for specific hotel with optional date filter
-            if (startDate != null && endDate != null) {
-                bookings = bookingRepository.findByHotelIdAndCheckInDateBetween(hotelId, startDate, endDate);
-            } else {
-                bookings = bookingRepository.findByHotelId(hotelId);
+            verifyHotelOwner(hotelId, ownerId, "You don't have permission to view analytics for this hotel");
+        }
+        // The check-in range only applies when both ends are given
+        boolean dated = startDate != null && endDate != null;
+        LocalDate from = dated ? startDate : null;
+        LocalDate to = dated ? endDate : null;
+
+        AnalyticsResponse response = new AnalyticsResponse();
+
+        // Status distribution, and counts / revenue derived from it
+        java.util.Map<String, Integer> statusDistribution = new java.util.HashMap<>();
+        int bookingsCount = 0;
+        int completedCount = 0;
+        int cancelledCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Object[] row : bookingRepository.sumByStatusForHost(ownerId, hotelId, from, to)) {
+            String status = (String) row[0];
+            int count = ((Number) row[1]).intValue();
+            bookingsCount += count;
+            if (status == null) {
+                continue;
             }
-        } else {
-            // Get bookings for all hotels owned by the host
-            bookings = bookingRepository.findByOwnerId(ownerId);
-            
-            // Apply date filter if provided
-            if (startDate != null && endDate != null) {
-                bookings = bookings.stream()
-                        .filter(b -> {
-                            LocalDate checkIn = b.getCheckInDate();
-                            return checkIn != null && !checkIn.isBefore(startDate) && !checkIn.isAfter(endDate);
-                        })
-                        .collect(Collectors.toList());
+            statusDistribution.put(status, count);
+            if ("COMPLETED".equals(status)) {
+                completedCount = count;
+                revenue = (BigDecimal) row[2];
+            } else if ("CANCELLED".equals(status)) {
+                cancelledCount = count;
             }
         }
-        
-        return calculateAnalytics(bookings);
-    }
 
-    /**
-     * Calculate analytics from bookings list
-     */
-    private AnalyticsResponse calculateAnalytics(List<Booking> bookings) {
-        AnalyticsResponse response = new AnalyticsResponse();
-        
-        if (bookings.isEmpty()) {
-            response.setRevenue(BigDecimal.ZERO);
-            response.setBookingsCount(0);
-            response.setOccupancyRate(0.0);
-            response.setCancellationRate(0.0);
-            response.setAvgBookingValue(BigDecimal.ZERO);
+        response.setRevenue(revenue);
+        response.setBookingsCount(bookingsCount);
+        response.setOccupancyRate(bookingsCount > 0 ? (completedCount * 100.0 / bookingsCount) : 0.0);
+        response.setCancellationRate(bookingsCount > 0 ? (cancelledCount * 100.0 / bookingsCount) : 0.0);
+        response.setAvgBookingValue(completedCount > 0
+                ? revenue.divide(BigDecimal.valueOf(completedCount), 2, java.math.RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        response.setStatusDistribution(statusDistribution);
+
+        if (bookingsCount == 0) {
             response.setRevenueByMonth(List.of());
-            response.setStatusDistribution(java.util.Map.of());
             return response;
         }
-        
-        // Filter bookings by status
-        List<Booking> completed = bookings.stream()
-                .filter(b -> "COMPLETED".equals(b.getStatus()))
-                .collect(Collectors.toList());
-        List<Booking> cancelled = bookings.stream()
-                .filter(b -> "CANCELLED".equals(b.getStatus()))
-                .collect(Collectors.toList());
-        
-        // Calculate revenue
-        BigDecimal revenue = completed.stream()
-                .map(b -> b.getTotalPrice() != null ? b.getTotalPrice() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        response.setRevenue(revenue);
-        
-        // Calculate counts
-        int bookingsCount = bookings.size();
-        response.setBookingsCount(bookingsCount);
-        
-        // Calculate rates
-        double occupancyRate = bookingsCount > 0 ? (completed.size() * 100.0 / bookingsCount) : 0.0;
-        double cancellationRate = bookingsCount > 0 ? (cancelled.size() * 100.0 / bookingsCount) : 0.0;
-        response.setOccupancyRate(occupancyRate);
-        response.setCancellationRate(cancellationRate);
-        
-        // Calculate average booking value
-        BigDecimal avgBookingValue = !completed.isEmpty() 
-                ? revenue.divide(BigDecimal.valueOf(completed.size()), 2, java.math.RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-        response.setAvgBookingValue(avgBookingValue);
-        
-        // Calculate revenue by month (last 6 months)
+
+        // Revenue by month (last 6 months, including the current one)
+        java.time.YearMonth currentMonth = java.time.YearMonth.now();
+        java.time.YearMonth firstMonth = currentMonth.minusMonths(5);
+        java.util.Map<java.time.YearMonth, BigDecimal> monthRevenueMap = sumCompletedByMonth(
+                ownerId, hotelId, from, to, firstMonth.atDay(1).atStartOfDay());
+
         List<MonthlyRevenue> revenueByMonth = new java.util.ArrayList<>();
-        java.time.LocalDate now = java.time.LocalDate.now();
-        java.util.Map<String, BigDecimal> monthRevenueMap = new java.util.HashMap<>();
-        
-        for (Booking booking : completed) {
-            if (booking.getCheckedOutAt() != null) {
-                java.time.LocalDate checkoutDate = booking.getCheckedOutAt().toLocalDate();
-                // Only include last 6 months
-                java.time.Period period = java.time.Period.between(checkoutDate, now);
-                int monthsDiff = period.getYears() * 12 + period.getMonths();
-                
-                if (monthsDiff >= 0 && monthsDiff < 6) {
-                    String monthKey = checkoutDate.getYear() + "-" + String.format("%02d", checkoutDate.getMonthValue());
-                    monthRevenueMap.merge(monthKey, 
-                            booking.getTotalPrice() != null ? booking.getTotalPrice() : BigDecimal.ZERO,
-                            BigDecimal::add);
-                }
-            }
-        }
-        
-        // Generate last 6 months with revenue
-        for (int i = 5; i >= 0; i--) {
-            java.time.LocalDate monthDate = now.minusMonths(i);
-            String monthKey = monthDate.getYear() + "-" + String.format("%02d", monthDate.getMonthValue());
-            String monthName = monthDate.getMonth().getDisplayName(
-                    java.time.format.TextStyle.SHORT, 
-                    java.util.Locale.forLanguageTag("vi-VN"));
-            
-                    MonthlyRevenue monthlyRevenue = new MonthlyRevenue();
-            monthlyRevenue.setMonth(monthName);
-            monthlyRevenue.setRevenue(monthRevenueMap.getOrDefault(monthKey, BigDecimal.ZERO));
+        for (java.time.YearMonth month = firstMonth; !month.isAfter(currentMonth); month = month.plusMonths(1)) {
+            MonthlyRevenue monthlyRevenue = new MonthlyRevenue();
+            monthlyRevenue.setMonth(month.getMonth().getDisplayName(
+                    java.time.format.TextStyle.SHORT,
+                    java.util.Locale.forLanguageTag("vi-VN")));
+            monthlyRevenue.setRevenue(monthRevenueMap.getOrDefault(month, BigDecimal.ZERO));
             revenueByMonth.add(monthlyRevenue);
         }
         response.setRevenueByMonth(revenueByMonth);
-        
-        // Status distribution
-        java.util.Map<String, Integer> statusDistribution = bookings.stream()
-                .collect(Collectors.groupingBy(
-                        Booking::getStatus,
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-        response.setStatusDistribution(statusDistribution);
-        
+
         return response;
     }
 
     /**
      * Get earnings for a hotel or all hotels owned by a host
-     * Optimized: Calculates earnings directly from filtered bookings
+     * Optimized: aggregated with GROUP BY queries, only the 10 recent transactions are read as rows
      * 
      * @param ownerId The host owner ID
      * @param hotelId Optional hotel ID filter (null = all hotels)
@@ -845,52 +806,25 @@ public class BookingService {
      * @return EarningsResponse with pre-calculated metrics
      */
     public EarningsResponse getEarnings(Long ownerId, Long hotelId, LocalDate startDate, LocalDate endDate) {
-        List<Booking> bookings;
-        
         if (hotelId != null) {
-            // Verify hotel ownership
-            Hotel hotel = hotelRepository.findById(hotelId)
-                    .orElseThrow(() -> new RuntimeException("Hotel not found"));
-            if (!hotel.getOwnerId().equals(ownerId)) {
-                throw new RuntimeException("You don't have permission to view earnings for this hotel");
-            }
-            
-            // Get bookings for specific hotel with date filter
-            if (startDate != null && endDate != null) {
-                bookings = bookingRepository.findByHotelIdAndCheckInDateBetween(hotelId, startDate, endDate);
-            } else {
-                bookings = bookingRepository.findByHotelId(hotelId);
-            }
-        } else {
-            // Get bookings for all hotels owned by the host
-            bookings = bookingRepository.findByOwnerId(ownerId);
-            
-            // Apply date filter if provided
-            if (startDate != null && endDate != null) {
-                bookings = bookings.stream()
-                        .filter(b -> {
-                            LocalDate checkIn = b.getCheckInDate();
-                            return checkIn != null && !checkIn.isBefore(startDate) && !checkIn.isAfter(endDate);
-                        })
-                        .collect(Collectors.toList());
-            }
+            verifyHotelOwner(hotelId, ownerId, "You don't have permission to view earnings for this hotel");
         }
-        
-        return calculateEarnings(bookings);
-    }
+        boolean dated = startDate != null && endDate != null;
+        LocalDate from = dated ? startDate : null;
+        LocalDate to = dated ? endDate : null;
 
-    /**
-     * Calculate earnings from bookings list
-     */
-    private EarningsResponse calculateEarnings(List<Booking> bookings) {
         EarningsResponse response = new EarningsResponse();
-        
-        // Filter only completed bookings
-        List<Booking> completed = bookings.stream()
-                .filter(b -> "COMPLETED".equals(b.getStatus()))
-                .collect(Collectors.toList());
-        
-        if (completed.isEmpty()) {
+
+        int completedCount = 0;
+        BigDecimal totalEarnings = BigDecimal.ZERO;
+        for (Object[] row : bookingRepository.sumByStatusForHost(ownerId, hotelId, from, to)) {
+            if ("COMPLETED".equals(row[0])) {
+                completedCount = ((Number) row[1]).intValue();
+                totalEarnings = (BigDecimal) row[2];
+            }
+        }
+
+        if (completedCount == 0) {
             response.setTotalEarnings(BigDecimal.ZERO);
             response.setCompletedCount(0);
             response.setAvgBookingValue(BigDecimal.ZERO);
@@ -899,108 +833,69 @@ public class BookingService {
             response.setRecentTransactions(List.of());
             return response;
         }
-        
-        // Batch load rooms and hotels for earnings calculation
-        List<Long> roomIds = completed.stream()
-                .map(Booking::getRoomId)
-                .distinct()
-                .collect(Collectors.toList());
-        List<com.verzol.stayhub.module.room.entity.Room> rooms = roomRepository.findAllById(roomIds);
-        java.util.Map<Long, com.verzol.stayhub.module.room.entity.Room> roomMap = rooms.stream()
-                .collect(Collectors.toMap(com.verzol.stayhub.module.room.entity.Room::getId, r -> r));
-        
-        List<Long> hotelIds = rooms.stream()
-                .map(com.verzol.stayhub.module.room.entity.Room::getHotelId)
-                .filter(id -> id != null)
-                .distinct()
-                .collect(Collectors.toList());
-        List<Hotel> hotels = hotelRepository.findAllById(hotelIds);
-        java.util.Map<Long, Hotel> hotelMap = hotels.stream()
-                .collect(Collectors.toMap(Hotel::getId, h -> h));
-        
-        // Calculate total earnings
-        BigDecimal totalEarnings = completed.stream()
-                .map(b -> b.getTotalPrice() != null ? b.getTotalPrice() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
         response.setTotalEarnings(totalEarnings);
-        response.setCompletedCount(completed.size());
-        
-        // Calculate average booking value
-        BigDecimal avgBookingValue = !completed.isEmpty()
-                ? totalEarnings.divide(BigDecimal.valueOf(completed.size()), 2, java.math.RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
-        response.setAvgBookingValue(avgBookingValue);
-        
+        response.setCompletedCount(completedCount);
+        response.setAvgBookingValue(
+                totalEarnings.divide(BigDecimal.valueOf(completedCount), 2, java.math.RoundingMode.HALF_UP));
+
         // Group earnings by hotel
         java.util.Map<Long, BigDecimal> earningsByHotel = new java.util.HashMap<>();
-        for (Booking booking : completed) {
-            com.verzol.stayhub.module.room.entity.Room room = roomMap.get(booking.getRoomId());
-            if (room != null && room.getHotelId() != null) {
-                BigDecimal price = booking.getTotalPrice() != null ? booking.getTotalPrice() : BigDecimal.ZERO;
-                earningsByHotel.merge(room.getHotelId(), price, BigDecimal::add);
-            }
+        for (Object[] row : bookingRepository.sumCompletedByHotelForHost(ownerId, hotelId, from, to)) {
+            earningsByHotel.put((Long) row[0], (BigDecimal) row[1]);
         }
         response.setEarningsByHotel(earningsByHotel);
-        
-        // Group earnings by month
-        java.util.Map<String, BigDecimal> monthEarningsMap = new java.util.HashMap<>();
-        for (Booking booking : completed) {
-            if (booking.getCheckedOutAt() != null) {
-                java.time.LocalDate checkoutDate = booking.getCheckedOutAt().toLocalDate();
-                String monthKey = checkoutDate.getYear() + "-" + String.format("%02d", checkoutDate.getMonthValue());
-                BigDecimal price = booking.getTotalPrice() != null ? booking.getTotalPrice() : BigDecimal.ZERO;
-                monthEarningsMap.merge(monthKey, price, BigDecimal::add);
-            }
-        }
-        
-        // Convert to MonthlyEarnings list
-        List<MonthlyEarnings> earningsByMonth = monthEarningsMap.entrySet().stream()
-                .map(entry -> {
-                    MonthlyEarnings monthlyEarnings = new MonthlyEarnings();
-                    monthlyEarnings.setMonthKey(entry.getKey());
-                    String[] parts = entry.getKey().split("-");
-                    int year = Integer.parseInt(parts[0]);
-                    int month = Integer.parseInt(parts[1]);
-                    java.time.LocalDate monthDate = java.time.LocalDate.of(year, month, 1);
-                    String monthName = monthDate.getMonth().getDisplayName(
-                            java.time.format.TextStyle.FULL, 
-                            java.util.Locale.forLanguageTag("vi-VN")) + ", " + year;
-                    monthlyEarnings.setMonthName(monthName);
-                    monthlyEarnings.setEarnings(entry.getValue());
-                    return monthlyEarnings;
-                })
-                .sorted((a, b) -> {
-                    if (a.getMonthKey() == null || b.getMonthKey() == null) return 0;
-                    return a.getMonthKey().compareTo(b.getMonthKey());
-                })
-                .collect(Collectors.toList());
+
+        // Group earnings by month, oldest first
+        List<MonthlyEarnings> earningsByMonth = new java.util.ArrayList<>();
+        new java.util.TreeMap<>(sumCompletedByMonth(ownerId, hotelId, from, to, null)).forEach((month, earnings) -> {
+            MonthlyEarnings monthlyEarnings = new MonthlyEarnings();
+            monthlyEarnings.setMonthKey(month.toString());
+            monthlyEarnings.setMonthName(month.getMonth().getDisplayName(
+                    java.time.format.TextStyle.FULL,
+                    java.util.Locale.forLanguageTag("vi-VN")) + ", " + month.getYear());
+            monthlyEarnings.setEarnings(earnings);
+            earningsByMonth.add(monthlyEarnings);
+        });
         response.setEarningsByMonth(earningsByMonth);
-        
+
         // Recent transactions (last 10, sorted by checkout date descending)
-        List<RecentTransaction> recentTransactions = completed.stream()
-                .filter(b -> b.getCheckedOutAt() != null)
-                .sorted((a, b) -> b.getCheckedOutAt().compareTo(a.getCheckedOutAt()))
-                .limit(10)
-                .map(booking -> {
+        List<RecentTransaction> recentTransactions = bookingRepository
+                .findRecentCompletedForHost(ownerId, hotelId, from, to, PageRequest.of(0, 10)).stream()
+                .map(row -> {
                     RecentTransaction transaction = new RecentTransaction();
-                    transaction.setBookingId(booking.getId());
-                    
-                    com.verzol.stayhub.module.room.entity.Room room = roomMap.get(booking.getRoomId());
-                    if (room != null) {
-                        Hotel hotel = hotelMap.get(room.getHotelId());
-                        transaction.setHotelName(hotel != null ? hotel.getName() : "-");
-                    } else {
-                        transaction.setHotelName("-");
-                    }
-                    
-                    transaction.setGuestName(booking.getGuestName() != null ? booking.getGuestName() : "N/A");
-                    transaction.setCheckoutDate(booking.getCheckedOutAt().toLocalDate());
-                    transaction.setAmount(booking.getTotalPrice() != null ? booking.getTotalPrice() : BigDecimal.ZERO);
+                    transaction.setBookingId((Long) row[0]);
+                    transaction.setHotelName(row[1] != null ? (String) row[1] : "-");
+                    transaction.setGuestName(row[2] != null ? (String) row[2] : "N/A");
+                    transaction.setCheckoutDate(((java.time.LocalDateTime) row[3]).toLocalDate());
+                    transaction.setAmount(row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO);
                     return transaction;
                 })
                 .collect(Collectors.toList());
         response.setRecentTransactions(recentTransactions);
-        
+
         return response;
     }
+
+    private void verifyHotelOwner(Long hotelId, Long ownerId, String message) {
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+        if (!hotel.getOwnerId().equals(ownerId)) {
+            throw new RuntimeException(message);
+        }
+    }
+
+    /**
+     * Completed revenue per check-out month, summed by the database
+     */
+    private java.util.Map<java.time.YearMonth, BigDecimal> sumCompletedByMonth(Long ownerId, Long hotelId,
+                                                                               LocalDate from, LocalDate to,
+                                                                               java.time.LocalDateTime since) {
+        java.util.Map<java.time.YearMonth, BigDecimal> byMonth = new java.util.HashMap<>();
+        for (Object[] row : bookingRepository.sumCompletedByMonthForHost(ownerId, hotelId, from, to, since)) {
+            byMonth.put(java.time.YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()),
+                    (BigDecimal) row[2]);
+        }
+        return byMonth;
+    }
 }
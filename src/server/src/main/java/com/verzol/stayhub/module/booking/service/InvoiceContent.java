@@ -0,0 +1,12 @@
+package com.verzol.stayhub.module.booking.service;
+
+/**
+ * What an invoice shows, formatted for display - the same content for the HTML and PDF invoice.
+ * guestEmail, guestPhone, couponCode and discount are null when absent.
+ */
+record InvoiceContent(String bookingId, String createdAt, String status,
+                      String guestName, String guestEmail, String guestPhone,
+                      String hotelName, String hotelAddress, String hotelCity,
+                      String roomName, String guests, String checkIn, String checkOut,
+                      String nights, String subtotal, String couponCode, String discount, String totalPrice) {
+}
@@ -0,0 +1,109 @@
+package com.verzol.stayhub.module.booking.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.verzol.stayhub.module.booking.dto.BookingDTOs.InvoiceExportResponse;
+import com.verzol.stayhub.module.booking.entity.InvoiceExport;
+import com.verzol.stayhub.module.booking.repository.InvoiceExportRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Invoice exports of a host: queue a month, follow its progress, download the ZIP.
+ * The ZIP itself is built by InvoiceExportWorker.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceExportService {
+
+    private static final List<String> UNFINISHED = List.of(InvoiceExport.PENDING, InvoiceExport.RUNNING);
+
+    private final InvoiceExportRepository invoiceExportRepository;
+
+    /**
+     * Queue an export of the bookings checking in during month (hotelId null = all the owner's hotels).
+     * Asking again while the same export is queued or running returns that one.
+     */
+    @Transactional
+    public InvoiceExportResponse requestExport(Long ownerId, Long hotelId, YearMonth month) {
+        InvoiceExport export = invoiceExportRepository
+                .findFirstByOwnerIdAndHotelIdAndMonthAndStatusIn(ownerId, hotelId, month.toString(), UNFINISHED)
+                .orElseGet(() -> {
+                    InvoiceExport created = new InvoiceExport();
+                    created.setOwnerId(ownerId);
+                    created.setHotelId(hotelId);
+                    created.setMonth(month.toString());
+                    return invoiceExportRepository.save(created);
+                });
+        return toResponse(export);
+    }
+
+    public InvoiceExportResponse getExport(Long ownerId, Long exportId) {
+        return toResponse(findOwned(ownerId, exportId));
+    }
+
+    /**
+     * The owner's latest exports, newest first
+     */
+    public List<InvoiceExportResponse> getExports(Long ownerId, int limit) {
+        return invoiceExportRepository.findByOwnerIdOrderByIdDesc(ownerId, PageRequest.of(0, Math.max(1, Math.min(limit, 100))))
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * The ZIP of a completed export
+     */
+    public Path getExportFile(Long ownerId, Long exportId) {
+        InvoiceExport export = findOwned(ownerId, exportId);
+        if (!InvoiceExport.COMPLETED.equals(export.getStatus())) {
+            throw new RuntimeException("Export is not ready yet");
+        }
+        Path file = Paths.get(export.getFilePath());
+        if (!Files.isRegularFile(file)) {
+            throw new RuntimeException("Export file is no longer available");
+        }
+        return file;
+    }
+
+    private InvoiceExport findOwned(Long ownerId, Long exportId) {
+        InvoiceExport export = invoiceExportRepository.findById(exportId)
+                .orElseThrow(() -> new RuntimeException("Export not found"));
+        if (!export.getOwnerId().equals(ownerId)) {
+            throw new RuntimeException("You don't have permission to view this export");
+        }
+        return export;
+    }
+
+    private InvoiceExportResponse toResponse(InvoiceExport export) {
+        InvoiceExportResponse response = new InvoiceExportResponse();
+        response.setId(export.getId());
+        response.setHotelId(export.getHotelId());
+        response.setMonth(export.getMonth());
+        response.setStatus(export.getStatus());
+        response.setTotalBookings(export.getTotalBookings());
+        response.setProcessedBookings(export.getProcessedBookings());
+        if (InvoiceExport.COMPLETED.equals(export.getStatus())) {
+            response.setProgress(100.0);
+            response.setFileSize(export.getFileSize());
+            response.setDownloadUrl("/api/host/bookings/exports/" + export.getId() + "/download");
+        } else if (export.getTotalBookings() != null && export.getTotalBookings() > 0) {
+            response.setProgress(Math.min(100.0, export.getProcessedBookings() * 100.0 / export.getTotalBookings()));
+        } else {
+            response.setProgress(0.0);
+        }
+        response.setError(export.getError());
+        response.setCreatedAt(export.getCreatedAt());
+        response.setCompletedAt(export.getCompletedAt());
+        return response;
+    }
+}
@@ -0,0 +1,335 @@
+package com.verzol.stayhub.module.booking.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.booking.entity.InvoiceExport;
+import com.verzol.stayhub.module.booking.repository.BookingRepository;
+import com.verzol.stayhub.module.booking.repository.InvoiceExportRepository;
+import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.room.entity.Room;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background builder of invoice exports.
+ *
+ * Each sweep claims queued exports one at a time and builds each into
+ * {@code <dir>/invoice-export-<id>-<claim token>.zip}: invoices/invoice_<bookingId>.pdf for every booking plus
+ * ledger.csv. Bookings are read in id order, batch-size at a time (keyset, plain values), and every
+ * invoice is rendered straight into its ZIP entry while the ledger goes to a side file appended
+ * as the last entry - memory stays flat however many bookings the month has, and no connection
+ * is held while invoices render. Progress is recorded after every batch and doubles as the
+ * claim's heartbeat: an export whose worker died is claimed again after stale-after-ms and rebuilt.
+ * Finished exports and their files are deleted after retention-hours.
+ */
+@Component
+public class InvoiceExportWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceExportWorker.class);
+
+    private static final String LEDGER_HEADER = "booking_id,created_at,status,hotel,room,guest_name,guest_email," +
+            "guest_phone,check_in,check_out,nights,guests,coupon_code,total_price,invoice_file\n";
+
+    private final InvoiceExportRepository invoiceExportRepository;
+    private final BookingRepository bookingRepository;
+    private final InvoiceService invoiceService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter bookingsCounter;
+    private final Counter failedCounter;
+    private final Timer buildTimer;
+
+    @Value("${app.invoice.export.dir:exports}")
+    private String exportDir;
+
+    @Value("${app.invoice.export.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.invoice.export.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    @Value("${app.invoice.export.retention-hours:72}")
+    private int retentionHours;
+
+    public InvoiceExportWorker(InvoiceExportRepository invoiceExportRepository,
+                               BookingRepository bookingRepository,
+                               InvoiceService invoiceService,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.invoiceExportRepository = invoiceExportRepository;
+        this.bookingRepository = bookingRepository;
+        this.invoiceService = invoiceService;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingsCounter = Counter.builder("stayhub.invoice.export.bookings")
+                .description("Bookings written to invoice exports")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("stayhub.invoice.export.failed")
+                .description("Invoice exports that failed")
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("stayhub.invoice.export.build")
+                .description("Duration of building one invoice export")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.invoice.export.interval-ms:2000}",
+               initialDelayString = "${app.invoice.export.initial-delay-ms:10000}")
+    public void sweep() {
+        try {
+            while (buildNext()) {
+                // next queued export
+            }
+        } catch (Exception e) {
+            logger.error("Invoice export sweep failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.invoice.export.cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.invoice.export.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        int deleted = 0;
+        List<InvoiceExport> expired;
+        do {
+            expired = invoiceExportRepository.findFinishedBefore(before, PageRequest.of(0, 100));
+            for (InvoiceExport export : expired) {
+                if (export.getFilePath() != null) {
+                    try {
+                        Files.deleteIfExists(Paths.get(export.getFilePath()));
+                    } catch (IOException e) {
+                        logger.warn("Failed to delete invoice export file {}: {}", export.getFilePath(), e.getMessage());
+                    }
+                }
+            }
+            invoiceExportRepository.deleteAllInBatch(expired);
+            deleted += expired.size();
+        } while (expired.size() == 100);
+        if (deleted > 0) {
+            logger.info("Purged {} expired invoice exports", deleted);
+        }
+    }
+
+    /**
+     * Claim and build the oldest queued export
+     *
+     * @return whether there was one
+     */
+    public boolean buildNext() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minus(Duration.ofMillis(staleAfterMs));
+        List<Long> ids = invoiceExportRepository.findClaimableIds(staleBefore, PageRequest.of(0, 1));
+        if (ids.isEmpty()) {
+            return false;
+        }
+
+        Long id = ids.get(0);
+        String token = UUID.randomUUID().toString();
+        Integer claimed = transactionTemplate.execute(status ->
+                invoiceExportRepository.claim(id, token, now, staleBefore));
+        if (claimed == null || claimed == 0) {
+            // Another worker got it
+            return true;
+        }
+        InvoiceExport export = invoiceExportRepository.findById(id).orElseThrow();
+        buildTimer.record(() -> build(export, token));
+        return true;
+    }
+
+    private void build(InvoiceExport export, String token) {
+        Path dir = Paths.get(exportDir);
+        Path part = dir.resolve("invoice-export-" + export.getId() + "-" + token + ".part");
+        Path ledger = dir.resolve("invoice-export-" + export.getId() + "-" + token + ".csv");
+        try {
+            Files.createDirectories(dir);
+            Integer processed = writeZip(export, token, part, ledger);
+            if (processed == null) {
+                logger.info("Invoice export {} was claimed by another worker, abandoning it", export.getId());
+                return;
+            }
+
+            // Own name per claim: a worker that lost its claim can never replace the file of the one
+            // that completed the export
+            Path file = dir.resolve("invoice-export-" + export.getId() + "-" + token + ".zip");
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(file);
+            Integer completed = transactionTemplate.execute(status -> invoiceExportRepository.markCompleted(
+                    export.getId(), token, processed, file.toAbsolutePath().toString(), size, LocalDateTime.now()));
+            if (completed == null || completed == 0) {
+                logger.info("Invoice export {} was claimed by another worker, abandoning it", export.getId());
+                deleteQuietly(file);
+                return;
+            }
+            logger.info("Invoice export {} completed: {} bookings, {} bytes", export.getId(), processed, size);
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.error("Invoice export {} failed", export.getId(), e);
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            transactionTemplate.executeWithoutResult(status ->
+                    invoiceExportRepository.markFailed(export.getId(), token, error, LocalDateTime.now()));
+        } finally {
+            deleteQuietly(part);
+            deleteQuietly(ledger);
+        }
+    }
+
+    /**
+     * Write the ZIP of an export to part, batch by batch
+     *
+     * @return number of bookings written, or null if the claim was lost on the way
+     */
+    private Integer writeZip(InvoiceExport export, String token, Path part, Path ledger) throws IOException {
+        YearMonth month = YearMonth.parse(export.getMonth());
+        LocalDate startDate = month.atDay(1);
+        LocalDate endDate = month.atEndOfMonth();
+        int total = (int) bookingRepository.countForHost(export.getOwnerId(), export.getHotelId(), startDate, endDate);
+        if (!heartbeat(export, token, total, 0)) {
+            return null;
+        }
+
+        int processed = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024), StandardCharsets.UTF_8)) {
+            // PDFs are compressed already
+            zip.setLevel(Deflater.BEST_SPEED);
+
+            try (Writer csv = Files.newBufferedWriter(ledger, StandardCharsets.UTF_8)) {
+                // BOM, so spreadsheet apps read the Vietnamese names as UTF-8
+                csv.write('\uFEFF');
+                csv.write(LEDGER_HEADER);
+
+                long afterId = 0;
+                while (true) {
+                    List<Object[]> rows = bookingRepository.findInvoiceExportBatch(export.getOwnerId(),
+                            export.getHotelId(), startDate, endDate, afterId, PageRequest.of(0, batchSize));
+                    for (Object[] row : rows) {
+                        writeBooking(row, zip, csv);
+                    }
+                    processed += rows.size();
+                    bookingsCounter.increment(rows.size());
+                    if (!heartbeat(export, token, Math.max(total, processed), processed)) {
+                        return null;
+                    }
+                    if (rows.size() < batchSize) {
+                        break;
+                    }
+                    afterId = (Long) rows.get(rows.size() - 1)[0];
+                }
+            }
+
+            zip.putNextEntry(new ZipEntry("ledger.csv"));
+            Files.copy(ledger, zip);
+            zip.closeEntry();
+        }
+        return processed;
+    }
+
+    /**
+     * Add the invoice of one row of findInvoiceExportBatch to the ZIP and its line to the ledger
+     */
+    private void writeBooking(Object[] row, ZipOutputStream zip, Writer csv) throws IOException {
+        Booking booking = new Booking();
+        booking.setId((Long) row[0]);
+        booking.setStatus((String) row[1]);
+        booking.setCreatedAt((LocalDateTime) row[2]);
+        booking.setGuestName((String) row[3]);
+        booking.setGuestEmail((String) row[4]);
+        booking.setGuestPhone((String) row[5]);
+        booking.setGuests((Integer) row[6]);
+        booking.setCheckInDate((LocalDate) row[7]);
+        booking.setCheckOutDate((LocalDate) row[8]);
+        booking.setCouponCode((String) row[9]);
+        booking.setTotalPrice((BigDecimal) row[10]);
+        Room room = new Room();
+        room.setName((String) row[11]);
+        room.setBasePrice((BigDecimal) row[12]);
+        Hotel hotel = new Hotel();
+        hotel.setName((String) row[13]);
+        hotel.setAddress((String) row[14]);
+        hotel.setCity((String) row[15]);
+        String guestName = booking.getGuestName() != null && !booking.getGuestName().isEmpty()
+                ? booking.getGuestName()
+                : (String) row[16];
+
+        String invoiceFile = "invoices/invoice_" + booking.getId() + ".pdf";
+        zip.putNextEntry(new ZipEntry(invoiceFile));
+        invoiceService.renderInvoicePdf(booking, room, hotel, guestName, zip);
+        zip.closeEntry();
+
+        StringBuilder line = new StringBuilder(256);
+        line.append(booking.getId()).append(',');
+        line.append(booking.getCreatedAt() != null ? booking.getCreatedAt().truncatedTo(ChronoUnit.SECONDS) : "").append(',');
+        appendCsv(line, booking.getStatus()).append(',');
+        appendCsv(line, hotel.getName()).append(',');
+        appendCsv(line, room.getName()).append(',');
+        appendCsv(line, guestName).append(',');
+        appendCsv(line, booking.getGuestEmail()).append(',');
+        appendCsv(line, booking.getGuestPhone()).append(',');
+        line.append(booking.getCheckInDate()).append(',');
+        line.append(booking.getCheckOutDate()).append(',');
+        line.append(ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate())).append(',');
+        line.append(booking.getGuests()).append(',');
+        appendCsv(line, booking.getCouponCode()).append(',');
+        line.append(booking.getTotalPrice() != null ? booking.getTotalPrice().toPlainString() : "").append(',');
+        line.append(invoiceFile).append('\n');
+        csv.write(line.toString());
+    }
+
+    /**
+     * A text cell: quoted when needed, and never read as a formula by spreadsheet apps
+     */
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return line;
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private boolean heartbeat(InvoiceExport export, String token, int total, int processed) {
+        Integer updated = transactionTemplate.execute(status ->
+                invoiceExportRepository.heartbeat(export.getId(), token, total, processed, LocalDateTime.now()));
+        return updated != null && updated == 1;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.verzol.stayhub.module.booking.service;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.draw.LineSeparator;
+
+/**
+ * Writes the PDF version of an invoice, laid out like invoice/booking.html.
+ *
+ * The fonts (Liberation Sans, which covers Vietnamese) are parsed once and shared by every
+ * document; each document only embeds the glyphs it uses. The PDF is written to the given stream
+ * as it is built and the stream is left open, so it can be a servlet response or a ZIP entry.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final Color PRIMARY = new Color(0x25, 0x63, 0xeb);
+    private static final Color HEADING = new Color(0x1e, 0x40, 0xaf);
+    private static final Color MUTED = new Color(0x6b, 0x72, 0x80);
+    private static final Color TEXT = new Color(0x33, 0x33, 0x33);
+    private static final Color BORDER = new Color(0xe5, 0xe7, 0xeb);
+    private static final Color HEADER_FILL = new Color(0xf3, 0xf4, 0xf6);
+    private static final Color TOTAL_FILL = new Color(0xef, 0xf6, 0xff);
+    private static final Color DISCOUNT = new Color(0xdc, 0x26, 0x26);
+
+    private final Font titleFont;
+    private final Font subtitleFont;
+    private final Font headingFont;
+    private final Font labelFont;
+    private final Font textFont;
+    private final Font discountFont;
+    private final Font totalFont;
+    private final Font footerFont;
+
+    public InvoicePdfRenderer() throws IOException {
+        BaseFont regular = loadFont("liberation/LiberationSans-Regular.ttf");
+        BaseFont bold = loadFont("liberation/LiberationSans-Bold.ttf");
+        this.titleFont = new Font(bold, 20, Font.NORMAL, PRIMARY);
+        this.subtitleFont = new Font(regular, 10, Font.NORMAL, MUTED);
+        this.headingFont = new Font(bold, 13, Font.NORMAL, HEADING);
+        this.labelFont = new Font(bold, 10, Font.NORMAL, TEXT);
+        this.textFont = new Font(regular, 10, Font.NORMAL, TEXT);
+        this.discountFont = new Font(regular, 10, Font.NORMAL, DISCOUNT);
+        this.totalFont = new Font(bold, 11, Font.NORMAL, TEXT);
+        this.footerFont = new Font(regular, 9, Font.NORMAL, MUTED);
+    }
+
+    public void write(InvoiceContent invoice, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A4, 40, 40, 40, 40);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.addTitle("Hóa đơn đặt phòng #" + invoice.bookingId());
+            document.addCreator("StayHub");
+            document.open();
+
+            // Header
+            document.add(new Paragraph("HÓA ĐƠN ĐẶT PHÒNG", titleFont));
+            document.add(new Paragraph("StayHub - Hệ thống đặt phòng khách sạn", subtitleFont));
+            document.add(separator(PRIMARY, 2f));
+
+            // Invoice Info
+            document.add(field("Mã đặt phòng: ", "#" + invoice.bookingId()));
+            document.add(field("Ngày đặt: ", invoice.createdAt()));
+            document.add(field("Trạng thái: ", invoice.status()));
+
+            // Guest Information
+            document.add(heading("Thông tin khách hàng"));
+            document.add(field("Họ tên: ", invoice.guestName()));
+            if (invoice.guestEmail() != null) {
+                document.add(field("Email: ", invoice.guestEmail()));
+            }
+            if (invoice.guestPhone() != null) {
+                document.add(field("Điện thoại: ", invoice.guestPhone()));
+            }
+
+            // Booking Details
+            document.add(heading("Chi tiết đặt phòng"));
+            document.add(field("Khách sạn: ", invoice.hotelName()));
+            document.add(field("Địa chỉ: ", invoice.hotelAddress() + ", " + invoice.hotelCity()));
+            document.add(field("Loại phòng: ", invoice.roomName()));
+            document.add(field("Số khách: ", invoice.guests() + " người"));
+            document.add(field("Ngày nhận phòng: ", invoice.checkIn()));
+            document.add(field("Ngày trả phòng: ", invoice.checkOut()));
+
+            // Pricing Details
+            document.add(heading("Chi tiết thanh toán"));
+            PdfPTable table = new PdfPTable(new float[] {3, 1});
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(8);
+            table.addCell(cell("Mô tả", labelFont, HEADER_FILL, Element.ALIGN_LEFT));
+            table.addCell(cell("Số tiền", labelFont, HEADER_FILL, Element.ALIGN_RIGHT));
+            table.addCell(cell(invoice.roomName() + " - " + invoice.nights() + " đêm", textFont, null, Element.ALIGN_LEFT));
+            table.addCell(cell(invoice.subtotal(), textFont, null, Element.ALIGN_RIGHT));
+            if (invoice.couponCode() != null) {
+                table.addCell(cell("Giảm giá (Mã: " + invoice.couponCode() + ")", textFont, null, Element.ALIGN_LEFT));
+                table.addCell(cell("-" + invoice.discount(), discountFont, null, Element.ALIGN_RIGHT));
+            }
+            table.addCell(cell("Tổng cộng", totalFont, TOTAL_FILL, Element.ALIGN_LEFT));
+            table.addCell(cell(invoice.totalPrice(), totalFont, TOTAL_FILL, Element.ALIGN_RIGHT));
+            document.add(table);
+
+            // Footer
+            document.add(separator(BORDER, 1f));
+            Paragraph thanks = new Paragraph("Cảm ơn bạn đã sử dụng dịch vụ của StayHub!", footerFont);
+            thanks.setAlignment(Element.ALIGN_CENTER);
+            document.add(thanks);
+            Paragraph contact = new Paragraph("Mọi thắc mắc vui lòng liên hệ: support@stayhub.com", footerFont);
+            contact.setAlignment(Element.ALIGN_CENTER);
+            document.add(contact);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to write invoice PDF", e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+
+    private Paragraph heading(String text) {
+        Paragraph heading = new Paragraph(text, headingFont);
+        heading.setSpacingBefore(16);
+        heading.setSpacingAfter(4);
+        return heading;
+    }
+
+    private Paragraph field(String label, String value) {
+        Paragraph field = new Paragraph();
+        field.add(new Phrase(label, labelFont));
+        field.add(new Phrase(value != null ? value : "", textFont));
+        return field;
+    }
+
+    private Paragraph separator(Color color, float width) {
+        Paragraph paragraph = new Paragraph();
+        paragraph.setSpacingAfter(12);
+        LineSeparator line = new LineSeparator(width, 100, color, Element.ALIGN_CENTER, -4);
+        paragraph.add(line);
+        return paragraph;
+    }
+
+    private PdfPCell cell(String text, Font font, Color fill, int alignment) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+        cell.setPadding(8);
+        cell.setHorizontalAlignment(alignment);
+        cell.setBorder(Rectangle.BOTTOM);
+        cell.setBorderColor(BORDER);
+        if (fill != null) {
+            cell.setBackgroundColor(fill);
+        }
+        return cell;
+    }
+
+    private static BaseFont loadFont(String resource) throws IOException {
+        try (InputStream in = InvoicePdfRenderer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Font not found on the classpath: " + resource);
+            }
+            return BaseFont.createFont(resource, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, true, in.readAllBytes(), null);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to load font " + resource, e);
+        }
+    }
+}
@@ -1,141 +1,252 @@
 package com.verzol.stayhub.module.booking.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.verzol.stayhub.common.template.HtmlTemplate;
+import com.verzol.stayhub.common.template.TemplateRegistry;
 import com.verzol.stayhub.module.booking.entity.Booking;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
 import com.verzol.stayhub.module.room.entity.Room;
+import com.verzol.stayhub.util.Money;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Service để generate invoice/confirmation document cho booking
- * Hiện tại generate HTML, có thể mở rộng sang PDF sau
+ * Service để generate invoice/confirmation document cho booking, dạng HTML hoặc PDF
+ *
+ * HTML is rendered from templates/invoice/booking.html, PDF by InvoicePdfRenderer. The output only
+ * depends on the booking, room and hotel fields it shows: rendered HTML of the most recently used
+ * bookings (app.invoice.max-cached) is cached in memory together with those fields, and PDFs can
+ * be cached on disk under a fingerprint of them.
+ * As long as none of them changed, the invoice is served without rendering.
  */
 @Service
 public class InvoiceService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
+
+    private final InvoicePdfRenderer pdfRenderer;
+    private final HtmlTemplate template;
+    private final int bookingIdSlot;
+    private final int createdAtSlot;
+    private final int statusSlot;
+    private final int guestNameSlot;
+    private final int guestEmailSlot;
+    private final int guestPhoneSlot;
+    private final int hotelNameSlot;
+    private final int hotelAddressSlot;
+    private final int hotelCitySlot;
+    private final int roomNameSlot;
+    private final int guestsSlot;
+    private final int checkInSlot;
+    private final int checkOutSlot;
+    private final int nightsSlot;
+    private final int subtotalSlot;
+    private final int couponCodeSlot;
+    private final int discountSlot;
+    private final int totalPriceSlot;
+
+    // Least recently used first; guarded by itself, rendering happens outside the lock
+    private final LinkedHashMap<Long, CachedInvoice> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedInvoice> eldest) {
+            return size() > maxCached;
+        }
+    };
+
+    @Value("${app.invoice.max-cached:10000}")
+    private int maxCached;
+
+    // Empty = PDFs are not cached
+    @Value("${app.invoice.pdf.cache-dir:}")
+    private String pdfCacheDir = "";
+
+    public InvoiceService(TemplateRegistry templateRegistry, InvoicePdfRenderer pdfRenderer) {
+        this.pdfRenderer = pdfRenderer;
+        this.template = templateRegistry.get("invoice/booking");
+        this.bookingIdSlot = template.slot("bookingId");
+        this.createdAtSlot = template.slot("createdAt");
+        this.statusSlot = template.slot("status");
+        this.guestNameSlot = template.slot("guestName");
+        this.guestEmailSlot = template.slot("guestEmail");
+        this.guestPhoneSlot = template.slot("guestPhone");
+        this.hotelNameSlot = template.slot("hotelName");
+        this.hotelAddressSlot = template.slot("hotelAddress");
+        this.hotelCitySlot = template.slot("hotelCity");
+        this.roomNameSlot = template.slot("roomName");
+        this.guestsSlot = template.slot("guests");
+        this.checkInSlot = template.slot("checkIn");
+        this.checkOutSlot = template.slot("checkOut");
+        this.nightsSlot = template.slot("nights");
+        this.subtotalSlot = template.slot("subtotal");
+        this.couponCodeSlot = template.slot("couponCode");
+        this.discountSlot = template.slot("discount");
+        this.totalPriceSlot = template.slot("totalPrice");
+    }
 
     /**
      * Generate HTML invoice for booking
      */
     public String generateInvoiceHtml(Booking booking, Room room, Hotel hotel, String guestName) {
-        StringBuilder html = new StringBuilder();
-        
-        html.append("<!DOCTYPE html>");
-        html.append("<html lang='vi'>");
-        html.append("<head>");
-        html.append("<meta charset='UTF-8'>");
-        html.append("<meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-        html.append("<title>Hóa đơn đặt phòng #").append(booking.getId()).append("</title>");
-        html.append("<style>");
-        html.append("body { font-family: Arial, sans-serif; margin: 40px; line-height: 1.6; color: #333; }");
-        html.append(".header { border-bottom: 3px solid #2563eb; padding-bottom: 20px; margin-bottom: 30px; }");
-        html.append(".header h1 { color: #2563eb; margin: 0; }");
-        html.append(".invoice-info { margin-bottom: 30px; }");
-        html.append(".invoice-info p { margin: 5px 0; }");
-        html.append(".details-section { margin: 30px 0; }");
-        html.append(".details-section h2 { color: #1e40af; border-bottom: 2px solid #e5e7eb; padding-bottom: 10px; }");
-        html.append("table { width: 100%; border-collapse: collapse; margin: 20px 0; }");
-        html.append("table th, table td { padding: 12px; text-align: left; border-bottom: 1px solid #e5e7eb; }");
-        html.append("table th { background-color: #f3f4f6; font-weight: bold; }");
-        html.append(".total-row { font-weight: bold; font-size: 1.1em; background-color: #eff6ff; }");
-        html.append(".footer { margin-top: 50px; padding-top: 20px; border-top: 2px solid #e5e7eb; text-align: center; color: #6b7280; }");
-        html.append("</style>");
-        html.append("</head>");
-        html.append("<body>");
-        
-        // Header
-        html.append("<div class='header'>");
-        html.append("<h1>HÓA ĐƠN ĐẶT PHÒNG</h1>");
-        html.append("<p style='color: #6b7280;'>StayHub - Hệ thống đặt phòng khách sạn</p>");
-        html.append("</div>");
-        
-        // Invoice Info
-        html.append("<div class='invoice-info'>");
-        html.append("<p><strong>Mã đặt phòng:</strong> #").append(booking.getId()).append("</p>");
-        html.append("<p><strong>Ngày đặt:</strong> ").append(
-            booking.getCreatedAt() != null 
-                ? booking.getCreatedAt().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
-                : "N/A"
-        ).append("</p>");
-        html.append("<p><strong>Trạng thái:</strong> ").append(getStatusText(booking.getStatus())).append("</p>");
-        html.append("</div>");
-        
-        // Guest Information
-        html.append("<div class='details-section'>");
-        html.append("<h2>Thông tin khách hàng</h2>");
-        html.append("<p><strong>Họ tên:</strong> ").append(guestName != null ? guestName : "N/A").append("</p>");
-        if (booking.getGuestEmail() != null) {
-            html.append("<p><strong>Email:</strong> ").append(booking.getGuestEmail()).append("</p>");
+        InvoiceKey key = key(booking, room, hotel, guestName);
+        CachedInvoice cached;
+        synchronized (cache) {
+            cached = cache.get(booking.getId());
+        }
+        if (cached != null && cached.key().equals(key)) {
+            return cached.html();
+        }
+
+        String html = renderHtml(content(booking, room, hotel, guestName));
+        // Full: the least recently used invoice makes room
+        synchronized (cache) {
+            cache.put(booking.getId(), new CachedInvoice(key, html));
         }
-        if (booking.getGuestPhone() != null) {
-            html.append("<p><strong>Điện thoại:</strong> ").append(booking.getGuestPhone()).append("</p>");
+        return html;
+    }
+
+    /**
+     * Write the PDF invoice to out (left open). Streams the document as it is built, or - when
+     * app.invoice.pdf.cache-dir is set - serves a copy rendered earlier for the same invoice content.
+     */
+    public void writeInvoicePdf(Booking booking, Room room, Hotel hotel, String guestName, OutputStream out) throws IOException {
+        if (pdfCacheDir.isBlank()) {
+            renderInvoicePdf(booking, room, hotel, guestName, out);
+            return;
+        }
+
+        Path dir = Paths.get(pdfCacheDir);
+        Path file = dir.resolve("invoice-" + booking.getId() + "-" + fingerprint(key(booking, room, hotel, guestName)) + ".pdf");
+        if (!Files.exists(file)) {
+            Files.createDirectories(dir);
+            // Rendered next to the cache entry and moved in place, so readers never see a partial file
+            Path tmp = Files.createTempFile(dir, "invoice-" + booking.getId() + "-", ".tmp");
+            try {
+                try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                    renderInvoicePdf(booking, room, hotel, guestName, fileOut);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            removeStalePdfs(dir, booking.getId(), file);
         }
-        html.append("</div>");
-        
-        // Booking Details
-        html.append("<div class='details-section'>");
-        html.append("<h2>Chi tiết đặt phòng</h2>");
-        html.append("<p><strong>Khách sạn:</strong> ").append(hotel.getName()).append("</p>");
-        html.append("<p><strong>Địa chỉ:</strong> ").append(hotel.getAddress()).append(", ").append(hotel.getCity()).append("</p>");
-        html.append("<p><strong>Loại phòng:</strong> ").append(room.getName()).append("</p>");
-        html.append("<p><strong>Số khách:</strong> ").append(booking.getGuests()).append(" người</p>");
-        html.append("<p><strong>Ngày nhận phòng:</strong> ").append(booking.getCheckInDate().format(DATE_FORMATTER)).append("</p>");
-        html.append("<p><strong>Ngày trả phòng:</strong> ").append(booking.getCheckOutDate().format(DATE_FORMATTER)).append("</p>");
-        html.append("</div>");
-        
-        // Pricing Details
-        html.append("<div class='details-section'>");
-        html.append("<h2>Chi tiết thanh toán</h2>");
-        html.append("<table>");
-        html.append("<thead>");
-        html.append("<tr>");
-        html.append("<th>Mô tả</th>");
-        html.append("<th style='text-align: right;'>Số tiền</th>");
-        html.append("</tr>");
-        html.append("</thead>");
-        html.append("<tbody>");
-        
+        Files.copy(file, out);
+    }
+
+    /**
+     * Render the PDF invoice to out (left open), bypassing the disk cache - for bulk exports, which
+     * would otherwise fill the cache with invoices nobody downloads on their own
+     */
+    public void renderInvoicePdf(Booking booking, Room room, Hotel hotel, String guestName, OutputStream out) throws IOException {
+        pdfRenderer.write(content(booking, room, hotel, guestName), out);
+    }
+
+    /**
+     * Drop the cached PDFs of earlier versions of the booking's invoice
+     */
+    private void removeStalePdfs(Path dir, Long bookingId, Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "invoice-" + bookingId + "-*.pdf")) {
+            for (Path file : files) {
+                if (!file.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to clean up cached invoices of booking {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    private InvoiceKey key(Booking booking, Room room, Hotel hotel, String guestName) {
+        return new InvoiceKey(booking.getStatus(), booking.getCreatedAt(), guestName,
+                booking.getGuestEmail(), booking.getGuestPhone(), hotel.getName(), hotel.getAddress(), hotel.getCity(),
+                room.getName(), room.getBasePrice(), booking.getGuests(), booking.getCheckInDate(),
+                booking.getCheckOutDate(), booking.getCouponCode(), booking.getTotalPrice());
+    }
+
+    /**
+     * Stable across restarts: the PDF cache survives them
+     */
+    private static String fingerprint(InvoiceKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private InvoiceContent content(Booking booking, Room room, Hotel hotel, String guestName) {
         // Calculate nights
         long nights = java.time.temporal.ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
-        BigDecimal pricePerNight = room.getBasePrice();
-        BigDecimal subtotal = pricePerNight.multiply(BigDecimal.valueOf(nights));
-        
-        html.append("<tr>");
-        html.append("<td>").append(room.getName()).append(" - ").append(nights).append(" đêm</td>");
-        html.append("<td style='text-align: right;'>").append(formatVND(subtotal)).append("</td>");
-        html.append("</tr>");
-        
-        if (booking.getCouponCode() != null && booking.getCouponCode().isEmpty() == false) {
-            BigDecimal discount = subtotal.subtract(booking.getTotalPrice());
-            html.append("<tr>");
-            html.append("<td>Giảm giá (Mã: ").append(booking.getCouponCode()).append(")</td>");
-            html.append("<td style='text-align: right; color: #dc2626;'>-").append(formatVND(discount)).append("</td>");
-            html.append("</tr>");
-        }
-        
-        html.append("<tr class='total-row'>");
-        html.append("<td><strong>Tổng cộng</strong></td>");
-        html.append("<td style='text-align: right;'><strong>").append(formatVND(booking.getTotalPrice())).append("</strong></td>");
-        html.append("</tr>");
-        
-        html.append("</tbody>");
-        html.append("</table>");
-        html.append("</div>");
-        
-        // Footer
-        html.append("<div class='footer'>");
-        html.append("<p>Cảm ơn bạn đã sử dụng dịch vụ của StayHub!</p>");
-        html.append("<p>Mọi thắc mắc vui lòng liên hệ: support@stayhub.com</p>");
-        html.append("</div>");
-        
-        html.append("</body>");
-        html.append("</html>");
-        
-        return html.toString();
+        BigDecimal subtotal = room.getBasePrice().multiply(BigDecimal.valueOf(nights));
+        boolean discounted = booking.getCouponCode() != null && !booking.getCouponCode().isEmpty();
+
+        return new InvoiceContent(
+                String.valueOf(booking.getId()),
+                booking.getCreatedAt() != null ? booking.getCreatedAt().format(DATE_TIME_FORMATTER) : "N/A",
+                getStatusText(booking.getStatus()),
+                guestName != null ? guestName : "N/A",
+                booking.getGuestEmail(),
+                booking.getGuestPhone(),
+                hotel.getName(),
+                hotel.getAddress(),
+                hotel.getCity(),
+                room.getName(),
+                String.valueOf(booking.getGuests()),
+                booking.getCheckInDate().format(DATE_FORMATTER),
+                booking.getCheckOutDate().format(DATE_FORMATTER),
+                String.valueOf(nights),
+                Money.formatVnd(subtotal),
+                discounted ? booking.getCouponCode() : null,
+                discounted ? Money.formatVnd(subtotal.subtract(booking.getTotalPrice())) : null,
+                Money.formatVnd(booking.getTotalPrice()));
+    }
+
+    private String renderHtml(InvoiceContent invoice) {
+        String[] values = template.newValues();
+        values[bookingIdSlot] = invoice.bookingId();
+        values[createdAtSlot] = invoice.createdAt();
+        values[statusSlot] = invoice.status();
+        values[guestNameSlot] = invoice.guestName();
+        values[guestEmailSlot] = invoice.guestEmail();
+        values[guestPhoneSlot] = invoice.guestPhone();
+        values[hotelNameSlot] = invoice.hotelName();
+        values[hotelAddressSlot] = invoice.hotelAddress();
+        values[hotelCitySlot] = invoice.hotelCity();
+        values[roomNameSlot] = invoice.roomName();
+        values[guestsSlot] = invoice.guests();
+        values[checkInSlot] = invoice.checkIn();
+        values[checkOutSlot] = invoice.checkOut();
+        values[nightsSlot] = invoice.nights();
+        values[subtotalSlot] = invoice.subtotal();
+        values[couponCodeSlot] = invoice.couponCode();
+        values[discountSlot] = invoice.discount();
+        values[totalPriceSlot] = invoice.totalPrice();
+        return template.render(values);
     }
 
     private String getStatusText(String status) {
@@ -150,8 +261,15 @@ public class InvoiceService {
         };
     }
 
-    private String formatVND(BigDecimal amount) {
-        if (amount == null) return "0 VNĐ";
-        return String.format("%,d VNĐ", amount.longValue());
+    /**
+     * Everything the invoice shows; a booking whose key changed gets a new invoice
+     */
+    private record InvoiceKey(String status, LocalDateTime createdAt, String guestName,
+                              String guestEmail, String guestPhone, String hotelName, String hotelAddress,
+                              String hotelCity, String roomName, BigDecimal basePrice, Integer guests,
+                              LocalDate checkIn, LocalDate checkOut, String couponCode, BigDecimal totalPrice) {
+    }
+
+    private record CachedInvoice(InvoiceKey key, String html) {
     }
 }
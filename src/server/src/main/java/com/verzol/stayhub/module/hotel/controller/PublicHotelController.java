@@ -12,11 +12,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.verzol.stayhub.common.CursorPage;
 import com.verzol.stayhub.module.hotel.dto.HotelSearchDTO;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
 import com.verzol.stayhub.module.hotel.repository.HotelRepository;
 import com.verzol.stayhub.module.hotel.repository.HotelSpecification;
 import com.verzol.stayhub.module.hotel.service.HotelService;
+import com.verzol.stayhub.module.search.service.HotelSearchIndexService;
 import com.verzol.stayhub.module.search.dto.SearchRequest;
 
 @RestController
@@ -29,6 +31,14 @@ public class PublicHotelController {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private HotelSearchIndexService hotelSearchIndexService;
+
+    private static final double DEFAULT_RADIUS_KM = 10;
+    private static final double MAX_RADIUS_KM = 500;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @GetMapping("/search")
     public ResponseEntity<Page<HotelSearchDTO>> searchHotels(
             SearchRequest request,
@@ -39,12 +49,11 @@ public class PublicHotelController {
         // Handle sorting manually to avoid Pageable conflict
         Sort sort = Sort.unsorted();
         String sortBy = request.getSortBy();
+        // Price sort is applied by HotelSpecification on the maintained hotel price (date-aware)
+        boolean priceSort = "price_asc".equals(sortBy) || "price_desc".equals(sortBy);
         
         if ("rating_desc".equals(sortBy)) {
             sort = Sort.by(Sort.Direction.DESC, "starRating");
-        } else if ("price_asc".equals(sortBy) || "price_desc".equals(sortBy)) {
-            // For now, fallback to unsorted or sort by ID to prevent crash
-            sort = Sort.by(Sort.Direction.ASC, "id");
         }
         
         if (sort.isSorted()) {
@@ -55,12 +64,108 @@ public class PublicHotelController {
             );
         }
 
+        java.util.Map<Long, Double> distances = searchMapArea(request);
+        java.util.Map<Long, Double> ranked = resolveCandidates(request, distances);
+        java.util.List<Long> candidates = ranked != null ? java.util.List.copyOf(ranked.keySet()) : null;
+
         // Use optimized search with DTO mapping
-        HotelSpecification spec = new HotelSpecification(request);
-        Page<HotelSearchDTO> hotels = hotelService.searchHotelsOptimized(spec, pageable);
+        Page<HotelSearchDTO> hotels;
+        if (candidates == null) {
+            hotels = hotelService.searchHotelsOptimized(new HotelSpecification(request), pageable);
+        } else if (sort.isSorted() || priceSort) {
+            hotels = hotelService.searchHotelsSorted(request, candidates, pageable);
+        } else {
+            hotels = hotelService.searchHotelsRanked(request, candidates, pageable);
+        }
+        if (distances != null) {
+            hotels.getContent().forEach(hotel -> hotel.setDistanceKm(distances.get(hotel.getId())));
+        }
+        return ResponseEntity.ok(hotels);
+    }
+
+    /**
+     * Same search with cursor pagination: every ordering seeks past the previous page (no OFFSET
+     * scan on deep pages), COUNT only if asked for
+     * GET /api/public/hotels/search/page?query=...&sortBy=price_asc&size=20&cursor=...&includeTotal=false
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<CursorPage<HotelSearchDTO>> searchHotelsPage(
+            SearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        java.util.Map<Long, Double> distances = searchMapArea(request);
+        java.util.Map<Long, Double> candidates = resolveCandidates(request, distances);
+        String sortBy = request.getSortBy();
+        boolean relevance = !"rating_desc".equals(sortBy) && !"price_asc".equals(sortBy) && !"price_desc".equals(sortBy);
+
+        CursorPage<HotelSearchDTO> hotels = hotelService.searchHotelsPage(request, candidates, relevance, cursor,
+                Math.max(1, Math.min(size, MAX_PAGE_SIZE)), includeTotal);
+        if (distances != null) {
+            hotels.getContent().forEach(hotel -> hotel.setDistanceKm(distances.get(hotel.getId())));
+        }
         return ResponseEntity.ok(hotels);
     }
 
+    /**
+     * Hotel ids the in-memory indexes restrict the search to, best first, with their rank key
+     * (lower is better): all visible text matches (instead of LIKE '%q%') by negated relevance,
+     * or - for a map search - the hotels of the area by distance, narrowed to the text matches.
+     * Not truncated: the DB filters are applied to them a chunk at a time. Null = no restriction.
+     */
+    private java.util.Map<Long, Double> resolveCandidates(SearchRequest request, java.util.Map<Long, Double> distances) {
+        java.util.Map<Long, Float> textMatches = null;
+        if (request.getQuery() != null && !request.getQuery().isBlank()) {
+            textMatches = hotelSearchIndexService.searchScored(request.getQuery(), Integer.MAX_VALUE);
+        }
+        java.util.Map<Long, Double> ranked = new java.util.LinkedHashMap<>();
+        if (distances == null) {
+            if (textMatches == null) {
+                return null;
+            }
+            textMatches.forEach((id, score) -> ranked.put(id, -(double) score));
+            return ranked;
+        }
+        for (java.util.Map.Entry<Long, Double> hotel : distances.entrySet()) {
+            if (textMatches == null || textMatches.containsKey(hotel.getKey())) {
+                ranked.put(hotel.getKey(), hotel.getValue());
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * All visible hotels in the requested map area (point + radius, or viewport), nearest first;
+     * the DB filters then run over them a chunk at a time until the page is full.
+     * Null when the request is not a map search.
+     */
+    private java.util.Map<Long, Double> searchMapArea(SearchRequest request) {
+        if (request.getLat() != null && request.getLng() != null) {
+            double radiusKm = request.getRadiusKm() != null ? request.getRadiusKm() : DEFAULT_RADIUS_KM;
+            if (Math.abs(request.getLat()) > 90 || Math.abs(request.getLng()) > 180) {
+                throw new RuntimeException("Invalid coordinates");
+            }
+            if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+                throw new RuntimeException("Radius must be between 0 and " + (int) MAX_RADIUS_KM + " km");
+            }
+            return hotelSearchIndexService.searchNearby(request.getLat(), request.getLng(), radiusKm, Integer.MAX_VALUE);
+        }
+
+        if (request.getNorth() != null && request.getSouth() != null
+                && request.getEast() != null && request.getWest() != null) {
+            if (request.getSouth() > request.getNorth()
+                    || Math.abs(request.getNorth()) > 90 || Math.abs(request.getSouth()) > 90
+                    || Math.abs(request.getEast()) > 180 || Math.abs(request.getWest()) > 180) {
+                throw new RuntimeException("Invalid map bounds");
+            }
+            // west > east is a viewport across the antimeridian
+            return hotelSearchIndexService.searchInBounds(request.getSouth(), request.getWest(),
+                    request.getNorth(), request.getEast(), Integer.MAX_VALUE);
+        }
+        return null;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Hotel> getHotelDetails(@PathVariable Long id) {
         return hotelRepository.findById(id)
@@ -76,26 +181,8 @@ public class PublicHotelController {
             @RequestParam(required = false, defaultValue = "") String query,
             @RequestParam(required = false, defaultValue = "10") Integer limit
     ) {
-        java.util.List<String> suggestions = new java.util.ArrayList<>();
-        
-        if (query == null || query.trim().isEmpty()) {
-            // Return popular cities if no query
-            suggestions.addAll(hotelRepository.findDistinctCities().stream()
-                    .limit(limit != null ? limit : 10)
-                    .toList());
-        } else {
-            String searchQuery = query.trim();
-            // Search cities
-            suggestions.addAll(hotelRepository.searchCities(searchQuery));
-            // Search hotel names
-            suggestions.addAll(hotelRepository.searchHotelNames(searchQuery));
-            
-            // Remove duplicates and limit results
-            suggestions = suggestions.stream()
-                    .distinct()
-                    .limit(limit != null ? limit : 10)
-                    .collect(java.util.stream.Collectors.toList());
-        }
+        // Served from the in-memory suggestion trie; a blank query returns the most popular cities
+        java.util.List<String> suggestions = hotelSearchIndexService.suggest(query, limit != null ? limit : 10);
         
         return ResponseEntity.ok(suggestions);
     }
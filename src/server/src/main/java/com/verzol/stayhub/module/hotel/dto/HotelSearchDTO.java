@@ -32,5 +32,8 @@ public class HotelSearchDTO {
     
     // Optional: Count of rooms (for display purposes)
     private Integer roomCount;
+
+    // Only set for map searches: km from the search point (or viewport centre)
+    private Double distanceKm;
 }
 
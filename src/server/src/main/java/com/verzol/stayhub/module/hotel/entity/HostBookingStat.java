@@ -0,0 +1,67 @@
+package com.verzol.stayhub.module.hotel.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dashboard rollup: number and total price of a hotel's bookings with one status on one day.
+ * The day depends on the metric:
+ * <ul>
+ *   <li>{@code CHECK_IN} - check-in date, every booking</li>
+ *   <li>{@code CHECK_OUT} - check-out date, every booking</li>
+ *   <li>{@code CHECKED_OUT} - date of the actual check-out, COMPLETED bookings only</li>
+ * </ul>
+ * Maintained by HostBookingStatsService.
+ */
+@Entity
+@Table(name = "host_booking_stats", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_host_booking_stats_key", columnNames = {"hotel_id", "metric", "status", "stat_date"})
+}, indexes = {
+    @Index(name = "idx_host_booking_stats_owner_id", columnList = "owner_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HostBookingStat {
+
+    public static final String CHECK_IN = "CHECK_IN";
+    public static final String CHECK_OUT = "CHECK_OUT";
+    public static final String CHECKED_OUT = "CHECKED_OUT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(nullable = false, length = 20)
+    private String metric;
+
+    @Column(length = 20)
+    private String status;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false)
+    private Long bookings;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+}
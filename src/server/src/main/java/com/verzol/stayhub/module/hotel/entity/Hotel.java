@@ -15,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -25,7 +26,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "hotels")
+@Table(name = "hotels", indexes = {
+    @Index(name = "idx_hotels_min_price", columnList = "min_price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -81,6 +84,10 @@ public class Hotel {
     @Column(name = "is_approved", columnDefinition = "boolean default false")
     private Boolean isApproved;
 
+    // Cheapest room base price, kept up to date by HotelPriceService (never written through the entity)
+    @Column(name = "min_price", insertable = false, updatable = false)
+    private BigDecimal minPrice;
+
     @Column(name = "created_at", insertable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,43 @@
+package com.verzol.stayhub.module.hotel.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Search-side price index: cheapest nightly price of a hotel on one night.
+ * Sparse - only nights where some room has a custom price are stored, a missing row means
+ * the night costs {@code hotels.min_price}. Maintained by HotelPriceService.
+ */
+@Entity
+@Table(name = "hotel_daily_prices", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_hotel_daily_prices_hotel_date", columnNames = {"hotel_id", "date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelDailyPrice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "min_price", nullable = false)
+    private BigDecimal minPrice;
+}
@@ -0,0 +1,84 @@
+package com.verzol.stayhub.module.hotel.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.verzol.stayhub.module.hotel.entity.HostBookingStat;
+
+public interface HostBookingStatRepository extends JpaRepository<HostBookingStat, Long> {
+
+    /**
+     * The whole booking part of the host dashboard in one read, as one row of
+     * [total, confirmed, upcoming, pendingCheckIns, pendingCheckOuts, totalRevenue, thisMonthRevenue, lastMonthRevenue]
+     */
+    @Query("SELECT " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECK_IN' THEN s.bookings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECK_IN' AND s.status IN ('CONFIRMED', 'CHECKED_IN', 'COMPLETED') " +
+           "    THEN s.bookings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECK_IN' AND s.status IN ('CONFIRMED', 'CHECKED_IN') " +
+           "    AND s.statDate >= :today THEN s.bookings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECK_IN' AND s.status = 'CONFIRMED' " +
+           "    AND s.statDate <= :today THEN s.bookings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECK_OUT' AND s.status = 'CHECKED_IN' " +
+           "    AND s.statDate <= :today THEN s.bookings ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECKED_OUT' THEN s.revenue ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECKED_OUT' AND s.statDate >= :startOfMonth " +
+           "    THEN s.revenue ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.metric = 'CHECKED_OUT' AND s.statDate >= :startOfLastMonth " +
+           "    AND s.statDate < :startOfMonth THEN s.revenue ELSE 0 END), 0) " +
+           "FROM HostBookingStat s WHERE s.ownerId = :ownerId")
+    List<Object[]> summarizeByOwnerId(@Param("ownerId") Long ownerId,
+                                      @Param("today") LocalDate today,
+                                      @Param("startOfMonth") LocalDate startOfMonth,
+                                      @Param("startOfLastMonth") LocalDate startOfLastMonth);
+
+    @Modifying
+    @Query("DELETE FROM HostBookingStat s WHERE s.hotelId = :hotelId")
+    int deleteByHotelId(@Param("hotelId") Long hotelId);
+
+    /**
+     * Add a delta to one row. Returns 0 if the row does not exist yet.
+     */
+    @Modifying
+    @Query("UPDATE HostBookingStat s SET s.bookings = s.bookings + :bookings, s.revenue = s.revenue + :revenue " +
+           "WHERE s.hotelId = :hotelId AND s.metric = :metric AND s.status = :status AND s.statDate = :statDate")
+    int addDelta(@Param("hotelId") Long hotelId, @Param("metric") String metric,
+                 @Param("status") String status, @Param("statDate") LocalDate statDate,
+                 @Param("bookings") long bookings, @Param("revenue") BigDecimal revenue);
+
+    /**
+     * Create an empty row (no-op if a concurrent transaction created it first)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO host_booking_stats (owner_id, hotel_id, metric, status, stat_date, bookings, revenue) " +
+           "SELECT h.owner_id, h.id, :metric, :status, :statDate, 0, 0 FROM hotels h WHERE h.id = :hotelId " +
+           "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hotelId") Long hotelId, @Param("metric") String metric,
+                       @Param("status") String status, @Param("statDate") LocalDate statDate);
+
+    /**
+     * Compute every row from the bookings (the table must be empty)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO host_booking_stats (owner_id, hotel_id, metric, status, stat_date, bookings, revenue) " +
+           "SELECT h.owner_id, r.hotel_id, 'CHECK_IN', b.status, b.check_in_date, COUNT(*), COALESCE(SUM(b.total_price), 0) " +
+           "FROM bookings b JOIN rooms r ON r.id = b.room_id JOIN hotels h ON h.id = r.hotel_id " +
+           "GROUP BY h.owner_id, r.hotel_id, b.status, b.check_in_date " +
+           "UNION ALL " +
+           "SELECT h.owner_id, r.hotel_id, 'CHECK_OUT', b.status, b.check_out_date, COUNT(*), COALESCE(SUM(b.total_price), 0) " +
+           "FROM bookings b JOIN rooms r ON r.id = b.room_id JOIN hotels h ON h.id = r.hotel_id " +
+           "GROUP BY h.owner_id, r.hotel_id, b.status, b.check_out_date " +
+           "UNION ALL " +
+           "SELECT h.owner_id, r.hotel_id, 'CHECKED_OUT', b.status, CAST(b.checked_out_at AS DATE), COUNT(*), " +
+           "COALESCE(SUM(b.total_price), 0) " +
+           "FROM bookings b JOIN rooms r ON r.id = b.room_id JOIN hotels h ON h.id = r.hotel_id " +
+           "WHERE b.status = 'COMPLETED' AND b.checked_out_at IS NOT NULL " +
+           "GROUP BY h.owner_id, r.hotel_id, b.status, CAST(b.checked_out_at AS DATE)", nativeQuery = true)
+    int insertAll();
+}
@@ -0,0 +1,49 @@
+package com.verzol.stayhub.module.hotel.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.verzol.stayhub.module.hotel.entity.HotelDailyPrice;
+
+public interface HotelDailyPriceRepository extends JpaRepository<HotelDailyPrice, Long> {
+
+    @Modifying
+    @Query("DELETE FROM HotelDailyPrice d WHERE d.hotelId = :hotelId AND d.date >= :from AND d.date <= :to")
+    int deleteRange(@Param("hotelId") Long hotelId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM HotelDailyPrice d WHERE d.date >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    /**
+     * Recompute nights [from, to] of one hotel: on every night where some room has a custom
+     * price, the cheapest of custom price / base price over all its rooms
+     */
+    @Modifying
+    @Query(value = "INSERT INTO hotel_daily_prices (hotel_id, date, min_price) " +
+           "SELECT r.hotel_id, d.date, MIN(COALESCE(a.custom_price, r.base_price)) " +
+           "FROM (SELECT DISTINCT cr.hotel_id, ca.date FROM room_availability ca JOIN rooms cr ON cr.id = ca.room_id " +
+           "      WHERE cr.hotel_id = :hotelId AND ca.unit = 0 AND ca.custom_price IS NOT NULL " +
+           "      AND ca.date >= :from AND ca.date <= :to) d " +
+           "JOIN rooms r ON r.hotel_id = d.hotel_id " +
+           "LEFT JOIN room_availability a ON a.room_id = r.id AND a.date = d.date AND a.unit = 0 " +
+           "GROUP BY r.hotel_id, d.date", nativeQuery = true)
+    int insertRange(@Param("hotelId") Long hotelId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Same as {@link #insertRange} for every hotel, nights from {@code from} on
+     */
+    @Modifying
+    @Query(value = "INSERT INTO hotel_daily_prices (hotel_id, date, min_price) " +
+           "SELECT r.hotel_id, d.date, MIN(COALESCE(a.custom_price, r.base_price)) " +
+           "FROM (SELECT DISTINCT cr.hotel_id, ca.date FROM room_availability ca JOIN rooms cr ON cr.id = ca.room_id " +
+           "      WHERE ca.unit = 0 AND ca.custom_price IS NOT NULL AND ca.date >= :from) d " +
+           "JOIN rooms r ON r.hotel_id = d.hotel_id " +
+           "LEFT JOIN room_availability a ON a.room_id = r.id AND a.date = d.date AND a.unit = 0 " +
+           "GROUP BY r.hotel_id, d.date", nativeQuery = true)
+    int insertFrom(@Param("from") LocalDate from);
+}
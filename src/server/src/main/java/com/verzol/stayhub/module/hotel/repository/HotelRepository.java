@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -82,6 +83,22 @@ public interface HotelRepository extends JpaRepository<Hotel, Long>, JpaSpecific
             ));
     }
     
+    /**
+     * Recompute the maintained hotels.min_price of one hotel from its rooms
+     */
+    @Modifying
+    @Query(value = "UPDATE hotels SET min_price = (SELECT MIN(r.base_price) FROM rooms r WHERE r.hotel_id = hotels.id) " +
+           "WHERE id = :hotelId", nativeQuery = true)
+    int refreshMinPrice(@Param("hotelId") Long hotelId);
+
+    /**
+     * Same as {@link #refreshMinPrice} for every hotel
+     */
+    @Modifying
+    @Query(value = "UPDATE hotels SET min_price = (SELECT MIN(r.base_price) FROM rooms r WHERE r.hotel_id = hotels.id)",
+           nativeQuery = true)
+    int refreshAllMinPrices();
+
     /**
      * Batch load room count for multiple hotels (avoids N+1 queries)
      */
@@ -106,6 +123,30 @@ public interface HotelRepository extends JpaRepository<Hotel, Long>, JpaSpecific
             ));
     }
     
+    /**
+     * Searchable fields of every hotel, for the in-memory search indexes (no collections loaded)
+     * Columns: id, name, city, country, address, viewCount, isActive, isApproved, latitude, longitude
+     */
+    @Query("SELECT h.id, h.name, h.city, h.country, h.address, h.viewCount, h.isActive, h.isApproved, " +
+           "h.latitude, h.longitude FROM Hotel h")
+    List<Object[]> findSearchFields();
+
+    /**
+     * Same as {@link #findSearchFields()} for some hotels
+     */
+    @Query("SELECT h.id, h.name, h.city, h.country, h.address, h.viewCount, h.isActive, h.isApproved, " +
+           "h.latitude, h.longitude FROM Hotel h " +
+           "WHERE h.id IN :ids")
+    List<Object[]> findSearchFieldsByIds(@Param("ids") java.util.Collection<Long> ids);
+
+    /**
+     * Non-cancelled bookings per hotel, used as popularity
+     */
+    @Query("SELECT r.hotelId, COUNT(b.id) FROM com.verzol.stayhub.module.booking.entity.Booking b " +
+           "JOIN com.verzol.stayhub.module.room.entity.Room r ON b.roomId = r.id " +
+           "WHERE b.status <> 'CANCELLED' GROUP BY r.hotelId")
+    List<Object[]> countBookingsByHotel();
+
     /**
      * Find all hotels by owner ID (optimized for dashboard)
      */
@@ -1,31 +1,47 @@
 package com.verzol.stayhub.module.hotel.repository;
 
 import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.hotel.entity.HotelDailyPrice;
 import com.verzol.stayhub.module.room.entity.Room;
-import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.room.entity.RoomInventoryDay;
 import com.verzol.stayhub.module.amenity.entity.Amenity;
 import com.verzol.stayhub.module.search.dto.SearchRequest;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 public class HotelSpecification implements Specification<Hotel> {
 
     private final SearchRequest request;
+    // Hotel ids already resolved by the in-memory indexes (text query and/or map area);
+    // null = no index restriction, request.query falls back to LIKE
+    private final List<Long> candidateIds;
 
     public HotelSpecification(SearchRequest request) {
+        this(request, null);
+    }
+
+    public HotelSpecification(SearchRequest request, List<Long> candidateIds) {
         this.request = request;
+        this.candidateIds = candidateIds;
     }
 
     @Override
     public Predicate toPredicate(Root<Hotel> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
         List<Predicate> predicates = new ArrayList<>();
 
-        // 1. Filter by Location (Name or City)
-        if (request.getQuery() != null && !request.getQuery().isEmpty()) {
+        // 1. Filter by Location (Name or City, map area)
+        if (candidateIds != null) {
+            // Already resolved by the in-memory full-text / geo indexes
+            predicates.add(candidateIds.isEmpty() ? cb.disjunction() : root.get("id").in(candidateIds));
+        } else if (request.getQuery() != null && !request.getQuery().isEmpty()) {
             String search = "%" + request.getQuery().toLowerCase() + "%";
             Predicate namePredicate = cb.like(cb.lower(root.get("name")), search);
             Predicate cityPredicate = cb.like(cb.lower(root.get("city")), search);
@@ -70,29 +86,23 @@ public class HotelSpecification implements Specification<Hotel> {
                 roomPredicates.add(cb.lessThanOrEqualTo(roomRoot.get("basePrice"), request.getMaxPrice()));
             }
 
-            // Availability (Not fully booked)
-            // Logic: Count bookings for this room in the date range. If count < quantity, it's available.
-            Subquery<Long> bookingSubquery = query.subquery(Long.class);
-            Root<Booking> bookingRoot = bookingSubquery.from(Booking.class);
-            bookingSubquery.select(cb.count(bookingRoot));
-
-            List<Predicate> bookingPredicates = new ArrayList<>();
-            bookingPredicates.add(cb.equal(bookingRoot.get("roomId"), roomRoot.get("id")));
-            
-            // Booking overlaps with requested range
-            // (StartA <= EndB) and (EndA >= StartB)
-            Predicate overlap = cb.and(
-                cb.lessThanOrEqualTo(bookingRoot.get("checkInDate"), request.getCheckOut()),
-                cb.greaterThanOrEqualTo(bookingRoot.get("checkOutDate"), request.getCheckIn())
+            // Availability (Not sold out on any night of the stay)
+            // Uses the precomputed room_inventory_days index: a range lookup per room instead of
+            // counting every overlapping booking in history. Cancelled bookings and expired holds
+            // hold no slots, so they are not counted; a night whose earliest hold has expired
+            // since the index row was written (free_from passed) is free before the reaper runs.
+            Subquery<Long> soldOutSubquery = query.subquery(Long.class);
+            Root<RoomInventoryDay> dayRoot = soldOutSubquery.from(RoomInventoryDay.class);
+            soldOutSubquery.select(dayRoot.get("id"));
+            soldOutSubquery.where(
+                cb.equal(dayRoot.get("roomId"), roomRoot.get("id")),
+                cb.lessThanOrEqualTo(dayRoot.get("remaining"), 0),
+                cb.between(dayRoot.get("date"), request.getCheckIn(), request.getCheckOut()),
+                cb.or(cb.isNull(dayRoot.get("freeFrom")),
+                      cb.greaterThan(dayRoot.<LocalDateTime>get("freeFrom"), LocalDateTime.now()))
             );
-            // Exclude cancelled bookings if status exists
-            // bookingPredicates.add(cb.notEqual(bookingRoot.get("status"), "CANCELLED")); 
-            
-            bookingPredicates.add(overlap);
-            bookingSubquery.where(bookingPredicates.toArray(new Predicate[0]));
 
-            // Room is available if bookings count < room quantity
-            roomPredicates.add(cb.lessThan(bookingSubquery, roomRoot.get("quantity")));
+            roomPredicates.add(cb.not(cb.exists(soldOutSubquery)));
 
             roomSubquery.where(roomPredicates.toArray(new Predicate[0]));
             
@@ -103,6 +113,50 @@ public class HotelSpecification implements Specification<Hotel> {
         predicates.add(cb.equal(root.get("isActive"), true));
         predicates.add(cb.equal(root.get("isApproved"), true));
 
+        // 5. Sort by price (only on the page query - count / id queries have another result type)
+        if (Hotel.class.equals(query.getResultType()) && query.getOrderList().isEmpty()
+                && ("price_asc".equals(request.getSortBy()) || "price_desc".equals(request.getSortBy()))) {
+            query.orderBy(priceOrder(root, query, cb, "price_asc".equals(request.getSortBy())));
+        }
+
         return cb.and(predicates.toArray(new Predicate[0]));
     }
+
+    /**
+     * Order by the maintained hotel price. With dates, the average nightly price of the stay:
+     * min_price plus the custom-price difference of the nights that have one.
+     * Hotels without rooms (no price) go last either way; id keeps pages stable.
+     */
+    private List<Order> priceOrder(Root<Hotel> root, CriteriaQuery<?> query, CriteriaBuilder cb, boolean ascending) {
+        Expression<BigDecimal> minPrice = root.get("minPrice");
+        Expression<BigDecimal> price = request.getCheckIn() != null && request.getCheckOut() != null
+                ? stayPrice(root, query, cb, request.getCheckIn(), request.getCheckOut())
+                : minPrice;
+
+        return List.of(
+            cb.asc(cb.selectCase().when(cb.isNull(minPrice), 1).otherwise(0)),
+            ascending ? cb.asc(price) : cb.desc(price),
+            cb.asc(root.get("id"))
+        );
+    }
+
+    /**
+     * Average nightly price of a stay: min_price plus the custom-price difference of the nights
+     * that have one (null when the hotel has no price)
+     */
+    @SuppressWarnings("unchecked")
+    public static Expression<BigDecimal> stayPrice(Root<Hotel> root, AbstractQuery<?> query, CriteriaBuilder cb,
+                                                   LocalDate checkIn, LocalDate checkOut) {
+        Expression<BigDecimal> minPrice = root.get("minPrice");
+        long nights = Math.max(1, ChronoUnit.DAYS.between(checkIn, checkOut));
+        Subquery<BigDecimal> surcharge = query.subquery(BigDecimal.class);
+        Root<HotelDailyPrice> dayRoot = surcharge.from(HotelDailyPrice.class);
+        surcharge.select(cb.sum(cb.diff(dayRoot.get("minPrice"), minPrice)));
+        surcharge.where(
+            cb.equal(dayRoot.get("hotelId"), root.get("id")),
+            cb.between(dayRoot.get("date"), checkIn, checkIn.plusDays(nights - 1))
+        );
+        return (Expression<BigDecimal>) (Expression<?>) cb.sum(minPrice,
+                cb.quot(cb.coalesce(surcharge, BigDecimal.ZERO), nights));
+    }
 }
@@ -3,10 +3,14 @@ package com.verzol.stayhub.module.hotel.service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,74 +19,106 @@ import com.verzol.stayhub.module.booking.repository.BookingRepository;
 import com.verzol.stayhub.module.hotel.dto.DashboardDTOs.DashboardSummaryResponse;
 import com.verzol.stayhub.module.hotel.dto.DashboardDTOs.RecentBooking;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.hotel.repository.HostBookingStatRepository;
 import com.verzol.stayhub.module.hotel.repository.HotelRepository;
 import com.verzol.stayhub.module.room.entity.Room;
 import com.verzol.stayhub.module.room.repository.RoomRepository;
 import com.verzol.stayhub.module.user.entity.User;
 import com.verzol.stayhub.module.user.repository.UserRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service for dashboard summary - optimized for fast loading
- * All stats calculated in one transaction with optimized queries
+ * Booking stats come from the host_booking_stats rollup in a single read
+ *
+ * The independent reads of the summary run concurrently (on virtual threads when enabled), so its
+ * latency is that of the slowest read rather than their sum. At most pool size - 1 of them run at
+ * once, leaving a connection for the rest of the application. Each read is timed as
+ * stayhub.dashboard.query{query=...}.
  */
 @Service
-@RequiredArgsConstructor
 public class DashboardService {
 
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final HostBookingStatRepository hostBookingStatRepository;
+    private final MeterRegistry meterRegistry;
+    private final SimpleAsyncTaskExecutor queryExecutor;
+
+    public DashboardService(HotelRepository hotelRepository,
+                            RoomRepository roomRepository,
+                            BookingRepository bookingRepository,
+                            UserRepository userRepository,
+                            HostBookingStatRepository hostBookingStatRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.dashboard.virtual-threads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads,
+                            @Value("${app.dashboard.query-concurrency:0}") int queryConcurrency,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.hostBookingStatRepository = hostBookingStatRepository;
+        this.meterRegistry = meterRegistry;
+        this.queryExecutor = new SimpleAsyncTaskExecutor("dashboard-query-");
+        this.queryExecutor.setVirtualThreads(virtualThreads);
+        // Callers block once the limit is reached instead of queueing for a pool connection
+        this.queryExecutor.setConcurrencyLimit(queryConcurrency > 0 ? queryConcurrency : Math.max(1, poolSize - 1));
+    }
 
     /**
      * Get dashboard summary for a host
-     * Optimized: Single transaction, aggregated queries, minimal data fetching
+     * Optimized: independent aggregated reads fanned out in parallel, minimal data fetching.
+     * Deliberately not one transaction - the request thread would hold a connection while its
+     * reads wait for theirs.
      */
-    @Transactional(readOnly = true)
     public DashboardSummaryResponse getDashboardSummary(Long ownerId) {
         LocalDate today = LocalDate.now();
         LocalDate startOfMonth = today.withDayOfMonth(1);
         LocalDate startOfLastMonth = startOfMonth.minusMonths(1);
-        LocalDate endOfLastMonth = startOfMonth.minusDays(1);
         
-        // Get all hotels for owner (optimized query)
-        List<Hotel> hotels = hotelRepository.findByOwnerId(ownerId);
-        List<Long> hotelIds = hotels.stream()
+        // ========== Booking counters and revenue: one read of the maintained rollup ==========
+        // host_booking_stats is kept up to date on every booking write (HostBookingStatsService),
+        // so no query here joins bookings -> rooms -> hotels
+        CompletableFuture<Object[]> statsFuture = query("stats", () ->
+                hostBookingStatRepository.summarizeByOwnerId(ownerId, today, startOfMonth, startOfLastMonth).get(0));
+        
+        // Only load recent bookings (5 records) - much faster than loading all!
+        // Batch load rooms and hotels for recent bookings (only 5 records - fast!)
+        CompletableFuture<List<RecentBooking>> recentFuture = query("recentBookings", () ->
+                mapToRecentBookings(bookingRepository.findRecentBookingsByOwnerId(ownerId)));
+        
+        // Get all hotels for owner, then their room count (depends on the hotel ids)
+        CompletableFuture<List<Long>> hotelIdsFuture = query("hotels", () -> hotelRepository.findByOwnerId(ownerId).stream()
             .map(Hotel::getId)
             .filter(id -> id != null)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
+        // Chained on the same thread: submitting it from a task would wait on that task's own slot
+        CompletableFuture<Integer> roomsFuture = hotelIdsFuture.thenApply(hotelIds -> hotelIds.isEmpty()
+            ? 0
+            : queryTimer("rooms").record(() -> roomRepository.countByHotelIdIn(hotelIds)));
         
+        List<Long> hotelIds = join(hotelIdsFuture);
         if (hotelIds.isEmpty()) {
             return createEmptySummary();
         }
         
-        // Get hotel count
         int totalHotels = hotelIds.size();
+        int totalRooms = join(roomsFuture);
         
-        // Get room count (single aggregated query)
-        int totalRooms = roomRepository.countByHotelIdIn(hotelIds);
-        
-        // ========== OPTIMIZED: Use aggregated queries instead of loading all bookings ==========
-        // These queries run much faster as they only return counts/sums, not full objects
-        
-        // Get booking counts using aggregated queries (much faster than loading all bookings)
-        Long totalBookings = bookingRepository.countByOwnerId(ownerId);
-        Long confirmedBookings = bookingRepository.countConfirmedByOwnerId(ownerId);
-        Long upcomingBookings = bookingRepository.countUpcomingByOwnerId(ownerId, today);
-        Long pendingCheckIns = bookingRepository.countPendingCheckInsByOwnerId(ownerId, today);
-        Long pendingCheckOuts = bookingRepository.countPendingCheckOutsByOwnerId(ownerId, today);
-        
-        // Get revenue using aggregated SUM queries (much faster)
-        BigDecimal totalRevenue = bookingRepository.sumTotalRevenueByOwnerId(ownerId);
-        
-        LocalDateTime startOfMonthDT = startOfMonth.atStartOfDay();
-        BigDecimal thisMonthRevenue = bookingRepository.sumRevenueThisMonthByOwnerId(ownerId, startOfMonthDT);
-        
-        LocalDateTime startOfLastMonthDT = startOfLastMonth.atStartOfDay();
-        LocalDateTime endOfLastMonthDT = endOfLastMonth.atTime(23, 59, 59);
-        BigDecimal lastMonthRevenue = bookingRepository.sumRevenueLastMonthByOwnerId(ownerId, startOfLastMonthDT, endOfLastMonthDT);
+        Object[] stats = join(statsFuture);
+        long totalBookings = ((Number) stats[0]).longValue();
+        long confirmedBookings = ((Number) stats[1]).longValue();
+        long upcomingBookings = ((Number) stats[2]).longValue();
+        long pendingCheckIns = ((Number) stats[3]).longValue();
+        long pendingCheckOuts = ((Number) stats[4]).longValue();
+        BigDecimal totalRevenue = toBigDecimal(stats[5]);
+        BigDecimal thisMonthRevenue = toBigDecimal(stats[6]);
+        BigDecimal lastMonthRevenue = toBigDecimal(stats[7]);
         
         // Calculate revenue change percentage
         double revenueChangePercent = 0.0;
@@ -95,22 +131,17 @@ public class DashboardService {
             revenueChangePercent = 100.0; // 100% increase from 0
         }
         
-        // Only load recent bookings (5 records) - much faster than loading all!
-        // This runs asynchronously to not block stats calculation
-        List<Booking> recentBookingsList = bookingRepository.findRecentBookingsByOwnerId(ownerId);
-        
-        // Batch load rooms and hotels for recent bookings (only 5 records - fast!)
-        List<RecentBooking> recentBookings = mapToRecentBookings(recentBookingsList);
+        List<RecentBooking> recentBookings = join(recentFuture);
         
         // Build response
         DashboardSummaryResponse response = new DashboardSummaryResponse();
         response.setTotalHotels(totalHotels);
         response.setTotalRooms(totalRooms);
-        response.setTotalBookings(totalBookings.intValue());
-        response.setConfirmedBookings(confirmedBookings.intValue());
-        response.setUpcomingBookings(upcomingBookings.intValue());
-        response.setPendingCheckIns(pendingCheckIns.intValue());
-        response.setPendingCheckOuts(pendingCheckOuts.intValue());
+        response.setTotalBookings((int) totalBookings);
+        response.setConfirmedBookings((int) confirmedBookings);
+        response.setUpcomingBookings((int) upcomingBookings);
+        response.setPendingCheckIns((int) pendingCheckIns);
+        response.setPendingCheckOuts((int) pendingCheckOuts);
         response.setTotalRevenue(totalRevenue);
         response.setThisMonthRevenue(thisMonthRevenue);
         response.setLastMonthRevenue(lastMonthRevenue);
@@ -120,6 +151,29 @@ public class DashboardService {
         return response;
     }
     
+    /**
+     * Run one read of the summary on the query executor, timed under its name
+     */
+    private <T> CompletableFuture<T> query(String name, Supplier<T> read) {
+        Timer timer = queryTimer(name);
+        return CompletableFuture.supplyAsync(() -> timer.record(read), queryExecutor);
+    }
+    
+    private Timer queryTimer(String name) {
+        return meterRegistry.timer("stayhub.dashboard.query", "query", name);
+    }
+    
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
     /**
      * Get recent bookings for a host (last 5)
      * Optimized: Uses native query with LIMIT for better performance
@@ -210,6 +264,10 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
     
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+    
     private DashboardSummaryResponse createEmptySummary() {
         DashboardSummaryResponse response = new DashboardSummaryResponse();
         response.setTotalHotels(0);
@@ -0,0 +1,151 @@
+package com.verzol.stayhub.module.hotel.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.hotel.entity.HostBookingStat;
+import com.verzol.stayhub.module.hotel.repository.HostBookingStatRepository;
+import com.verzol.stayhub.module.room.repository.RoomRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains host_booking_stats, the per-hotel, per-day booking counters the host dashboard reads.
+ *
+ * Every booking write (creation, status transition, expiry) applies its delta in the same
+ * transaction: minus one booking and its price on the rows of the old status, plus one on the
+ * rows of the new status. Each row is a single UPDATE of a counter, so bookings of one hotel
+ * only wait for each other when they touch the same row, and only until commit.
+ * Callers hold the row lock of the booking (BookingRepository.findByIdForUpdate /
+ * lockExpiredPending), so the old status a delta subtracts is the one last committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class HostBookingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostBookingStatsService.class);
+
+    private final HostBookingStatRepository hostBookingStatRepository;
+    private final RoomRepository roomRepository;
+
+    private record StatKey(Long hotelId, String metric, String status, LocalDate statDate)
+            implements Comparable<StatKey> {
+
+        private static final Comparator<StatKey> ORDER = Comparator.comparing(StatKey::hotelId)
+                .thenComparing(StatKey::metric)
+                .thenComparing(StatKey::status)
+                .thenComparing(StatKey::statDate);
+
+        @Override
+        public int compareTo(StatKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        private long bookings;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+
+    /**
+     * A booking was created (fromStatus null) or moved from fromStatus to toStatus
+     */
+    @Transactional
+    public void bookingChanged(Booking booking, String fromStatus, String toStatus) {
+        bookingsChanged(List.of(booking), fromStatus, toStatus);
+    }
+
+    /**
+     * Same as {@link #bookingChanged} for a batch of bookings with the same transition
+     */
+    @Transactional
+    public void bookingsChanged(Collection<Booking> bookings, String fromStatus, String toStatus) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> hotelIdByRoomId = new HashMap<>();
+        for (Object[] row : roomRepository.findHotelIdsByIds(
+                bookings.stream().map(Booking::getRoomId).collect(Collectors.toSet()))) {
+            hotelIdByRoomId.put((Long) row[0], (Long) row[1]);
+        }
+
+        // Rows in key order, so concurrent transactions always update them in the same order
+        Map<StatKey, Delta> deltas = new TreeMap<>();
+        for (Booking booking : bookings) {
+            Long hotelId = hotelIdByRoomId.get(booking.getRoomId());
+            if (hotelId == null) {
+                continue;
+            }
+            if (fromStatus != null) {
+                addRows(deltas, hotelId, booking, fromStatus, -1);
+            }
+            addRows(deltas, hotelId, booking, toStatus, 1);
+        }
+
+        deltas.forEach((key, delta) -> {
+            if (delta.bookings == 0 && delta.revenue.signum() == 0) {
+                return;
+            }
+            if (hostBookingStatRepository.addDelta(key.hotelId(), key.metric(), key.status(), key.statDate(),
+                    delta.bookings, delta.revenue) == 0) {
+                hostBookingStatRepository.insertIfAbsent(key.hotelId(), key.metric(), key.status(), key.statDate());
+                hostBookingStatRepository.addDelta(key.hotelId(), key.metric(), key.status(), key.statDate(),
+                        delta.bookings, delta.revenue);
+            }
+        });
+    }
+
+    private static void addRows(Map<StatKey, Delta> deltas, Long hotelId, Booking booking, String status, int sign) {
+        addRow(deltas, new StatKey(hotelId, HostBookingStat.CHECK_IN, status, booking.getCheckInDate()),
+                booking, sign);
+        addRow(deltas, new StatKey(hotelId, HostBookingStat.CHECK_OUT, status, booking.getCheckOutDate()),
+                booking, sign);
+        if ("COMPLETED".equals(status) && booking.getCheckedOutAt() != null) {
+            addRow(deltas, new StatKey(hotelId, HostBookingStat.CHECKED_OUT, status,
+                    booking.getCheckedOutAt().toLocalDate()), booking, sign);
+        }
+    }
+
+    private static void addRow(Map<StatKey, Delta> deltas, StatKey key, Booking booking, int sign) {
+        BigDecimal price = booking.getTotalPrice() != null ? booking.getTotalPrice() : BigDecimal.ZERO;
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.bookings += sign;
+        delta.revenue = delta.revenue.add(sign < 0 ? price.negate() : price);
+    }
+
+    /**
+     * The hotel is being deleted together with its bookings
+     */
+    @Transactional
+    public void removeHotel(Long hotelId) {
+        hostBookingStatRepository.deleteByHotelId(hotelId);
+    }
+
+    /**
+     * First start with the table: fill it from the bookings made before it existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (hostBookingStatRepository.count() > 0) {
+            return;
+        }
+        int rows = hostBookingStatRepository.insertAll();
+        logger.info("Host booking stats backfilled: {} rows", rows);
+    }
+}
@@ -0,0 +1,68 @@
+package com.verzol.stayhub.module.hotel.service;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.verzol.stayhub.module.hotel.repository.HotelDailyPriceRepository;
+import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains the prices search sorts on: hotels.min_price (cheapest room base price) and
+ * hotel_daily_prices (cheapest price on nights with custom room prices).
+ *
+ * Price changes are rare host actions, so they are applied in the same transaction as the
+ * room change - a price sort never sees a half-updated hotel.
+ */
+@Service
+@RequiredArgsConstructor
+public class HotelPriceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelPriceService.class);
+
+    // Upper bound for "every upcoming night"
+    private static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
+    private final HotelRepository hotelRepository;
+    private final HotelDailyPriceRepository hotelDailyPriceRepository;
+
+    /**
+     * A room was added or its base price changed: every upcoming night of the hotel may change
+     */
+    @Transactional
+    public void refreshHotel(Long hotelId) {
+        LocalDate today = LocalDate.now();
+        hotelRepository.refreshMinPrice(hotelId);
+        hotelDailyPriceRepository.deleteRange(hotelId, today, OPEN_END);
+        hotelDailyPriceRepository.insertRange(hotelId, today, OPEN_END);
+    }
+
+    /**
+     * The host changed the custom price of one night of a room
+     */
+    @Transactional
+    public void refreshNight(Long hotelId, LocalDate date) {
+        hotelDailyPriceRepository.deleteRange(hotelId, date, date);
+        hotelDailyPriceRepository.insertRange(hotelId, date, date);
+    }
+
+    /**
+     * Rebuild both for every hotel (also fills min_price for hotels created before it existed)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        int hotels = hotelRepository.refreshAllMinPrices();
+        hotelDailyPriceRepository.deleteFrom(today);
+        int nights = hotelDailyPriceRepository.insertFrom(today);
+        logger.info("Hotel price index rebuilt: {} hotels, {} custom-priced nights", hotels, nights);
+    }
+}
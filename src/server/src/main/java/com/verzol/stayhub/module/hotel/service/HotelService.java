@@ -1,5 +1,6 @@
 package com.verzol.stayhub.module.hotel.service;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.verzol.stayhub.common.CursorPage;
 import com.verzol.stayhub.module.amenity.entity.Amenity;
 import com.verzol.stayhub.module.amenity.repository.AmenityRepository;
 import com.verzol.stayhub.module.hotel.dto.HotelDTO;
@@ -17,6 +19,15 @@ import com.verzol.stayhub.module.hotel.dto.HotelSearchDTO;
 import com.verzol.stayhub.module.hotel.entity.Hotel;
 import com.verzol.stayhub.module.hotel.entity.HotelImage;
 import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+import com.verzol.stayhub.module.hotel.repository.HotelSpecification;
+import com.verzol.stayhub.module.search.dto.SearchRequest;
+import com.verzol.stayhub.module.search.service.HotelSearchIndexService;
+import com.verzol.stayhub.util.Cursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,6 +35,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class HotelService {
 
+    // Ranked candidates checked against the DB filters per query
+    private static final int RANKED_CHUNK = 200;
+    // Candidate ids per IN list of a filtered / counted query
+    private static final int CANDIDATE_CHUNK = 1000;
+
     private final HotelRepository hotelRepository;
     private final AmenityRepository amenityRepository;
     private final com.verzol.stayhub.module.room.repository.RoomRepository roomRepository;
@@ -31,13 +47,18 @@ public class HotelService {
     private final com.verzol.stayhub.module.promotion.repository.PromotionRepository promotionRepository;
     private final com.verzol.stayhub.module.review.repository.ReviewRepository reviewRepository;
     private final com.verzol.stayhub.module.room.repository.RoomAvailabilityRepository roomAvailabilityRepository;
+    private final HotelSearchIndexService hotelSearchIndexService;
+    private final HostBookingStatsService hostBookingStatsService;
+    private final EntityManager entityManager;
 
     @Transactional
     public Hotel createHotel(HotelDTO dto, Long ownerId) {
         Hotel hotel = new Hotel();
         hotel.setOwnerId(ownerId);
         mapDtoToEntity(dto, hotel);
-        return hotelRepository.save(hotel);
+        Hotel saved = hotelRepository.save(hotel);
+        hotelSearchIndexService.upsert(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -50,7 +71,9 @@ public class HotelService {
         }
 
         mapDtoToEntity(dto, hotel);
-        return hotelRepository.save(hotel);
+        Hotel saved = hotelRepository.save(hotel);
+        hotelSearchIndexService.upsert(saved.getId());
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -90,7 +113,9 @@ public class HotelService {
             roomRepository.delete(room);
         }
 
+        hostBookingStatsService.removeHotel(id);
         hotelRepository.delete(hotel);
+        hotelSearchIndexService.remove(id);
     }
 
     private final com.verzol.stayhub.common.service.FileStorageService fileStorageService;
@@ -159,24 +184,283 @@ public class HotelService {
         // We'll query them separately in batch to avoid N+1
         Page<Hotel> hotels = hotelRepository.findAll(spec, pageable);
         
+        return new org.springframework.data.domain.PageImpl<>(
+                toSearchDtos(hotels.getContent()), pageable, hotels.getTotalElements());
+    }
+
+    /**
+     * Search hotels ordered by full-text relevance.
+     * The DB only applies the remaining filters to the text matches, a chunk at a time; ordering and
+     * paging follow the relevance rank from the search index.
+     */
+    public Page<HotelSearchDTO> searchHotelsRanked(SearchRequest request, List<Long> rankedIds, Pageable pageable) {
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        List<Long> ordered = filterRanked(request, rankedIds, Integer.MAX_VALUE);
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        int to = Math.min(from + pageable.getPageSize(), ordered.size());
+
+        return new org.springframework.data.domain.PageImpl<>(
+                toSearchDtos(loadInOrder(ordered.subList(from, to))), pageable, ordered.size());
+    }
+
+    /**
+     * Search restricted to index candidates, in a DB ordering (rating or price); used instead of
+     * {@link #searchHotelsOptimized} so a long candidate list is queried a chunk at a time.
+     */
+    public Page<HotelSearchDTO> searchHotelsSorted(SearchRequest request, List<Long> candidateIds, Pageable pageable) {
+        if (candidateIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+        List<Object[]> rows = seekRows(request, candidateIds, null, from + pageable.getPageSize());
+        List<Hotel> page = rows.subList(Math.min(from, rows.size()), rows.size()).stream()
+                .map(row -> (Hotel) row[0])
+                .toList();
+        return new org.springframework.data.domain.PageImpl<>(toSearchDtos(page), pageable,
+                countCandidates(request, candidateIds));
+    }
+
+    /**
+     * Cursor-paginated search: every ordering seeks past the sort keys of the last row of the
+     * previous page (no OFFSET scan), and no COUNT unless {@code includeTotal}.
+     *
+     * {@code candidates} are the hotel ids resolved by the in-memory indexes with their rank key
+     * (ascending: negated relevance, or distance), in rank order; null = no index restriction.
+     * Relevance order seeks on (rank key, id) in memory and asks the DB only which candidates
+     * after the cursor pass the filters. Default, rating, price and date-aware stay price orders
+     * seek on (sort key, id) in the DB.
+     */
+    public CursorPage<HotelSearchDTO> searchHotelsPage(SearchRequest request, java.util.Map<Long, Double> candidates,
+                                                       boolean relevance, String cursor, int size,
+                                                       boolean includeTotal) {
+        if (relevance && candidates != null) {
+            return rankedPage(request, candidates, cursor, size, includeTotal);
+        }
+        List<Long> candidateIds = candidates != null ? List.copyOf(candidates.keySet()) : null;
+        List<Object[]> rows = seekRows(request, candidateIds, cursor, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<Object[]> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            String ordering = orderingOf(request);
+            Object[] last = page.get(page.size() - 1);
+            Long lastId = ((Hotel) last[0]).getId();
+            nextCursor = last[1] instanceof BigDecimal price ? Cursor.encode(ordering, price.toPlainString(), lastId)
+                    : "id".equals(ordering) ? Cursor.encode(ordering, lastId)
+                    : Cursor.encode(ordering, last[1], lastId);
+        }
+        return new CursorPage<>(toSearchDtos(page.stream().map(row -> (Hotel) row[0]).toList()), nextCursor, hasNext,
+                includeTotal ? countCandidates(request, candidateIds) : null);
+    }
+
+    /**
+     * Cursor ordering of a request: price, stay price (price with dates), rating or id
+     */
+    private static String orderingOf(SearchRequest request) {
+        String sortBy = request.getSortBy();
+        boolean priceSort = "price_asc".equals(sortBy) || "price_desc".equals(sortBy);
+        if (priceSort && request.getCheckIn() != null && request.getCheckOut() != null) {
+            return "stay_" + sortBy;
+        }
+        return priceSort || "rating_desc".equals(sortBy) ? sortBy : "id";
+    }
+
+    /**
+     * The first limit rows (hotel, sort key) after the cursor in the request's DB ordering.
+     * A candidate list longer than CANDIDATE_CHUNK is queried a chunk at a time (bounded IN
+     * list) and the chunks' first rows merged in the same order.
+     */
+    private List<Object[]> seekRows(SearchRequest request, List<Long> candidateIds, String cursor, int limit) {
+        if (candidateIds == null || candidateIds.size() <= CANDIDATE_CHUNK) {
+            return seekChunk(request, candidateIds, cursor, limit);
+        }
+        List<Object[]> merged = new java.util.ArrayList<>();
+        for (int from = 0; from < candidateIds.size(); from += CANDIDATE_CHUNK) {
+            List<Long> chunk = candidateIds.subList(from, Math.min(from + CANDIDATE_CHUNK, candidateIds.size()));
+            merged.addAll(seekChunk(request, chunk, cursor, limit));
+        }
+        merged.sort(rowOrder(orderingOf(request)));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * In-memory equivalent of the ORDER BY of {@link #seekChunk}: sort key (hotels without a
+     * price last), then id
+     */
+    private static java.util.Comparator<Object[]> rowOrder(String ordering) {
+        java.util.Comparator<Object[]> byId = java.util.Comparator.comparing(row -> ((Hotel) row[0]).getId());
+        if ("id".equals(ordering)) {
+            return byId;
+        }
+        if ("rating_desc".equals(ordering)) {
+            return java.util.Comparator.comparing((Object[] row) -> (Integer) row[1]).reversed().thenComparing(byId);
+        }
+        java.util.Comparator<BigDecimal> price = ordering.endsWith("price_asc")
+                ? java.util.Comparator.naturalOrder()
+                : java.util.Comparator.reverseOrder();
+        return java.util.Comparator.comparing((Object[] row) -> (BigDecimal) row[1],
+                java.util.Comparator.nullsLast(price)).thenComparing(byId);
+    }
+
+    private List<Object[]> seekChunk(SearchRequest request, List<Long> candidateIds, String cursor, int limit) {
+        HotelSpecification spec = new HotelSpecification(request, candidateIds);
+        String sortBy = request.getSortBy();
+        String ordering = orderingOf(request);
+        boolean priceSort = "price_asc".equals(sortBy) || "price_desc".equals(sortBy);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Hotel> root = query.from(Hotel.class);
+        List<jakarta.persistence.criteria.Predicate> where = new java.util.ArrayList<>();
+        // Selected next to each hotel, for the cursor
+        jakarta.persistence.criteria.Expression<?> sortKey;
+
+        if (priceSort) {
+            boolean ascending = "price_asc".equals(sortBy);
+            jakarta.persistence.criteria.Path<BigDecimal> minPrice = root.get("minPrice");
+            jakarta.persistence.criteria.Expression<BigDecimal> price = ordering.startsWith("stay_")
+                    ? HotelSpecification.stayPrice(root, query, cb, request.getCheckIn(), request.getCheckOut())
+                    : minPrice;
+            sortKey = price;
+            query.orderBy(
+                cb.asc(cb.selectCase().when(cb.isNull(minPrice), 1).otherwise(0)),
+                ascending ? cb.asc(price) : cb.desc(price),
+                cb.asc(root.get("id")));
+            String[] keys = Cursor.decode(cursor, ordering, 2);
+            if (keys != null) {
+                BigDecimal lastPrice = Cursor.parse(keys[0], BigDecimal::new);
+                Long lastId = Cursor.parse(keys[1], Long::valueOf);
+                // Hotels without a price come last
+                where.add(lastPrice == null
+                        ? cb.and(cb.isNull(minPrice), cb.greaterThan(root.get("id"), lastId))
+                        : cb.or(
+                            cb.isNull(minPrice),
+                            ascending ? cb.greaterThan(price, lastPrice) : cb.lessThan(price, lastPrice),
+                            cb.and(cb.equal(price, lastPrice), cb.greaterThan(root.get("id"), lastId))));
+            }
+        } else if ("rating_desc".equals(sortBy)) {
+            jakarta.persistence.criteria.Expression<Integer> rating = cb.coalesce(root.get("starRating"), 0);
+            sortKey = rating;
+            query.orderBy(cb.desc(rating), cb.asc(root.get("id")));
+            String[] keys = Cursor.decode(cursor, ordering, 2);
+            if (keys != null) {
+                Integer lastRating = Cursor.parse(keys[0], Integer::valueOf);
+                Long lastId = Cursor.parse(keys[1], Long::valueOf);
+                where.add(cb.or(
+                    cb.lessThan(rating, lastRating),
+                    cb.and(cb.equal(rating, lastRating), cb.greaterThan(root.get("id"), lastId))));
+            }
+        } else {
+            sortKey = root.get("id");
+            query.orderBy(cb.asc(root.get("id")));
+            String[] keys = Cursor.decode(cursor, ordering, 1);
+            if (keys != null) {
+                Long lastId = Cursor.parse(keys[0], Long::valueOf);
+                where.add(cb.greaterThan(root.get("id"), lastId));
+            }
+        }
+
+        where.add(spec.toPredicate(root, query, cb));
+        query.multiselect(root, sortKey).where(where.toArray(new jakarta.persistence.criteria.Predicate[0]));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Hotels passing the filters, among the candidates if any (counted a chunk at a time)
+     */
+    private long countCandidates(SearchRequest request, List<Long> candidateIds) {
+        if (candidateIds == null) {
+            return hotelRepository.count(new HotelSpecification(request));
+        }
+        long total = 0;
+        for (int from = 0; from < candidateIds.size(); from += CANDIDATE_CHUNK) {
+            List<Long> chunk = candidateIds.subList(from, Math.min(from + CANDIDATE_CHUNK, candidateIds.size()));
+            total += hotelRepository.count(new HotelSpecification(request, chunk));
+        }
+        return total;
+    }
+
+    /**
+     * One page in rank order: the candidates after the cursor's (rank key, id), checked against
+     * the DB filters until the page is full
+     */
+    private CursorPage<HotelSearchDTO> rankedPage(SearchRequest request, java.util.Map<Long, Double> candidates,
+                                                  String cursor, int size, boolean includeTotal) {
+        String[] keys = Cursor.decode(cursor, "rank", 2);
+        double lastKey = keys != null ? Cursor.parse(keys[0], Double::valueOf) : 0;
+        Long lastId = keys != null ? Cursor.parse(keys[1], Long::valueOf) : null;
+
+        List<Long> after = new java.util.ArrayList<>();
+        candidates.forEach((id, key) -> {
+            int order = lastId == null ? 1 : Double.compare(key, lastKey);
+            if (order > 0 || (order == 0 && id > lastId)) {
+                after.add(id);
+            }
+        });
+
+        List<Long> page = filterRanked(request, after, size + 1);
+        boolean hasNext = page.size() > size;
+        if (hasNext) {
+            page = page.subList(0, size);
+        }
+        Long last = hasNext ? page.get(page.size() - 1) : null;
+        return new CursorPage<>(toSearchDtos(loadInOrder(page)),
+                hasNext ? Cursor.encode("rank", candidates.get(last), last) : null, hasNext,
+                includeTotal ? countCandidates(request, List.copyOf(candidates.keySet())) : null);
+    }
+
+    /**
+     * Ranked ids that also pass the specification filters, in rank order, at most limit of them.
+     * Checked a chunk at a time, so a page near the top of the ranking stops early.
+     */
+    private List<Long> filterRanked(SearchRequest request, List<Long> rankedIds, int limit) {
+        List<Long> result = new java.util.ArrayList<>();
+        for (int from = 0; from < rankedIds.size() && result.size() < limit; from += RANKED_CHUNK) {
+            List<Long> chunk = rankedIds.subList(from, Math.min(from + RANKED_CHUNK, rankedIds.size()));
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> query = cb.createQuery(Long.class);
+            Root<Hotel> root = query.from(Hotel.class);
+            query.select(root.get("id")).distinct(true)
+                    .where(new HotelSpecification(request, chunk).toPredicate(root, query, cb));
+            java.util.Set<Long> matching = new java.util.HashSet<>(entityManager.createQuery(query).getResultList());
+            for (Long id : chunk) {
+                if (matching.contains(id) && result.size() < limit) {
+                    result.add(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Hotel> loadInOrder(List<Long> ids) {
+        java.util.Map<Long, Hotel> byId = hotelRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Hotel::getId, hotel -> hotel));
+        return ids.stream().map(byId::get).filter(java.util.Objects::nonNull).toList();
+    }
+
+    private List<HotelSearchDTO> toSearchDtos(List<Hotel> hotels) {
         // Get hotel IDs for batch queries
-        List<Long> hotelIds = hotels.getContent().stream()
+        List<Long> hotelIds = hotels.stream()
             .map(Hotel::getId)
             .collect(Collectors.toList());
         
         // Batch load first images for all hotels (1 query instead of N)
         java.util.Map<Long, String> thumbnailMap = hotelRepository.findFirstImageByHotelIds(hotelIds);
         
-        // Batch load min prices for all hotels (1 query instead of N)
-        java.util.Map<Long, java.math.BigDecimal> minPriceMap = hotelRepository.findMinPriceByHotelIds(hotelIds);
-        
         // Batch load room counts (1 query instead of N)
         java.util.Map<Long, Integer> roomCountMap = hotelRepository.findRoomCountByHotelIds(hotelIds);
         
         // Map to DTO using batch-loaded data
-        return hotels.map(hotel -> {
+        return hotels.stream().map(hotel -> {
             String thumbnailUrl = thumbnailMap.get(hotel.getId());
-            java.math.BigDecimal minPrice = minPriceMap.get(hotel.getId());
+            // Maintained on the hotel row (same value the price sort uses)
+            java.math.BigDecimal minPrice = hotel.getMinPrice();
             Integer roomCount = roomCountMap.getOrDefault(hotel.getId(), 0);
             
             return new HotelSearchDTO(
@@ -191,8 +475,9 @@ public class HotelService {
                 hotel.getLongitude(),
                 thumbnailUrl,
                 minPrice,
-                roomCount
+                roomCount,
+                null
             );
-        });
+        }).toList();
     }
 }
@@ -0,0 +1,58 @@
+package com.verzol.stayhub.module.mail.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dead letter: an email the mail pipeline gave up on (retries exhausted, rejected recipient,
+ * queue full), kept with its content so it can be inspected and resent.
+ */
+@Entity
+@Table(name = "failed_emails", indexes = {
+    @Index(name = "idx_failed_emails_failed_at", columnList = "failed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FailedEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String content;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false)
+    private LocalDateTime failedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (failedAt == null) {
+            failedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.verzol.stayhub.module.mail.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.verzol.stayhub.module.mail.entity.FailedEmail;
+
+public interface FailedEmailRepository extends JpaRepository<FailedEmail, Long> {
+}
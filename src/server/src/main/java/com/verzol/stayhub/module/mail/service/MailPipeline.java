@@ -0,0 +1,368 @@
+package com.verzol.stayhub.module.mail.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import com.verzol.stayhub.module.mail.entity.FailedEmail;
+import com.verzol.stayhub.module.mail.repository.FailedEmailRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Outgoing mail: a bounded queue drained by a few sender threads.
+ *
+ * Each sender keeps its own SMTP connection open and sends everything it drains from the queue
+ * (up to batch-size at a time) over it, instead of one connection per email; the connection is
+ * closed after idle-timeout without mail. All senders share one rate limit. A failed email is
+ * re-queued with exponential backoff; after max-attempts, or when the server rejects the recipient,
+ * it is stored in failed_emails (dead letters). Emails submitted with {@link #submitTracked} report
+ * the outcome to the caller instead, who owns the retries.
+ *
+ * Metrics: stayhub.mail.queue.depth, stayhub.mail.send (SMTP time per email), stayhub.mail.delivery
+ * (queued to sent), stayhub.mail.sent / retried / dead and stayhub.mail.connections.
+ */
+@Component
+public class MailPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailPipeline.class);
+
+    private static final String FROM = "noreply@stayhub.com";
+
+    private final JavaMailSender mailSender;
+    private final FailedEmailRepository failedEmailRepository;
+    private final BlockingQueue<OutgoingEmail> queue;
+    private final ScheduledExecutorService retryScheduler;
+    private final List<Thread> senders = new ArrayList<>();
+
+    private final int senderCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long idleTimeoutMs;
+    private final long sendIntervalNanos;
+
+    private final Object rateLock = new Object();
+    private long nextSendNanos;
+    private volatile boolean running;
+
+    private final Timer sendTimer;
+    private final Timer deliveryTimer;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Counter connectionCounter;
+
+    public MailPipeline(JavaMailSender mailSender,
+                        FailedEmailRepository failedEmailRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.mail.queue-capacity:10000}") int queueCapacity,
+                        @Value("${app.mail.senders:2}") int senderCount,
+                        @Value("${app.mail.batch-size:50}") int batchSize,
+                        @Value("${app.mail.rate-per-second:20}") double ratePerSecond,
+                        @Value("${app.mail.max-attempts:4}") int maxAttempts,
+                        @Value("${app.mail.retry-backoff-ms:2000}") long retryBackoffMs,
+                        @Value("${app.mail.idle-timeout-ms:30000}") long idleTimeoutMs) {
+        this.mailSender = mailSender;
+        this.failedEmailRepository = failedEmailRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senderCount = Math.max(1, senderCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        // 0 = unlimited
+        this.sendIntervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+
+        Gauge.builder("stayhub.mail.queue.depth", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("stayhub.mail.send")
+                .description("SMTP time to send one email")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("stayhub.mail.delivery")
+                .description("Time from queueing an email to sending it, retries included")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("stayhub.mail.sent")
+                .description("Emails sent")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("stayhub.mail.retried")
+                .description("Failed send attempts that were re-queued")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("stayhub.mail.dead")
+                .description("Emails given up on")
+                .register(meterRegistry);
+        this.connectionCounter = Counter.builder("stayhub.mail.connections")
+                .description("SMTP connections opened")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < senderCount; i++) {
+            Thread thread = new Thread(this::runSender, "mail-sender-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            senders.add(thread);
+        }
+    }
+
+    /**
+     * Stop sending; what is still queued is stored as dead letters
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        senders.forEach(Thread::interrupt);
+        for (Thread thread : senders) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<OutgoingEmail> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        unsent.forEach(email -> dead(email, new IllegalStateException("Application shut down before sending")));
+    }
+
+    /**
+     * Queue an email; never blocks. Failures end up in failed_emails.
+     */
+    public void submit(String to, String subject, String content) {
+        enqueue(new OutgoingEmail(to, subject, content, null));
+    }
+
+    /**
+     * Queue an email; the future completes once it is sent, or exceptionally once the pipeline gives up.
+     * Not stored as a dead letter: the caller decides what to do with a failure.
+     */
+    public CompletableFuture<Void> submitTracked(String to, String subject, String content) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        enqueue(new OutgoingEmail(to, subject, content, result));
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void enqueue(OutgoingEmail email) {
+        if (!running || !queue.offer(email)) {
+            dead(email, new IllegalStateException("Mail queue is full"));
+        }
+    }
+
+    private void runSender() {
+        Transport transport = null;
+        List<OutgoingEmail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OutgoingEmail first = queue.poll(idleTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    transport = close(transport);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (OutgoingEmail email : batch) {
+                    transport = send(transport, email);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                // Interrupted mid-batch: put the rest back for stop() to record
+                for (OutgoingEmail email : batch) {
+                    if (!email.done && !queue.offer(email)) {
+                        dead(email, new IllegalStateException("Mail queue is full"));
+                    }
+                }
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    /**
+     * Send one email over the sender's connection, opening it if needed
+     *
+     * @return the connection to use for the next email (null after a failure)
+     */
+    private Transport send(Transport transport, OutgoingEmail email) throws InterruptedException {
+        pace();
+        long start = System.nanoTime();
+        try {
+            MimeMessage message = toMimeMessage(email);
+            if (mailSender instanceof JavaMailSenderImpl sender) {
+                if (transport == null || !transport.isConnected()) {
+                    close(transport);
+                    transport = connect(sender);
+                }
+                transport.sendMessage(message, message.getAllRecipients());
+            } else {
+                mailSender.send(message);
+            }
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            sent(email);
+            return transport;
+        } catch (SendFailedException e) {
+            // Rejected recipient: retrying will not help. The connection itself is still usable.
+            if (e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0) {
+                email.attempts++;
+                dead(email, e);
+                return transport;
+            }
+            retry(email, e);
+            return close(transport);
+        } catch (MessagingException | RuntimeException e) {
+            retry(email, e);
+            return close(transport);
+        }
+    }
+
+    private Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = sender.getSession().getTransport(sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        connectionCounter.increment();
+        return transport;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Failed to close SMTP connection", e);
+            }
+        }
+        return null;
+    }
+
+    private MimeMessage toMimeMessage(OutgoingEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "utf-8");
+        helper.setText(email.content, true); // true indicates HTML
+        helper.setTo(email.to);
+        helper.setSubject(email.subject);
+        helper.setFrom(FROM);
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * Wait for the next send slot of the shared rate limit
+     */
+    private void pace() throws InterruptedException {
+        if (sendIntervalNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (rateLock) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSendNanos);
+            nextSendNanos = slot + sendIntervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void sent(OutgoingEmail email) {
+        email.done = true;
+        sentCounter.increment();
+        deliveryTimer.record(System.nanoTime() - email.queuedAt, TimeUnit.NANOSECONDS);
+        if (email.result != null) {
+            email.result.complete(null);
+        }
+    }
+
+    private void retry(OutgoingEmail email, Exception error) {
+        email.done = true;
+        email.attempts++;
+        if (email.attempts >= maxAttempts || !running) {
+            dead(email, error);
+            return;
+        }
+        retriedCounter.increment();
+        long backoffMs = retryBackoffMs << Math.min(email.attempts - 1, 20);
+        logger.warn("Sending email to {} failed (attempt {} of {}), retrying in {} ms: {}",
+                email.to, email.attempts, maxAttempts, backoffMs, error.getMessage());
+        retryScheduler.schedule(() -> {
+            email.done = false;
+            enqueue(email);
+        }, backoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void dead(OutgoingEmail email, Exception error) {
+        email.done = true;
+        deadCounter.increment();
+        if (email.result != null) {
+            email.result.completeExceptionally(error);
+            return;
+        }
+        logger.error("Giving up on email to {} ({}) after {} attempts: {}",
+                email.to, email.subject, email.attempts, error.getMessage());
+        try {
+            FailedEmail failed = new FailedEmail();
+            failed.setRecipient(email.to);
+            failed.setSubject(email.subject);
+            failed.setContent(email.content);
+            failed.setAttempts(email.attempts);
+            failed.setLastError(error.getClass().getSimpleName() + ": " + error.getMessage());
+            failedEmailRepository.save(failed);
+        } catch (RuntimeException e) {
+            logger.error("Failed to store dead letter for email to {}", email.to, e);
+        }
+    }
+
+    private static final class OutgoingEmail {
+        private final String to;
+        private final String subject;
+        private final String content;
+        private final CompletableFuture<Void> result;
+        private final long queuedAt = System.nanoTime();
+        private int attempts;
+        private boolean done;
+
+        private OutgoingEmail(String to, String subject, String content, CompletableFuture<Void> result) {
+            this.to = to;
+            this.subject = subject;
+            this.content = content;
+            this.result = result;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.verzol.stayhub.module.message.controller;
 import java.security.Principal;
 import java.util.List;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,9 +11,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.verzol.stayhub.module.message.dto.ConversationDTO;
 import com.verzol.stayhub.module.message.dto.MessageDTO;
+import com.verzol.stayhub.module.message.dto.MessageHistoryResponse;
+import com.verzol.stayhub.module.message.dto.MessageSyncResponse;
 import com.verzol.stayhub.module.message.service.MessageService;
 import com.verzol.stayhub.module.user.entity.User;
 import com.verzol.stayhub.module.user.repository.UserRepository;
@@ -36,6 +42,10 @@ public class MessageController {
         return ResponseEntity.ok(message);
     }
 
+    /**
+     * Full history in one response, every message with both profiles.
+     * Prefer /conversation/{otherUserId}/history for long conversations.
+     */
     @GetMapping("/conversation/{otherUserId}")
     public ResponseEntity<List<MessageDTO>> getConversation(@PathVariable Long otherUserId, Principal principal) {
         User currentUser = userRepository.findByEmail(principal.getName())
@@ -45,6 +55,45 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * Windowed history: the latest messages, then older windows with the cursor
+     * GET /api/v1/messages/conversation/{otherUserId}/history?size=50&cursor=...
+     */
+    @GetMapping("/conversation/{otherUserId}/history")
+    public ResponseEntity<MessageHistoryResponse> getConversationHistory(
+            @PathVariable Long otherUserId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            Principal principal) {
+        User currentUser = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(messageService.getConversationHistory(currentUser.getId(), otherUserId, cursor, size));
+    }
+
+    /**
+     * Delta sync: only the messages after the last one the client has
+     * GET /api/v1/messages/conversation/{otherUserId}/sync?after={lastMessageId}&size=100
+     * 304 Not Modified (no body) when the conversation has not changed since the ETag sent in If-None-Match
+     */
+    @GetMapping("/conversation/{otherUserId}/sync")
+    public ResponseEntity<MessageSyncResponse> syncConversation(
+            @PathVariable Long otherUserId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int size,
+            Principal principal,
+            WebRequest request) {
+        User currentUser = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (request.checkNotModified(messageService.getConversationETag(currentUser.getId(), otherUserId))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(messageService.syncConversation(currentUser.getId(), otherUserId, after, size));
+    }
+
     @PutMapping("/{messageId}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long messageId, Principal principal) {
         User user = userRepository.findByEmail(principal.getName())
@@ -59,7 +108,16 @@ public class MessageController {
         User currentUser = userRepository.findByEmail(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        messageService.markConversationAsRead(currentUser.getId(), otherUserId, currentUser.getId());
+        messageService.markConversationAsRead(currentUser.getId(), otherUserId);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/read-all")
+    public ResponseEntity<Void> markAllAsRead(Principal principal) {
+        User user = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        messageService.markAllAsRead(user.getId());
         return ResponseEntity.ok().build();
     }
 
@@ -72,44 +130,40 @@ public class MessageController {
         return ResponseEntity.ok(count);
     }
 
+    /**
+     * Inbox: one entry per conversation, ready to render, most recent activity first
+     */
     @GetMapping("/conversations")
-    public ResponseEntity<List<Long>> getConversationPartners(Principal principal) {
+    public ResponseEntity<List<ConversationDTO>> getConversations(Principal principal) {
         User user = userRepository.findByEmail(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Long> partners = messageService.getConversationPartners(user.getId());
-        return ResponseEntity.ok(partners);
+        List<ConversationDTO> conversations = messageService.getConversations(user.getId());
+        return ResponseEntity.ok(conversations);
     }
 
     /**
      * Lightweight endpoint to check if there are new messages in a conversation
      * Returns true if there are new messages since lastMessageId
+     * Superseded by the push channel (/ws, /user/queue/messages); kept for older clients
      */
     @GetMapping("/conversation/{otherUserId}/check-update")
     public ResponseEntity<CheckUpdateResponse> checkConversationUpdate(
             @PathVariable Long otherUserId,
-            @org.springframework.web.bind.annotation.RequestParam(required = false) Long lastMessageId,
+            @RequestParam(required = false) Long lastMessageId,
             Principal principal) {
         User currentUser = userRepository.findByEmail(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<MessageDTO> messages = messageService.getConversation(currentUser.getId(), otherUserId);
+        Long latestMessageId = messageService.getLatestMessageId(currentUser.getId(), otherUserId);
         
-        // Check if there are new messages
-        boolean hasUpdate = false;
-        if (lastMessageId != null && !messages.isEmpty()) {
-            // Check if the latest message ID is different from lastMessageId
-            Long latestMessageId = messages.get(messages.size() - 1).getId();
-            hasUpdate = !latestMessageId.equals(lastMessageId);
-        } else if (!messages.isEmpty()) {
-            // If no lastMessageId provided, consider it as an update
-            hasUpdate = true;
-        }
+        // Check if there are new messages (no lastMessageId = any message is an update)
+        boolean hasUpdate = latestMessageId != null && !latestMessageId.equals(lastMessageId);
         
         // Also check unread count
         Long unreadCount = messageService.getUnreadCount(currentUser.getId());
         
-        return ResponseEntity.ok(new CheckUpdateResponse(hasUpdate, unreadCount, messages.isEmpty() ? null : messages.get(messages.size() - 1).getId()));
+        return ResponseEntity.ok(new CheckUpdateResponse(hasUpdate, unreadCount, latestMessageId));
     }
 
     // Response DTO
@@ -0,0 +1,28 @@
+package com.verzol.stayhub.module.message.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One inbox entry, seen from the current user: who the other side is, the last message and how
+ * many messages the current user has not read
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConversationDTO {
+    private Long id;
+    private Long otherUserId;
+    private String otherUserName;
+    private String otherUserAvatar;
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private LocalDateTime lastMessageAt;
+    private Integer unreadCount;
+}
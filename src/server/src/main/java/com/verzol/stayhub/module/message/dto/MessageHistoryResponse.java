@@ -0,0 +1,24 @@
+package com.verzol.stayhub.module.message.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One window of a conversation's history, oldest first. The first page holds the latest messages;
+ * pass {@code nextCursor} back as {@code cursor} to load the older ones (null when there are none).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MessageHistoryResponse {
+    private ParticipantDTO currentUser;
+    private ParticipantDTO otherUser;
+    private List<MessageItemDTO> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
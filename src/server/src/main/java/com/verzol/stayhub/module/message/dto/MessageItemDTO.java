@@ -0,0 +1,24 @@
+package com.verzol.stayhub.module.message.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message of a conversation page: the receiver is the other participant, and both profiles are
+ * in the page's header (see MessageHistoryResponse)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MessageItemDTO {
+    private Long id;
+    private Long senderId;
+    private String content;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.verzol.stayhub.module.message.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Messages of a conversation newer than the last one the client has (delta sync), oldest first.
+ * Pass {@code nextAfterId} back as {@code after}; when {@code hasMore} is true, call again right away.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MessageSyncResponse {
+    private List<MessageDTO> messages;
+    private Long nextAfterId;
+    private boolean hasMore;
+    // Newest message of the caller that the other side has read: older ones are read too
+    private Long readUpToId;
+}
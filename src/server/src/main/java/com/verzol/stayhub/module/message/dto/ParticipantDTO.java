@@ -0,0 +1,19 @@
+package com.verzol.stayhub.module.message.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Profile of a conversation participant, sent once per response instead of with every message
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ParticipantDTO {
+    private Long id;
+    private String fullName;
+    private String avatarUrl;
+}
@@ -0,0 +1,82 @@
+package com.verzol.stayhub.module.message.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per pair of users who have exchanged messages: the inbox reads it instead of the
+ * messages. The pair is stored ordered (userLowId < userHighId) so it has exactly one row.
+ *
+ * Maintained by MessageService in the same transaction as the messages: sending updates the last
+ * message and increments the receiver's unread counter, reading clears / decrements it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_conversations_users", columnNames = {"user_low_id", "user_high_id"})
+}, indexes = {
+    // Inbox of a user, by last activity: the unique key covers the other side
+    @Index(name = "idx_conversations_low_last_message_at", columnList = "user_low_id, last_message_at"),
+    @Index(name = "idx_conversations_high_last_message_at", columnList = "user_high_id, last_message_at")
+})
+public class Conversation {
+
+    /** Length of lastMessagePreview */
+    public static final int PREVIEW_LENGTH = 200;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "unread_low", nullable = false)
+    @Builder.Default
+    private Integer unreadLow = 0; // messages to userLowId not read yet
+
+    @Column(name = "unread_high", nullable = false)
+    @Builder.Default
+    private Integer unreadHigh = 0; // messages to userHighId not read yet
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -19,7 +20,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    // Conversation reads (one direction per index range): latest id, sync after an id, read receipts
+    @Index(name = "idx_messages_sender_receiver_id", columnList = "sender_id, receiver_id, id"),
+    // Bulk mark-as-read of everything a user received
+    @Index(name = "idx_messages_receiver_id_is_read", columnList = "receiver_id, is_read")
+})
 public class Message {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
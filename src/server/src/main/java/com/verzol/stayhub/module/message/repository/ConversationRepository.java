@@ -0,0 +1,107 @@
+package com.verzol.stayhub.module.message.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.verzol.stayhub.module.message.entity.Conversation;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    /**
+     * Inbox of a user, most recent activity first: each row is the conversation with the other
+     * user's name and avatar
+     */
+    @Query("SELECT c, u.fullName, u.avatarUrl FROM Conversation c, User u " +
+           "WHERE (c.userLowId = :userId OR c.userHighId = :userId) " +
+           "AND u.id = CASE WHEN c.userLowId = :userId THEN c.userHighId ELSE c.userLowId END " +
+           "ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<Object[]> findInbox(@Param("userId") Long userId);
+
+    // Messages the user has not read, over all conversations
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.userLowId = :userId THEN c.unreadLow ELSE c.unreadHigh END), 0) " +
+           "FROM Conversation c WHERE c.userLowId = :userId OR c.userHighId = :userId")
+    Long sumUnread(@Param("userId") Long userId);
+
+    /**
+     * Create the conversation of a pair (low < high) if it does not exist yet - concurrently
+     * created rows are skipped
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user_low_id, user_high_id, unread_low, unread_high, created_at) " +
+           "VALUES (:low, :high, 0, 0, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("low") Long low, @Param("high") Long high, @Param("now") LocalDateTime now);
+
+    /**
+     * A message was sent: add it to the receiver's unread counter and make it the last message
+     * (unless a newer one is already recorded). Returns 0 if the conversation does not exist.
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.unreadLow = c.unreadLow + :unreadLow, " +
+           "c.unreadHigh = c.unreadHigh + :unreadHigh, " +
+           "c.lastSenderId = CASE WHEN c.lastMessageId IS NULL OR c.lastMessageId < :messageId " +
+           "THEN :senderId ELSE c.lastSenderId END, " +
+           "c.lastMessagePreview = CASE WHEN c.lastMessageId IS NULL OR c.lastMessageId < :messageId " +
+           "THEN :preview ELSE c.lastMessagePreview END, " +
+           "c.lastMessageAt = CASE WHEN c.lastMessageId IS NULL OR c.lastMessageId < :messageId " +
+           "THEN :sentAt ELSE c.lastMessageAt END, " +
+           "c.lastMessageId = CASE WHEN c.lastMessageId IS NULL OR c.lastMessageId < :messageId " +
+           "THEN :messageId ELSE c.lastMessageId END " +
+           "WHERE c.userLowId = :low AND c.userHighId = :high")
+    int recordMessage(@Param("low") Long low, @Param("high") Long high,
+                      @Param("messageId") Long messageId, @Param("senderId") Long senderId,
+                      @Param("preview") String preview, @Param("sentAt") LocalDateTime sentAt,
+                      @Param("unreadLow") int unreadLow, @Param("unreadHigh") int unreadHigh);
+
+    // The user read the whole conversation
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.unreadLow = CASE WHEN c.userLowId = :userId THEN 0 ELSE c.unreadLow END, " +
+           "c.unreadHigh = CASE WHEN c.userHighId = :userId THEN 0 ELSE c.unreadHigh END " +
+           "WHERE c.userLowId = :low AND c.userHighId = :high")
+    int clearUnread(@Param("low") Long low, @Param("high") Long high, @Param("userId") Long userId);
+
+    // The user read every message of every conversation
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.unreadLow = CASE WHEN c.userLowId = :userId THEN 0 ELSE c.unreadLow END, " +
+           "c.unreadHigh = CASE WHEN c.userHighId = :userId THEN 0 ELSE c.unreadHigh END " +
+           "WHERE (c.userLowId = :userId AND c.unreadLow > 0) OR (c.userHighId = :userId AND c.unreadHigh > 0)")
+    int clearAllUnread(@Param("userId") Long userId);
+
+    // The user read some messages of the conversation
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.unreadLow = CASE WHEN c.userLowId = :userId AND c.unreadLow > :count " +
+           "THEN c.unreadLow - :count WHEN c.userLowId = :userId THEN 0 ELSE c.unreadLow END, " +
+           "c.unreadHigh = CASE WHEN c.userHighId = :userId AND c.unreadHigh > :count " +
+           "THEN c.unreadHigh - :count WHEN c.userHighId = :userId THEN 0 ELSE c.unreadHigh END " +
+           "WHERE c.userLowId = :low AND c.userHighId = :high")
+    int decrementUnread(@Param("low") Long low, @Param("high") Long high, @Param("userId") Long userId,
+                        @Param("count") int count);
+
+    /**
+     * Create the conversations of every pair that has messages but no conversation yet (messages
+     * sent before the table existed), with their last message and unread counters
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_sender_id, " +
+           "last_message_preview, last_message_at, unread_low, unread_high, created_at) " +
+           "SELECT p.low_id, p.high_id, m.id, m.sender_id, SUBSTRING(m.content, 1, " + Conversation.PREVIEW_LENGTH + "), " +
+           "m.created_at, p.unread_low, p.unread_high, p.first_at " +
+           "FROM (SELECT LEAST(sender_id, receiver_id) AS low_id, GREATEST(sender_id, receiver_id) AS high_id, " +
+           "MAX(id) AS last_id, MIN(created_at) AS first_at, " +
+           "SUM(CASE WHEN is_read = false AND receiver_id < sender_id THEN 1 ELSE 0 END) AS unread_low, " +
+           "SUM(CASE WHEN is_read = false AND receiver_id >= sender_id THEN 1 ELSE 0 END) AS unread_high " +
+           "FROM messages GROUP BY LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id)) p " +
+           "JOIN messages m ON m.id = p.last_id " +
+           "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertMissing();
+}
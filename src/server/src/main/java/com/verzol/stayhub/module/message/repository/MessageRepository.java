@@ -2,7 +2,9 @@ package com.verzol.stayhub.module.message.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,13 +21,45 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
            "ORDER BY m.createdAt ASC")
     List<Message> findConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
 
-    // Count unread messages for a user
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiverId = :userId AND m.isRead = false")
-    Long countUnreadMessages(@Param("userId") Long userId);
+    // Messages sent in one direction before a given id, newest first - a backward scan of the
+    // (sender_id, receiver_id, id) index that stops after the page (history windows)
+    @Query("SELECT m FROM Message m WHERE m.senderId = :senderId AND m.receiverId = :receiverId " +
+           "AND m.id < :beforeId ORDER BY m.id DESC")
+    List<Message> findSentBefore(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                                 @Param("beforeId") Long beforeId, Pageable pageable);
 
-    // Get all conversation partners for a user
-    @Query("SELECT DISTINCT CASE WHEN m.senderId = :userId THEN m.receiverId ELSE m.senderId END " +
-           "FROM Message m WHERE m.senderId = :userId OR m.receiverId = :userId")
-    List<Long> findConversationPartners(@Param("userId") Long userId);
+    // Messages between two users after a given id, oldest first (delta sync)
+    @Query("SELECT m FROM Message m WHERE " +
+           "((m.senderId = :userId1 AND m.receiverId = :userId2) OR " +
+           "(m.senderId = :userId2 AND m.receiverId = :userId1)) " +
+           "AND m.id > :afterId ORDER BY m.id ASC")
+    List<Message> findConversationAfter(@Param("userId1") Long userId1, @Param("userId2") Long userId2,
+                                        @Param("afterId") Long afterId, Pageable pageable);
+
+    // Latest message id sent in one direction - read from the end of the (sender_id, receiver_id, id) index
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.senderId = :senderId AND m.receiverId = :receiverId")
+    Long findLatestSentId(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId);
+
+    // Latest message id sent in one direction that the receiver has read
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.senderId = :senderId AND m.receiverId = :receiverId " +
+           "AND m.isRead = true")
+    Long findLatestReadId(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId);
+
+    // Mark every message from sender to receiver read in one statement; returns how many were unread
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.senderId = :senderId AND m.receiverId = :receiverId " +
+           "AND m.isRead = false")
+    int markConversationRead(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId);
+
+    // Mark every message the user received read in one statement; returns how many were unread
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.receiverId = :receiverId AND m.isRead = false")
+    int markAllReadForReceiver(@Param("receiverId") Long receiverId);
+
+    // Mark one message read if it is still unread; returns 1 if it was
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.id = :messageId AND m.receiverId = :receiverId " +
+           "AND m.isRead = false")
+    int markReadIfUnread(@Param("messageId") Long messageId, @Param("receiverId") Long receiverId);
 }
 
@@ -0,0 +1,136 @@
+package com.verzol.stayhub.module.message.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.verzol.stayhub.module.message.dto.ConversationDTO;
+import com.verzol.stayhub.module.message.entity.Conversation;
+import com.verzol.stayhub.module.message.entity.Message;
+import com.verzol.stayhub.module.message.repository.ConversationRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains the conversations table (one row per pair of users: last message, unread counters)
+ * and reads the inbox from it.
+ *
+ * Called by MessageService inside its transactions, so a conversation never disagrees with its
+ * messages. Readers update the conversation row before the messages: a message sent meanwhile
+ * either waits for the read to commit (and is counted as unread after it) or was committed before
+ * (and is marked read with the others).
+ */
+@Service
+@RequiredArgsConstructor
+public class ConversationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+
+    private final ConversationRepository conversationRepository;
+
+    /**
+     * The message was just saved: record it as the last message and count it as unread for its
+     * receiver, creating the conversation on the pair's first message
+     */
+    @Transactional
+    public void messageSent(Message message) {
+        Long senderId = message.getSenderId();
+        Long receiverId = message.getReceiverId();
+        Long low = Math.min(senderId, receiverId);
+        Long high = Math.max(senderId, receiverId);
+        int unreadLow = receiverId < senderId ? 1 : 0;
+        String preview = preview(message.getContent());
+
+        if (conversationRepository.recordMessage(low, high, message.getId(), senderId, preview,
+                message.getCreatedAt(), unreadLow, 1 - unreadLow) == 0) {
+            conversationRepository.insertIfAbsent(low, high, LocalDateTime.now());
+            conversationRepository.recordMessage(low, high, message.getId(), senderId, preview,
+                    message.getCreatedAt(), unreadLow, 1 - unreadLow);
+        }
+    }
+
+    /**
+     * The user read every message of the conversation with otherUserId
+     */
+    @Transactional
+    public void conversationRead(Long userId, Long otherUserId) {
+        conversationRepository.clearUnread(Math.min(userId, otherUserId), Math.max(userId, otherUserId), userId);
+    }
+
+    /**
+     * The user read every message of every conversation
+     */
+    @Transactional
+    public void allRead(Long userId) {
+        conversationRepository.clearAllUnread(userId);
+    }
+
+    /**
+     * The user read count more messages from otherUserId
+     */
+    @Transactional
+    public void messagesRead(Long userId, Long otherUserId, int count) {
+        if (count > 0) {
+            conversationRepository.decrementUnread(Math.min(userId, otherUserId), Math.max(userId, otherUserId),
+                    userId, count);
+        }
+    }
+
+    /**
+     * Inbox of the user, most recent activity first - one query, no per-conversation lookups
+     */
+    public List<ConversationDTO> getInbox(Long userId) {
+        return conversationRepository.findInbox(userId).stream()
+                .map(row -> {
+                    Conversation conversation = (Conversation) row[0];
+                    boolean low = conversation.getUserLowId().equals(userId);
+                    return ConversationDTO.builder()
+                            .id(conversation.getId())
+                            .otherUserId(low ? conversation.getUserHighId() : conversation.getUserLowId())
+                            .otherUserName((String) row[1])
+                            .otherUserAvatar((String) row[2])
+                            .lastMessageId(conversation.getLastMessageId())
+                            .lastSenderId(conversation.getLastSenderId())
+                            .lastMessagePreview(conversation.getLastMessagePreview())
+                            .lastMessageAt(conversation.getLastMessageAt())
+                            .unreadCount(low ? conversation.getUnreadLow() : conversation.getUnreadHigh())
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Messages the user has not read, over all conversations
+     */
+    public Long getUnreadCount(Long userId) {
+        return conversationRepository.sumUnread(userId);
+    }
+
+    /**
+     * First start with the conversations table: create the conversations of the existing messages
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (conversationRepository.count() > 0) {
+            return;
+        }
+        int rows = conversationRepository.insertMissing();
+        if (rows > 0) {
+            logger.info("Conversations created from existing messages: {}", rows);
+        }
+    }
+
+    private static String preview(String content) {
+        if (content == null || content.length() <= Conversation.PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, Conversation.PREVIEW_LENGTH - 1) + "…";
+    }
+}
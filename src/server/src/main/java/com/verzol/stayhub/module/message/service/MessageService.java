@@ -1,17 +1,28 @@
 package com.verzol.stayhub.module.message.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.verzol.stayhub.common.service.PushService;
+import com.verzol.stayhub.module.message.dto.ConversationDTO;
 import com.verzol.stayhub.module.message.dto.MessageDTO;
+import com.verzol.stayhub.module.message.dto.MessageHistoryResponse;
+import com.verzol.stayhub.module.message.dto.MessageItemDTO;
+import com.verzol.stayhub.module.message.dto.ParticipantDTO;
+import com.verzol.stayhub.module.message.dto.MessageSyncResponse;
 import com.verzol.stayhub.module.message.entity.Message;
 import com.verzol.stayhub.module.message.repository.MessageRepository;
 import com.verzol.stayhub.module.notification.service.NotificationService;
 import com.verzol.stayhub.module.user.entity.User;
 import com.verzol.stayhub.module.user.repository.UserRepository;
+import com.verzol.stayhub.util.Cursor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,9 +30,15 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MessageService {
 
+    private static final int MAX_SYNC_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String MESSAGE_CURSOR = "message";
+
     private final MessageRepository messageRepository;
+    private final ConversationService conversationService;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final PushService pushService;
 
     @Transactional
     public MessageDTO sendMessage(Long senderId, Long receiverId, String content) {
@@ -38,7 +55,11 @@ public class MessageService {
                 .build();
 
         Message saved = messageRepository.save(message);
+        conversationService.messageSent(saved);
         MessageDTO messageDTO = mapToDTO(saved, sender, receiver);
+        // Both sides: the sender's other tabs and devices show it too
+        pushService.publish(receiverId, PushService.MESSAGES, messageDTO);
+        pushService.publish(senderId, PushService.MESSAGES, messageDTO);
         
         // Send notification to receiver with senderId as relatedUserId
         try {
@@ -58,7 +79,97 @@ public class MessageService {
     }
 
     public List<MessageDTO> getConversation(Long userId1, Long userId2) {
-        List<Message> messages = messageRepository.findConversation(userId1, userId2);
+        return mapConversation(messageRepository.findConversation(userId1, userId2), userId1, userId2);
+    }
+
+    /**
+     * A window of the conversation: the latest size messages, or with a cursor the size messages
+     * before the previous window. The participants' profiles are sent once, not per message.
+     */
+    public MessageHistoryResponse getConversationHistory(Long userId, Long otherUserId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String[] keys = Cursor.decode(cursor, MESSAGE_CURSOR, 1);
+        Long beforeId = keys == null ? Long.MAX_VALUE : Cursor.parse(keys[0], Long::valueOf);
+
+        User currentUser = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
+        User otherUser = userRepository.findById(otherUserId)
+                .orElseThrow(() -> new RuntimeException("User not found: " + otherUserId));
+
+        // The window is within the latest limit + 1 messages of each direction: one short index
+        // scan each, merged here, instead of sorting the whole conversation
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Message> rows = new ArrayList<>(messageRepository.findSentBefore(userId, otherUserId, beforeId, page));
+        if (!otherUserId.equals(userId)) {
+            rows.addAll(messageRepository.findSentBefore(otherUserId, userId, beforeId, page));
+        }
+        rows.sort(Comparator.comparing(Message::getId).reversed());
+        boolean hasNext = rows.size() > limit;
+        // Newest first to take the window from the end; returned oldest first
+        List<Message> window = new ArrayList<>(hasNext ? rows.subList(0, limit) : rows);
+        Collections.reverse(window);
+
+        return MessageHistoryResponse.builder()
+                .currentUser(toParticipant(currentUser))
+                .otherUser(toParticipant(otherUser))
+                .content(window.stream().map(MessageService::toItem).toList())
+                .nextCursor(hasNext ? Cursor.encode(MESSAGE_CURSOR, window.get(0).getId()) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static ParticipantDTO toParticipant(User user) {
+        return ParticipantDTO.builder()
+                .id(user.getId())
+                .fullName(user.getFullName())
+                .avatarUrl(user.getAvatarUrl())
+                .build();
+    }
+
+    private static MessageItemDTO toItem(Message message) {
+        return MessageItemDTO.builder()
+                .id(message.getId())
+                .senderId(message.getSenderId())
+                .content(message.getContent())
+                .isRead(message.getIsRead())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Messages between the two users with an id greater than afterId, oldest first and at most
+     * size of them - only what the client does not have yet, however long the conversation is
+     */
+    public MessageSyncResponse syncConversation(Long userId, Long otherUserId, long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SYNC_SIZE));
+        List<Message> rows = messageRepository.findConversationAfter(userId, otherUserId, afterId,
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<Message> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return MessageSyncResponse.builder()
+                .messages(page.isEmpty() ? List.of() : mapConversation(page, userId, otherUserId))
+                .nextAfterId(page.isEmpty() ? afterId : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .readUpToId(messageRepository.findLatestReadId(userId, otherUserId))
+                .build();
+    }
+
+    /**
+     * ETag of the conversation as seen by userId, from index lookups only: it changes when a
+     * message is sent either way or when either side reads (messages are never edited)
+     */
+    public String getConversationETag(Long userId, Long otherUserId) {
+        return "\"" + nullToZero(getLatestMessageId(userId, otherUserId))
+                + "-" + nullToZero(messageRepository.findLatestReadId(userId, otherUserId))
+                + "-" + nullToZero(messageRepository.findLatestReadId(otherUserId, userId)) + "\"";
+    }
+
+    private static long nullToZero(Long id) {
+        return id != null ? id : 0L;
+    }
+
+    private List<MessageDTO> mapConversation(List<Message> messages, Long userId1, Long userId2) {
         User user1 = userRepository.findById(userId1)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId1));
         User user2 = userRepository.findById(userId2)
@@ -76,32 +187,57 @@ public class MessageService {
     @Transactional
     public void markAsRead(Long messageId, Long userId) {
         messageRepository.findById(messageId).ifPresent(message -> {
-            if (message.getReceiverId().equals(userId)) {
-                message.setIsRead(true);
-                messageRepository.save(message);
+            // Conditional update: only the request that actually flips it counts it as read
+            if (message.getReceiverId().equals(userId) && messageRepository.markReadIfUnread(messageId, userId) > 0) {
+                conversationService.messagesRead(userId, message.getSenderId(), 1);
             }
         });
     }
 
+    /**
+     * Mark every message otherUserId sent to the user read, with a single UPDATE.
+     * Returns how many were unread.
+     */
     @Transactional
-    public void markConversationAsRead(Long userId1, Long userId2, Long currentUserId) {
-        List<Message> unreadMessages = messageRepository.findConversation(userId1, userId2)
-                .stream()
-                .filter(msg -> msg.getReceiverId().equals(currentUserId) && !msg.getIsRead())
-                .collect(Collectors.toList());
+    public int markConversationAsRead(Long userId, Long otherUserId) {
+        // Conversation row first (see ConversationService)
+        conversationService.conversationRead(userId, otherUserId);
+        return messageRepository.markConversationRead(otherUserId, userId);
+    }
 
-        unreadMessages.forEach(msg -> {
-            msg.setIsRead(true);
-            messageRepository.save(msg);
-        });
+    /**
+     * Mark every message the user received read (all conversations), with a single UPDATE per
+     * table. Returns how many were unread.
+     */
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        conversationService.allRead(userId);
+        return messageRepository.markAllReadForReceiver(userId);
+    }
+
+    /**
+     * Id of the latest message between two users, null if none
+     */
+    public Long getLatestMessageId(Long userId1, Long userId2) {
+        // One lookup per direction: each is a single index probe, the OR form is not
+        Long sent = messageRepository.findLatestSentId(userId1, userId2);
+        Long received = messageRepository.findLatestSentId(userId2, userId1);
+        if (sent == null || received == null) {
+            return sent != null ? sent : received;
+        }
+        return Math.max(sent, received);
     }
 
     public Long getUnreadCount(Long userId) {
-        return messageRepository.countUnreadMessages(userId);
+        return conversationService.getUnreadCount(userId);
     }
 
-    public List<Long> getConversationPartners(Long userId) {
-        return messageRepository.findConversationPartners(userId);
+    /**
+     * Inbox of the user: conversations with the other user's profile, last message and unread
+     * count, most recent activity first
+     */
+    public List<ConversationDTO> getConversations(Long userId) {
+        return conversationService.getInbox(userId);
     }
 
     private MessageDTO mapToDTO(Message message, User sender, User receiver) {
@@ -1,15 +1,20 @@
 package com.verzol.stayhub.module.notification.controller;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.verzol.stayhub.module.notification.dto.NotificationSyncResponse;
 import com.verzol.stayhub.module.notification.entity.Notification;
 import com.verzol.stayhub.module.notification.service.NotificationService;
 import com.verzol.stayhub.module.user.entity.User;
@@ -34,6 +39,28 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    /**
+     * Delta sync: only the notifications after the last one the client has
+     * GET /api/v1/notifications/sync?after={lastNotificationId}&size=100
+     * 304 Not Modified (no body) when nothing was added or read since the ETag sent in If-None-Match
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<NotificationSyncResponse> syncNotifications(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int size,
+            Principal principal,
+            WebRequest request) {
+        User user = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (request.checkNotModified(notificationService.getNotificationsETag(user.getId()))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(notificationService.syncNotifications(user.getId(), after, size));
+    }
+
     @GetMapping("/unread-count")
     public ResponseEntity<Long> getUnreadCount(Principal principal) {
         User user = userRepository.findByEmail(principal.getName())
@@ -44,8 +71,11 @@ public class NotificationController {
     }
 
     @PutMapping("/{notificationId}/read")
-    public ResponseEntity<Void> markAsRead(@PathVariable Long notificationId) {
-        notificationService.markAsRead(notificationId);
+    public ResponseEntity<Void> markAsRead(@PathVariable Long notificationId, Principal principal) {
+        User user = userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        notificationService.markAsRead(notificationId, user.getId());
         return ResponseEntity.ok().build();
     }
 
@@ -61,6 +91,7 @@ public class NotificationController {
     /**
      * Lightweight endpoint to check if there are new notifications
      * Returns true if unread count has changed or new notifications exist
+     * Superseded by the push channel (/ws, /user/queue/notifications); kept for older clients
      */
     @GetMapping("/check-update")
     public ResponseEntity<CheckUpdateResponse> checkUpdate(Principal principal) {
@@ -68,14 +99,12 @@ public class NotificationController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Long unreadCount = notificationService.getUnreadCount(user.getId());
-        List<Notification> notifications = notificationService.getUserNotifications(user.getId());
         
         // Get last notification timestamp
-        String lastNotificationTime = notifications.isEmpty() 
-            ? null 
-            : notifications.get(0).getCreatedAt().toString();
+        LocalDateTime lastNotificationTime = notificationService.getLatestNotificationTime(user.getId());
 
-        return ResponseEntity.ok(new CheckUpdateResponse(true, unreadCount, lastNotificationTime));
+        return ResponseEntity.ok(new CheckUpdateResponse(true, unreadCount,
+                lastNotificationTime != null ? lastNotificationTime.toString() : null));
     }
 
     // Response DTO
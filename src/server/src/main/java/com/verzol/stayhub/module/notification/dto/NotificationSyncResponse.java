@@ -0,0 +1,25 @@
+package com.verzol.stayhub.module.notification.dto;
+
+import java.util.List;
+
+import com.verzol.stayhub.module.notification.entity.Notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Notifications newer than the last one the client has (delta sync), oldest first.
+ * Pass {@code nextAfterId} back as {@code after}; when {@code hasMore} is true, call again right away.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NotificationSyncResponse {
+    private List<Notification> notifications;
+    private Long nextAfterId;
+    private boolean hasMore;
+    private Long unreadCount;
+}
@@ -1,8 +1,11 @@
 package com.verzol.stayhub.module.notification.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,8 +16,25 @@ import com.verzol.stayhub.module.notification.entity.Notification;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    Optional<Notification> findFirstByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Notifications after a given id, oldest first (delta sync)
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    @Query("SELECT MAX(n.id) FROM Notification n WHERE n.userId = :userId")
+    Long findLatestId(@Param("userId") Long userId);
     
-    List<Notification> findByUserIdAndIsReadFalse(Long userId);
+    // Mark one of the user's notifications read; returns 1 if it was unread
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :notificationId AND n.userId = :userId " +
+           "AND n.isRead = false")
+    int markRead(@Param("notificationId") Long notificationId, @Param("userId") Long userId);
+
+    // Mark all of the user's notifications read in one statement; returns how many were unread
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
     
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.userId = :userId AND n.isRead = false")
     Long countByUserIdAndIsReadFalse(@Param("userId") Long userId);
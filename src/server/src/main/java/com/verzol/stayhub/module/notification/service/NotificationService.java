@@ -1,10 +1,14 @@
 package com.verzol.stayhub.module.notification.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.verzol.stayhub.common.service.PushService;
+import com.verzol.stayhub.module.notification.dto.NotificationSyncResponse;
 import com.verzol.stayhub.module.notification.entity.Notification;
 import com.verzol.stayhub.module.notification.repository.NotificationRepository;
 
@@ -14,7 +18,10 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class NotificationService {
 
+    private static final int MAX_SYNC_SIZE = 200;
+
     private final NotificationRepository notificationRepository;
+    private final PushService pushService;
 
     @Transactional
     public Notification sendNotification(Long userId, String title, String message, String type) {
@@ -26,7 +33,7 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        return notificationRepository.save(notification);
+        return save(notification);
     }
 
     @Transactional
@@ -40,7 +47,16 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        return notificationRepository.save(notification);
+        return save(notification);
+    }
+
+    /**
+     * Store the notification and push it to the user's open sessions
+     */
+    private Notification save(Notification notification) {
+        Notification saved = notificationRepository.save(notification);
+        pushService.publish(saved.getUserId(), PushService.NOTIFICATIONS, saved);
+        return saved;
     }
 
     @Transactional
@@ -61,21 +77,57 @@ public class NotificationService {
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    /**
+     * Notifications of the user with an id greater than afterId, oldest first and at most size of
+     * them, with the current unread count (read flags of older ones may have changed)
+     */
+    public NotificationSyncResponse syncNotifications(Long userId, long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SYNC_SIZE));
+        List<Notification> rows = notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                userId, afterId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<Notification> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return NotificationSyncResponse.builder()
+                .notifications(page)
+                .nextAfterId(page.isEmpty() ? afterId : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .unreadCount(getUnreadCount(userId))
+                .build();
+    }
+
+    /**
+     * ETag of the user's notifications: changes when one is added or read
+     */
+    public String getNotificationsETag(Long userId) {
+        Long latestId = notificationRepository.findLatestId(userId);
+        return "\"" + (latestId != null ? latestId : 0L) + "-" + getUnreadCount(userId) + "\"";
+    }
+
+    /**
+     * Mark one of the user's notifications read. Returns false if it was already read (or is not
+     * the user's).
+     */
     @Transactional
-    public void markAsRead(Long notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(notification -> {
-            notification.setIsRead(true);
-            notificationRepository.save(notification);
-        });
+    public boolean markAsRead(Long notificationId, Long userId) {
+        return notificationRepository.markRead(notificationId, userId) > 0;
     }
 
+    /**
+     * Mark all of the user's notifications read with a single UPDATE. Returns how many were unread.
+     */
     @Transactional
-    public void markAllAsRead(Long userId) {
-        List<Notification> unread = notificationRepository.findByUserIdAndIsReadFalse(userId);
-        unread.forEach(notification -> {
-            notification.setIsRead(true);
-            notificationRepository.save(notification);
-        });
+    public int markAllAsRead(Long userId) {
+        return notificationRepository.markAllRead(userId);
+    }
+
+    /**
+     * Creation time of the user's newest notification, null if none
+     */
+    public LocalDateTime getLatestNotificationTime(Long userId) {
+        return notificationRepository.findFirstByUserIdOrderByCreatedAtDesc(userId)
+                .map(Notification::getCreatedAt)
+                .orElse(null);
     }
 
     public Long getUnreadCount(Long userId) {
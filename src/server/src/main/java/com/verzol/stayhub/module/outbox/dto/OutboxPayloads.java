@@ -0,0 +1,39 @@
+package com.verzol.stayhub.module.outbox.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JSON payloads of outbox events. Everything the side effect needs is captured when the event is
+ * recorded, so delivery never reads the (possibly changed) booking again.
+ */
+public class OutboxPayloads {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NotificationPayload {
+        private Long userId;
+        private String title;
+        private String message;
+        private String type;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InvoiceEmailPayload {
+        private String to;
+        private String guestName;
+        private String bookingId;
+        private String hotelName;
+        private String roomName;
+        private String checkIn;
+        private String checkOut;
+        private Integer guests;
+        private String totalPrice;
+        private String couponCode;
+        private String frontendUrl;
+    }
+}
@@ -0,0 +1,72 @@
+package com.verzol.stayhub.module.outbox.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.verzol.stayhub.module.outbox.entity.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Record a PENDING event unless one with the same key exists - a concurrent insert of the
+     * same key is skipped instead of failing the caller's transaction. idempotency_key is the
+     * only unique column besides the generated id, so it is the only conflict possible.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO outbox_events (idempotency_key, event_type, payload, status, attempts, " +
+           "next_attempt_at, created_at) VALUES (:key, :eventType, :payload, 'PENDING', 0, :now, :now) " +
+           "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String idempotencyKey, @Param("eventType") String eventType,
+                       @Param("payload") String payload, @Param("now") LocalDateTime now);
+
+    /**
+     * Ids of events due for delivery (pending, or claimed by a dispatcher whose claim expired), oldest first
+     */
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status IN ('PENDING', 'PROCESSING') AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt, e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim the events that are still due for this dispatcher until claimedUntil.
+     * Another dispatcher claiming the same ids concurrently gets the rest (or none).
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING', e.claimToken = :token, e.nextAttemptAt = :claimedUntil, " +
+           "e.attempts = e.attempts + 1 " +
+           "WHERE e.id IN :ids AND e.status IN ('PENDING', 'PROCESSING') AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    List<OutboxEvent> findByClaimTokenOrderById(String claimToken);
+
+    /**
+     * Mark a claimed event delivered; no-op if the claim was lost in the meantime
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'SENT', e.processedAt = :now, e.claimToken = NULL, e.lastError = NULL " +
+           "WHERE e.id = :id AND e.claimToken = :token")
+    int markSent(@Param("id") Long id, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    /**
+     * Put a claimed event back for a later attempt (status PENDING) or give up on it (status DEAD)
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error, " +
+           "e.claimToken = NULL WHERE e.id = :id AND e.claimToken = :token")
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("status") String status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.status IN ('PENDING', 'PROCESSING')")
+    long countUndelivered();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'SENT' AND e.processedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
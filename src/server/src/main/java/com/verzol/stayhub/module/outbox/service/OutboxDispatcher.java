@@ -0,0 +1,249 @@
+package com.verzol.stayhub.module.outbox.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verzol.stayhub.module.auth.service.EmailService;
+import com.verzol.stayhub.module.notification.service.NotificationService;
+import com.verzol.stayhub.module.outbox.dto.OutboxPayloads.InvoiceEmailPayload;
+import com.verzol.stayhub.module.outbox.dto.OutboxPayloads.NotificationPayload;
+import com.verzol.stayhub.module.outbox.entity.OutboxEvent;
+import com.verzol.stayhub.module.outbox.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background delivery of outbox events.
+ *
+ * Each sweep claims due events in batches (a claim expires after claim-timeout, so events of a
+ * dispatcher that died are picked up again) and delivers them one by one:
+ * <ul>
+ *   <li>notifications are inserted in the same transaction that marks the event SENT - exactly once</li>
+ *   <li>emails of a batch are handed to the mail pipeline together and each is marked SENT once the
+ *       pipeline has sent it - at least once</li>
+ * </ul>
+ * A failed event is retried with exponential backoff and parked as DEAD after max-attempts.
+ * Exposes the undelivered backlog as stayhub.outbox.backlog.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+    private final Timer sweepTimer;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Value("${app.outbox.max-retry-backoff-ms:3600000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${app.outbox.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            NotificationService notificationService,
+                            EmailService emailService,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("stayhub.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events not delivered yet, as of the last sweep")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("stayhub.outbox.delivered")
+                .description("Outbox events delivered")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("stayhub.outbox.failed")
+                .description("Failed outbox delivery attempts")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("stayhub.outbox.dead")
+                .description("Outbox events given up after max-attempts")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("stayhub.outbox.sweep")
+                .description("Duration of one outbox sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.interval-ms:1000}",
+               initialDelayString = "${app.outbox.initial-delay-ms:10000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            try {
+                dispatchDue();
+                backlog.set(outboxEventRepository.countUndelivered());
+            } catch (Exception e) {
+                logger.error("Outbox sweep failed", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}",
+               initialDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeDelivered() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    /**
+     * Deliver due events batch by batch, at most maxBatches per sweep
+     *
+     * @return number of events delivered
+     */
+    public int dispatchDue() {
+        int delivered = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            String token = UUID.randomUUID().toString();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.claim(ids, token, now, now.plus(Duration.ofMillis(claimTimeoutMs))));
+            // Emails of the batch are queued together and sent by the mail pipeline in one go
+            Map<OutboxEvent, CompletableFuture<Void>> sending = new LinkedHashMap<>();
+            for (OutboxEvent event : outboxEventRepository.findByClaimTokenOrderById(token)) {
+                if (deliver(event, token, sending)) {
+                    delivered++;
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(claimTimeoutMs);
+            for (Map.Entry<OutboxEvent, CompletableFuture<Void>> entry : sending.entrySet()) {
+                if (awaitSent(entry.getKey(), token, entry.getValue(), deadline)) {
+                    delivered++;
+                }
+            }
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Deliver a notification, or start sending an email (added to sending)
+     *
+     * @return whether the event was delivered already
+     */
+    private boolean deliver(OutboxEvent event, String token, Map<OutboxEvent, CompletableFuture<Void>> sending) {
+        try {
+            switch (event.getEventType()) {
+                case OutboxService.NOTIFICATION -> {
+                    NotificationPayload payload = objectMapper.readValue(event.getPayload(), NotificationPayload.class);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // Claim lost to another dispatcher: it delivers instead
+                        if (outboxEventRepository.markSent(event.getId(), token, LocalDateTime.now()) == 1) {
+                            notificationService.sendNotification(payload.getUserId(), payload.getTitle(),
+                                    payload.getMessage(), payload.getType());
+                        }
+                    });
+                    deliveredCounter.increment();
+                    return true;
+                }
+                case OutboxService.INVOICE_EMAIL -> {
+                    InvoiceEmailPayload payload = objectMapper.readValue(event.getPayload(), InvoiceEmailPayload.class);
+                    sending.put(event, emailService.deliverInvoiceEmail(payload.getTo(), payload.getGuestName(),
+                            payload.getBookingId(), payload.getHotelName(), payload.getRoomName(), payload.getCheckIn(),
+                            payload.getCheckOut(), payload.getGuests(), payload.getTotalPrice(), payload.getCouponCode(),
+                            payload.getFrontendUrl()));
+                    return false;
+                }
+                default -> throw new IllegalStateException("Unknown outbox event type " + event.getEventType());
+            }
+        } catch (Exception e) {
+            failed(event, token, e);
+            return false;
+        }
+    }
+
+    private boolean awaitSent(OutboxEvent event, String token, CompletableFuture<Void> sent, long deadline) {
+        try {
+            sent.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markSent(event.getId(), token, LocalDateTime.now()));
+            deliveredCounter.increment();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed(event, token, e);
+            return false;
+        } catch (ExecutionException e) {
+            failed(event, token, e.getCause() instanceof Exception cause ? cause : e);
+            return false;
+        } catch (Exception e) {
+            failed(event, token, e);
+            return false;
+        }
+    }
+
+    private void failed(OutboxEvent event, String token, Exception e) {
+        failedCounter.increment();
+        int attempts = event.getAttempts();
+        boolean dead = attempts >= maxAttempts;
+        long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 20));
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(event.getId(), token,
+                dead ? OutboxEvent.DEAD : OutboxEvent.PENDING, LocalDateTime.now().plus(Duration.ofMillis(backoffMs)),
+                error));
+        if (dead) {
+            deadCounter.increment();
+            logger.error("Outbox event {} ({}) failed {} times, giving up", event.getIdempotencyKey(),
+                    event.getEventType(), attempts, e);
+        } else {
+            logger.warn("Outbox event {} ({}) failed, attempt {} of {}: {}", event.getIdempotencyKey(),
+                    event.getEventType(), attempts, maxAttempts, error);
+        }
+    }
+}
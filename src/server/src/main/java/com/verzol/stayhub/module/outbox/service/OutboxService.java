@@ -0,0 +1,51 @@
+package com.verzol.stayhub.module.outbox.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.verzol.stayhub.module.outbox.dto.OutboxPayloads.InvoiceEmailPayload;
+import com.verzol.stayhub.module.outbox.dto.OutboxPayloads.NotificationPayload;
+import com.verzol.stayhub.module.outbox.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records side effects in the outbox. Must be called inside the transaction of the state change
+ * they belong to: they are delivered only if it commits, and never make it slower or fail it.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String NOTIFICATION = "NOTIFICATION";
+    public static final String INVOICE_EMAIL = "INVOICE_EMAIL";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordNotification(String idempotencyKey, Long userId, String title, String message, String type) {
+        record(idempotencyKey, NOTIFICATION, new NotificationPayload(userId, title, message, type));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInvoiceEmail(String idempotencyKey, InvoiceEmailPayload payload) {
+        record(idempotencyKey, INVOICE_EMAIL, payload);
+    }
+
+    private void record(String idempotencyKey, String eventType, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+        // One statement: two transactions recording the same key never both insert or fail
+        outboxEventRepository.insertIfAbsent(idempotencyKey, eventType, json, LocalDateTime.now());
+    }
+}
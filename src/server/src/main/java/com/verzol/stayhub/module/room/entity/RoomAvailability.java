@@ -5,10 +5,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
+/**
+ * One inventory slot of a room type on a given night.
+ * A room with quantity N has up to N rows per date (unit 0..N-1); unit 0 also carries
+ * the host calendar settings (custom price, manual block).
+ * A PENDING_HOLD slot carries its own expiry, so readers can treat an expired hold as free
+ * without looking up the booking.
+ */
 @Entity
-@Table(name = "room_availability")
+@Table(name = "room_availability", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_room_availability_slot", columnNames = {"room_id", "date", "unit"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +34,9 @@ public class RoomAvailability {
     @Column(nullable = false)
     private LocalDate date;
 
+    @Column(columnDefinition = "integer default 0")
+    private Integer unit = 0;
+
     @Column(name = "is_available", columnDefinition = "boolean default true")
     private Boolean isAvailable;
 
@@ -35,4 +48,7 @@ public class RoomAvailability {
 
     @Column(name = "booking_id")
     private Long bookingId;
+
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
 }
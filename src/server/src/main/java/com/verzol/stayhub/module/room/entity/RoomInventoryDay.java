@@ -0,0 +1,44 @@
+package com.verzol.stayhub.module.room.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Search-side availability index: remaining units of a room type on one night.
+ * Sparse - only nights that have slot rows are stored, a missing row means fully available.
+ * Rebuilt from room_availability for the nights touched by a hold / confirm / cancel.
+ * A night sold out only because of payment holds also keeps when the first of them expires,
+ * so search sees it free again right away instead of after the expiry reaper has run.
+ */
+@Entity
+@Table(name = "room_inventory_days", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_room_inventory_days_room_date", columnNames = {"room_id", "date"})
+}, indexes = {
+    @Index(name = "idx_room_inventory_days_sold_out", columnList = "room_id, remaining, date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomInventoryDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private Integer remaining;
+
+    // Expiry of the earliest hold on a night with 0 remaining (null: no hold frees it)
+    @Column(name = "free_from")
+    private LocalDateTime freeFrom;
+}
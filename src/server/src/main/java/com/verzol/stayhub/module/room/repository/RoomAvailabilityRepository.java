@@ -1,6 +1,10 @@
 package com.verzol.stayhub.module.room.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.verzol.stayhub.module.room.entity.RoomAvailability;
 import java.time.LocalDate;
 import java.util.List;
@@ -8,7 +12,66 @@ import java.util.Optional;
 
 public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailability, Long> {
     List<RoomAvailability> findByRoomIdAndDateBetween(Long roomId, LocalDate startDate, LocalDate endDate);
-    Optional<RoomAvailability> findByRoomIdAndDate(Long roomId, LocalDate date);
+    List<RoomAvailability> findByRoomIdAndUnitAndDateBetween(Long roomId, Integer unit, LocalDate startDate, LocalDate endDate);
+    Optional<RoomAvailability> findByRoomIdAndDateAndUnit(Long roomId, LocalDate date, Integer unit);
     List<RoomAvailability> findByBookingId(Long bookingId);
     List<RoomAvailability> findByRoomId(Long roomId);
+
+    /**
+     * Load every slot of a room in [from, to), used to build the in-memory inventory calendar
+     * in a single round trip. Hold expiry is read from the slot itself, no booking join.
+     * Columns: date, unit, isAvailable, blockReason, bookingId, holdExpiresAt
+     */
+    @Query("SELECT a.date, a.unit, a.isAvailable, a.blockReason, a.bookingId, a.holdExpiresAt " +
+           "FROM RoomAvailability a " +
+           "WHERE a.roomId = :roomId AND a.date >= :from AND a.date < :to")
+    List<Object[]> findCalendarRows(@Param("roomId") Long roomId,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    /**
+     * Room and first / last night held or booked by each of the given bookings.
+     * Columns: bookingId, roomId, min date, max date
+     */
+    @Query("SELECT a.bookingId, a.roomId, MIN(a.date), MAX(a.date) FROM RoomAvailability a " +
+           "WHERE a.bookingId IN :bookingIds GROUP BY a.bookingId, a.roomId")
+    List<Object[]> findSlotRangesByBookingIds(@Param("bookingIds") List<Long> bookingIds);
+
+    /**
+     * Promote all temporary holds of a booking to permanent reservations (single UPDATE)
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability a SET a.blockReason = 'BOOKED', a.holdExpiresAt = null " +
+           "WHERE a.bookingId = :bookingId AND a.blockReason = 'PENDING_HOLD'")
+    int confirmHolds(@Param("bookingId") Long bookingId);
+
+    /**
+     * Release every slot held or booked by a booking (single UPDATE)
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability a SET a.isAvailable = true, a.bookingId = null, a.blockReason = null, " +
+           "a.holdExpiresAt = null " +
+           "WHERE a.bookingId = :bookingId")
+    int releaseByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * Release the temporary holds of a batch of bookings that have been cancelled (single UPDATE).
+     * Slots already taken over by another booking are left untouched.
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability a SET a.isAvailable = true, a.bookingId = null, a.blockReason = null, " +
+           "a.holdExpiresAt = null " +
+           "WHERE a.bookingId IN :bookingIds AND a.blockReason = 'PENDING_HOLD' " +
+           "AND a.bookingId IN (SELECT b.id FROM com.verzol.stayhub.module.booking.entity.Booking b " +
+           "WHERE b.status = 'CANCELLED')")
+    int releaseCancelledHolds(@Param("bookingIds") List<Long> bookingIds);
+
+    /**
+     * Copy the expiry of holds written before slots carried it from their booking (idempotent)
+     */
+    @Modifying
+    @Query("UPDATE RoomAvailability a SET a.holdExpiresAt = " +
+           "(SELECT b.lockedUntil FROM com.verzol.stayhub.module.booking.entity.Booking b WHERE b.id = a.bookingId) " +
+           "WHERE a.blockReason = 'PENDING_HOLD' AND a.holdExpiresAt IS NULL AND a.bookingId IS NOT NULL")
+    int backfillHoldExpiry();
 }
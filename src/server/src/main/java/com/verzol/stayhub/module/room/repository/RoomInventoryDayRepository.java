@@ -0,0 +1,69 @@
+package com.verzol.stayhub.module.room.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.verzol.stayhub.module.room.entity.RoomInventoryDay;
+
+public interface RoomInventoryDayRepository extends JpaRepository<RoomInventoryDay, Long> {
+
+    @Modifying
+    @Query("DELETE FROM RoomInventoryDay d WHERE d.roomId = :roomId AND d.date >= :from AND d.date <= :to")
+    int deleteRange(@Param("roomId") Long roomId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM RoomInventoryDay d WHERE d.date >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    /**
+     * Recompute remaining units of one room for [from, to] from its slots.
+     * A night blocked by the host has 0 left; expired holds are not counted. A night with
+     * exactly 0 left that is not blocked gets free_from = expiry of its earliest live hold.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_inventory_days (room_id, date, remaining, free_from) " +
+           "SELECT a.room_id, a.date, " +
+           "  CASE WHEN SUM(CASE WHEN a.booking_id IS NULL AND a.is_available = false THEN 1 ELSE 0 END) > 0 THEN 0 " +
+           "  ELSE GREATEST(COALESCE(MAX(r.quantity), 1) - SUM(CASE WHEN a.booking_id IS NOT NULL " +
+           "    AND (a.block_reason IS NULL OR a.block_reason <> 'PENDING_HOLD' OR a.hold_expires_at > :now) " +
+           "    THEN 1 ELSE 0 END), 0) END, " +
+           "  CASE WHEN SUM(CASE WHEN a.booking_id IS NULL AND a.is_available = false THEN 1 ELSE 0 END) = 0 " +
+           "    AND COALESCE(MAX(r.quantity), 1) = SUM(CASE WHEN a.booking_id IS NOT NULL " +
+           "    AND (a.block_reason IS NULL OR a.block_reason <> 'PENDING_HOLD' OR a.hold_expires_at > :now) " +
+           "    THEN 1 ELSE 0 END) " +
+           "  THEN MIN(CASE WHEN a.block_reason = 'PENDING_HOLD' AND a.hold_expires_at > :now " +
+           "    THEN a.hold_expires_at END) END " +
+           "FROM room_availability a JOIN rooms r ON r.id = a.room_id " +
+           "WHERE a.room_id = :roomId AND a.date >= :from AND a.date <= :to " +
+           "GROUP BY a.room_id, a.date", nativeQuery = true)
+    int insertRange(@Param("roomId") Long roomId,
+                    @Param("from") LocalDate from,
+                    @Param("to") LocalDate to,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * Same as {@link #insertRange} for every room, nights from {@code from} on
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_inventory_days (room_id, date, remaining, free_from) " +
+           "SELECT a.room_id, a.date, " +
+           "  CASE WHEN SUM(CASE WHEN a.booking_id IS NULL AND a.is_available = false THEN 1 ELSE 0 END) > 0 THEN 0 " +
+           "  ELSE GREATEST(COALESCE(MAX(r.quantity), 1) - SUM(CASE WHEN a.booking_id IS NOT NULL " +
+           "    AND (a.block_reason IS NULL OR a.block_reason <> 'PENDING_HOLD' OR a.hold_expires_at > :now) " +
+           "    THEN 1 ELSE 0 END), 0) END, " +
+           "  CASE WHEN SUM(CASE WHEN a.booking_id IS NULL AND a.is_available = false THEN 1 ELSE 0 END) = 0 " +
+           "    AND COALESCE(MAX(r.quantity), 1) = SUM(CASE WHEN a.booking_id IS NOT NULL " +
+           "    AND (a.block_reason IS NULL OR a.block_reason <> 'PENDING_HOLD' OR a.hold_expires_at > :now) " +
+           "    THEN 1 ELSE 0 END) " +
+           "  THEN MIN(CASE WHEN a.block_reason = 'PENDING_HOLD' AND a.hold_expires_at > :now " +
+           "    THEN a.hold_expires_at END) END " +
+           "FROM room_availability a JOIN rooms r ON r.id = a.room_id " +
+           "WHERE a.date >= :from " +
+           "GROUP BY a.room_id, a.date", nativeQuery = true)
+    int insertFrom(@Param("from") LocalDate from, @Param("now") LocalDateTime now);
+}
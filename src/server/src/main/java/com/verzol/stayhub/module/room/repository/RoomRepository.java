@@ -20,4 +20,31 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
      */
     @Query("SELECT COUNT(r) FROM Room r WHERE r.hotelId IN :hotelIds")
     int countByHotelIdIn(@Param("hotelIds") List<Long> hotelIds);
+
+    /**
+     * Rows of [roomId, hotelId]
+     */
+    @Query("SELECT r.id, r.hotelId FROM Room r WHERE r.id IN :roomIds")
+    List<Object[]> findHotelIdsByIds(@Param("roomIds") java.util.Collection<Long> roomIds);
+
+    /**
+     * First image (lowest id) of each room, for list views that show a single thumbnail
+     */
+    @Query("SELECT i.roomId, i.url FROM RoomImage i WHERE i.id IN " +
+           "(SELECT MIN(i2.id) FROM RoomImage i2 WHERE i2.roomId IN :roomIds GROUP BY i2.roomId)")
+    List<Object[]> findFirstImagesByRoomIds(@Param("roomIds") List<Long> roomIds);
+
+    /**
+     * Helper method to convert query results to Map (room id -> image url)
+     */
+    default java.util.Map<Long, String> findFirstImageUrlByRoomIds(List<Long> roomIds) {
+        if (roomIds == null || roomIds.isEmpty()) {
+            return new java.util.HashMap<>();
+        }
+        return findFirstImagesByRoomIds(roomIds).stream()
+            .collect(java.util.stream.Collectors.toMap(
+                row -> (Long) row[0],
+                row -> (String) row[1]
+            ));
+    }
 }
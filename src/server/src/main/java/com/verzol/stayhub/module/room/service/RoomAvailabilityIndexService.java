@@ -0,0 +1,119 @@
+package com.verzol.stayhub.module.room.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.verzol.stayhub.module.room.repository.RoomInventoryDayRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains the room_inventory_days search index.
+ *
+ * Inventory changes mark the touched (room, nights) dirty once their transaction commits;
+ * a background flush recomputes just those nights from room_availability, so search sees
+ * the change within one flush interval and the booking path pays nothing for it.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoomAvailabilityIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndexService.class);
+
+    private final RoomInventoryDayRepository roomInventoryDayRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // roomId -> [from, to] nights waiting to be recomputed
+    private final ConcurrentHashMap<Long, LocalDate[]> dirty = new ConcurrentHashMap<>();
+
+    @Value("${app.inventory.horizon-days:400}")
+    private int horizonDays;
+
+    /**
+     * Schedule nights [from, to] of a room for recomputation after the current transaction commits
+     */
+    public void markDirty(Long roomId, LocalDate from, LocalDate to) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(roomId, from, to);
+                }
+            });
+        } else {
+            merge(roomId, from, to);
+        }
+    }
+
+    /**
+     * Schedule every upcoming night of a room (quantity changed)
+     */
+    public void markRoomDirty(Long roomId) {
+        LocalDate today = LocalDate.now();
+        markDirty(roomId, today, today.plusDays(horizonDays));
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.index.flush-interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> roomIds = new ArrayList<>(dirty.keySet());
+        for (Long roomId : roomIds) {
+            LocalDate[] range = dirty.remove(roomId);
+            if (range == null) {
+                continue;
+            }
+            try {
+                refresh(roomId, range[0], range[1]);
+            } catch (Exception e) {
+                logger.warn("Failed to refresh availability index for room {}: {}", roomId, e.getMessage());
+                merge(roomId, range[0], range[1]);
+            }
+        }
+    }
+
+    /**
+     * Recompute nights [from, to] of one room
+     */
+    public void refresh(Long roomId, LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            roomInventoryDayRepository.deleteRange(roomId, from, to);
+            roomInventoryDayRepository.insertRange(roomId, from, to, LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Rebuild the whole index for upcoming nights in two set-based statements
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Integer rows = transactionTemplate.execute(status -> {
+            roomInventoryDayRepository.deleteFrom(today);
+            return roomInventoryDayRepository.insertFrom(today, LocalDateTime.now());
+        });
+        logger.info("Availability index rebuilt: {} room nights", rows);
+    }
+
+    private void merge(Long roomId, LocalDate from, LocalDate to) {
+        dirty.merge(roomId, new LocalDate[] { from, to }, (a, b) -> new LocalDate[] {
+                a[0].isBefore(b[0]) ? a[0] : b[0],
+                a[1].isAfter(b[1]) ? a[1] : b[1]
+        });
+    }
+}
@@ -0,0 +1,271 @@
+package com.verzol.stayhub.module.room.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Compact in-memory inventory calendar of one room type over a window of days.
+ *
+ * Every day is a bitmask of units (bit u = unit u is taken), so availability for a
+ * whole stay is a handful of AND operations instead of one DB lookup per night.
+ * Supports up to 64 identical units per room type (RoomService rejects larger quantities).
+ *
+ * Not thread-safe: callers must synchronize on the calendar instance.
+ */
+public class RoomInventoryCalendar {
+
+    public static final int MAX_UNITS = 64;
+
+    private final Long roomId;
+    private final int quantity;
+    private final long fullMask;
+    private final LocalDate origin;
+    private final int days;
+
+    // Units claimed by a booking (temporary hold or confirmed)
+    private final long[] taken;
+    // Units that already have a row in room_availability (UPDATE instead of INSERT)
+    private final long[] materialized;
+    // Days manually blocked by the host
+    private final BitSet blocked;
+    private final Map<Long, Claim> claims = new HashMap<>();
+
+    public RoomInventoryCalendar(Long roomId, int quantity, LocalDate origin, int days) {
+        this.roomId = roomId;
+        this.quantity = Math.max(1, Math.min(quantity, MAX_UNITS));
+        this.fullMask = this.quantity == MAX_UNITS ? -1L : (1L << this.quantity) - 1;
+        this.origin = origin;
+        this.days = days;
+        this.taken = new long[days];
+        this.materialized = new long[days];
+        this.blocked = new BitSet(days);
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Whether the stay [start, end] (inclusive, same convention as reservations) fits the window
+     */
+    public boolean covers(LocalDate start, LocalDate end) {
+        return !start.isBefore(origin) && index(end) < days;
+    }
+
+    /**
+     * Register one persisted slot while building the calendar
+     */
+    void addRow(LocalDate date, Integer unit, Boolean isAvailable, String blockReason,
+                Long bookingId, LocalDateTime holdExpiresAt, LocalDateTime now) {
+        int day = index(date);
+        int u = unit != null ? unit : 0;
+        if (day < 0 || day >= days || u >= MAX_UNITS) {
+            return;
+        }
+        materialized[day] |= 1L << u;
+
+        if (bookingId == null) {
+            if (Boolean.FALSE.equals(isAvailable)) {
+                blocked.set(day);
+            }
+            return;
+        }
+
+        boolean hold = RoomInventoryService.PENDING_HOLD.equals(blockReason);
+        if (hold && (holdExpiresAt == null || !holdExpiresAt.isAfter(now))) {
+            // Expired hold - the slot is free even if the reaper has not released it yet
+            return;
+        }
+
+        taken[day] |= 1L << u;
+        claims.computeIfAbsent(bookingId, id -> new Claim(id, hold, holdExpiresAt)).add(day, u);
+    }
+
+    /**
+     * Drop temporary holds whose payment window has passed
+     */
+    public void purgeExpired(LocalDateTime now) {
+        Iterator<Claim> it = claims.values().iterator();
+        while (it.hasNext()) {
+            Claim claim = it.next();
+            if (claim.hold && (claim.holdUntil == null || !claim.holdUntil.isAfter(now))) {
+                clear(claim);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Pick one free unit per night for the stay [start, end].
+     * Prefers keeping the guest in the same unit for the whole stay.
+     *
+     * @return unit index per night, starting at {@code start}
+     * @throws RuntimeException if any night has no free unit
+     */
+    public int[] allocate(LocalDate start, LocalDate end) {
+        int first = index(start);
+        int nights = index(end) - first + 1;
+        int[] units = new int[nights];
+
+        long common = fullMask;
+        for (int i = 0; i < nights; i++) {
+            int day = first + i;
+            if (blocked.get(day)) {
+                throw new RuntimeException("Room is not available on " + start.plusDays(i));
+            }
+            long free = ~taken[day] & fullMask;
+            if (free == 0) {
+                if (isHeld(day)) {
+                    throw new RuntimeException("Room is currently being held by another booking");
+                }
+                throw new RuntimeException("Room is already booked on " + start.plusDays(i));
+            }
+            common &= free;
+        }
+
+        for (int i = 0; i < nights; i++) {
+            long free = common != 0 ? common : ~taken[first + i] & fullMask;
+            units[i] = Long.numberOfTrailingZeros(free);
+        }
+        return units;
+    }
+
+    /**
+     * Check availability of the stay [start, end] without allocating
+     */
+    public boolean isAvailable(LocalDate start, LocalDate end) {
+        int first = index(start);
+        int last = index(end);
+        for (int day = first; day <= last; day++) {
+            if (blocked.get(day) || (~taken[day] & fullMask) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of free units on a given night
+     */
+    public int availableUnits(LocalDate date) {
+        int day = index(date);
+        if (day < 0 || day >= days || blocked.get(day)) {
+            return 0;
+        }
+        return Long.bitCount(~taken[day] & fullMask);
+    }
+
+    public boolean isMaterialized(LocalDate date, int unit) {
+        return (materialized[index(date)] & (1L << unit)) != 0;
+    }
+
+    /**
+     * Record units allocated by {@link #allocate} once they are persisted
+     */
+    public void apply(Long bookingId, LocalDate start, int[] units, boolean hold, LocalDateTime holdUntil) {
+        release(bookingId);
+        Claim claim = new Claim(bookingId, hold, holdUntil);
+        int first = index(start);
+        for (int i = 0; i < units.length; i++) {
+            int day = first + i;
+            taken[day] |= 1L << units[i];
+            materialized[day] |= 1L << units[i];
+            claim.add(day, units[i]);
+        }
+        claims.put(bookingId, claim);
+    }
+
+    /**
+     * Whether the booking currently owns slots in this calendar
+     */
+    public boolean hasClaim(Long bookingId) {
+        return claims.containsKey(bookingId);
+    }
+
+    /**
+     * Turn a temporary hold into a permanent reservation
+     */
+    public void confirm(Long bookingId) {
+        Claim claim = claims.get(bookingId);
+        if (claim != null) {
+            claim.hold = false;
+            claim.holdUntil = null;
+        }
+    }
+
+    public void release(Long bookingId) {
+        Claim claim = claims.remove(bookingId);
+        if (claim != null) {
+            clear(claim);
+        }
+    }
+
+    private boolean isHeld(int day) {
+        for (Claim claim : claims.values()) {
+            if (claim.hold && claim.covers(day)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clear(Claim claim) {
+        for (int i = 0; i < claim.size; i++) {
+            int day = claim.slots[i] / MAX_UNITS;
+            int unit = claim.slots[i] % MAX_UNITS;
+            taken[day] &= ~(1L << unit);
+        }
+    }
+
+    private int index(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(origin, date);
+    }
+
+    /**
+     * Slots owned by one booking, encoded as day * MAX_UNITS + unit
+     */
+    private static final class Claim {
+        private final Long bookingId;
+        private boolean hold;
+        private LocalDateTime holdUntil;
+        private int[] slots = new int[8];
+        private int size;
+
+        private Claim(Long bookingId, boolean hold, LocalDateTime holdUntil) {
+            this.bookingId = bookingId;
+            this.hold = hold;
+            this.holdUntil = holdUntil;
+        }
+
+        private void add(int day, int unit) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = day * MAX_UNITS + unit;
+        }
+
+        private boolean covers(int day) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] / MAX_UNITS == day) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "Claim{bookingId=" + bookingId + ", hold=" + hold + ", nights=" + size + "}";
+        }
+    }
+}
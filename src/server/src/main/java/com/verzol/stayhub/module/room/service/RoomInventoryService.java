@@ -0,0 +1,328 @@
+package com.verzol.stayhub.module.room.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.verzol.stayhub.module.room.entity.Room;
+import com.verzol.stayhub.module.room.entity.RoomAvailability;
+import com.verzol.stayhub.module.room.repository.RoomAvailabilityRepository;
+import com.verzol.stayhub.module.room.repository.RoomRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory room inventory engine.
+ *
+ * Keeps one {@link RoomInventoryCalendar} per room, loaded from room_availability in a single
+ * query, and uses it to answer availability checks and pick free units without touching the DB.
+ *
+ * The calendar is only advisory: the whole stay is claimed in one conditional UPDATE that
+ * succeeds only if every chosen slot is still free, so concurrent guests (or other instances
+ * with a stale calendar) can never both get the same slot, and no row locks are held across
+ * a per-night loop. A hold costs one round trip, two when slot rows must be created first.
+ *
+ * Holds expire lazily: each PENDING_HOLD slot stores hold_expires_at, and every reader treats a
+ * hold past that instant as free. The expiry reaper only garbage-collects them.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoomInventoryService {
+
+    static final String PENDING_HOLD = "PENDING_HOLD";
+    static final String BOOKED = "BOOKED";
+
+    private final RoomRepository roomRepository;
+    private final RoomAvailabilityRepository roomAvailabilityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomAvailabilityIndexService roomAvailabilityIndexService;
+
+    private final ConcurrentHashMap<Long, RoomInventoryCalendar> calendars = new ConcurrentHashMap<>();
+
+    @Value("${app.inventory.horizon-days:400}")
+    private int horizonDays;
+
+    @Value("${app.inventory.max-cached-rooms:5000}")
+    private int maxCachedRooms;
+
+    /**
+     * Whether a slot is a temporary hold whose payment window has passed (i.e. is actually free)
+     */
+    public static boolean isExpiredHold(RoomAvailability slot, LocalDateTime now) {
+        return PENDING_HOLD.equals(slot.getBlockReason())
+                && (slot.getHoldExpiresAt() == null || !slot.getHoldExpiresAt().isAfter(now));
+    }
+
+    /**
+     * Slots written before they carried their own hold expiry get it from the booking once
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillHoldExpiry() {
+        roomAvailabilityRepository.backfillHoldExpiry();
+    }
+
+    /**
+     * Check availability of [start, end] from memory
+     */
+    public boolean isAvailable(Long roomId, LocalDate start, LocalDate end) {
+        RoomInventoryCalendar calendar = calendarFor(roomId, start, end);
+        synchronized (calendar) {
+            calendar.purgeExpired(LocalDateTime.now());
+            return calendar.isAvailable(start, end);
+        }
+    }
+
+    /**
+     * Temporarily hold [start, end] for a PENDING booking
+     */
+    @Transactional
+    public void hold(Long roomId, Long bookingId, LocalDate start, LocalDate end, LocalDateTime holdUntil) {
+        claim(roomId, bookingId, start, end, PENDING_HOLD, holdUntil);
+    }
+
+    /**
+     * Permanently reserve [start, end] for a CONFIRMED booking.
+     * Promotes the booking's own holds in one UPDATE, or claims the dates again if the hold was lost.
+     */
+    @Transactional
+    public void book(Long roomId, Long bookingId, LocalDate start, LocalDate end) {
+        int nights = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        int promoted = roomAvailabilityRepository.confirmHolds(bookingId);
+
+        RoomInventoryCalendar calendar = calendars.get(roomId);
+        if (promoted == nights) {
+            if (calendar != null) {
+                synchronized (calendar) {
+                    if (calendar.hasClaim(bookingId)) {
+                        calendar.confirm(bookingId);
+                    } else {
+                        // Hold had already expired in memory but nobody took the slots
+                        evict(roomId);
+                    }
+                }
+            }
+            evictOnRollback(roomId);
+            roomAvailabilityIndexService.markDirty(roomId, start, end);
+            return;
+        }
+
+        // Part of the hold was lost: drop what is left and claim the whole stay again
+        if (promoted > 0) {
+            roomAvailabilityRepository.releaseByBookingId(bookingId);
+        }
+        if (calendar != null) {
+            synchronized (calendar) {
+                calendar.release(bookingId);
+            }
+        }
+        claim(roomId, bookingId, start, end, BOOKED, null);
+    }
+
+    /**
+     * Release every slot held or booked by a booking
+     */
+    @Transactional
+    public void release(Long bookingId) {
+        releaseClaims(List.of(bookingId));
+        roomAvailabilityRepository.releaseByBookingId(bookingId);
+    }
+
+    /**
+     * Release the holds of a batch of expired bookings already cancelled in this transaction.
+     * Pass only the ids the cancel really updated: a booking confirmed meanwhile keeps its claim.
+     */
+    @Transactional
+    public int releaseExpired(List<Long> bookingIds) {
+        releaseClaims(bookingIds);
+        return roomAvailabilityRepository.releaseCancelledHolds(bookingIds);
+    }
+
+    /**
+     * Drop the cached calendar of a room (quantity or host settings changed)
+     */
+    public void evict(Long roomId) {
+        calendars.remove(roomId);
+    }
+
+    private void claim(Long roomId, Long bookingId, LocalDate start, LocalDate end,
+                       String blockReason, LocalDateTime holdUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        RoomInventoryCalendar calendar = calendarFor(roomId, start, end);
+
+        // Pick units and reserve them in memory first, so threads of this instance never race
+        // each other to the DB; the JVM lock is not held during I/O
+        int[] units;
+        List<Object[]> missing = new ArrayList<>();
+        synchronized (calendar) {
+            calendar.purgeExpired(now);
+            units = calendar.allocate(start, end);
+            for (int i = 0; i < units.length; i++) {
+                LocalDate date = start.plusDays(i);
+                if (!calendar.isMaterialized(date, units[i])) {
+                    missing.add(new Object[] { date, units[i] });
+                }
+            }
+            calendar.apply(bookingId, start, units, PENDING_HOLD.equals(blockReason), holdUntil);
+        }
+        evictOnRollback(roomId);
+
+        if (!missing.isEmpty()) {
+            insertFreeSlots(roomId, missing);
+        }
+
+        int claimed = claimSlots(roomId, bookingId, start, units, blockReason, holdUntil, now);
+        if (claimed != units.length) {
+            // Another booking got there first (stale calendar) - reload it on next access
+            evict(roomId);
+            throw new RuntimeException("Room was just taken by another booking");
+        }
+        roomAvailabilityIndexService.markDirty(roomId, start, end);
+    }
+
+    /**
+     * Drop the bookings' claims from the cached calendars and mark their dates dirty in the
+     * availability index. The room of each booking is read from its slot rows (before they are
+     * released), so nothing is kept in memory per booking.
+     */
+    private void releaseClaims(List<Long> bookingIds) {
+        for (Object[] range : roomAvailabilityRepository.findSlotRangesByBookingIds(bookingIds)) {
+            Long bookingId = (Long) range[0];
+            Long roomId = (Long) range[1];
+            roomAvailabilityIndexService.markDirty(roomId, (LocalDate) range[2], (LocalDate) range[3]);
+            RoomInventoryCalendar calendar = calendars.get(roomId);
+            if (calendar != null) {
+                synchronized (calendar) {
+                    calendar.release(bookingId);
+                }
+                evictOnRollback(roomId);
+            }
+        }
+    }
+
+    /**
+     * Create free slot rows; rows created concurrently by someone else are skipped
+     */
+    private void insertFreeSlots(Long roomId, List<Object[]> slots) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO room_availability (room_id, date, unit, is_available) VALUES ");
+        List<Object> params = new ArrayList<>(slots.size() * 3);
+        for (int i = 0; i < slots.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, true)" : ", (?, ?, ?, true)");
+            params.add(roomId);
+            params.add(slots.get(i)[0]);
+            params.add(slots.get(i)[1]);
+        }
+        sql.append(" ON CONFLICT DO NOTHING");
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Claim every night of the stay in one conditional UPDATE.
+     * A slot is claimable if it is free, already ours, or a hold past its hold_expires_at,
+     * and its date is not blocked by the host. Returns the number of slots claimed,
+     * which equals the number of nights only if the whole stay was free.
+     */
+    private int claimSlots(Long roomId, Long bookingId, LocalDate start, int[] units,
+                           String blockReason, LocalDateTime holdUntil, LocalDateTime now) {
+        StringBuilder slots = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        params.add(blockReason);
+        params.add(bookingId);
+        params.add(PENDING_HOLD.equals(blockReason) ? holdUntil : null);
+        params.add(roomId);
+        for (int i = 0; i < units.length; i++) {
+            slots.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+            params.add(start.plusDays(i));
+            params.add(units[i]);
+        }
+        params.add(bookingId);
+        params.add(now);
+
+        String sql = "UPDATE room_availability SET is_available = false, block_reason = ?, booking_id = ?, " +
+                "hold_expires_at = ? " +
+                "WHERE room_id = ? AND (date, unit) IN (" + slots + ") " +
+                "AND ((booking_id IS NULL AND (is_available IS NULL OR is_available = true)) " +
+                "  OR booking_id = ? " +
+                "  OR (block_reason = 'PENDING_HOLD' AND (hold_expires_at IS NULL OR hold_expires_at <= ?))) " +
+                "AND NOT EXISTS (" +
+                "  SELECT 1 FROM room_availability h WHERE h.room_id = room_availability.room_id " +
+                "  AND h.date = room_availability.date AND h.booking_id IS NULL AND h.is_available = false)";
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    private RoomInventoryCalendar calendarFor(Long roomId, LocalDate start, LocalDate end) {
+        while (true) {
+            RoomInventoryCalendar calendar = calendars.get(roomId);
+            if (calendar != null && calendar.covers(start, end)) {
+                return calendar;
+            }
+            if (calendar == null && calendars.size() >= maxCachedRooms) {
+                Iterator<Long> it = calendars.keySet().iterator();
+                if (it.hasNext()) {
+                    calendars.remove(it.next());
+                }
+            }
+            // Load outside the map, so the DB read never blocks other rooms of the same bin;
+            // if another thread installed a calendar meanwhile, retry with theirs
+            RoomInventoryCalendar loaded = load(roomId, start, end);
+            if (calendar == null
+                    ? calendars.putIfAbsent(roomId, loaded) == null
+                    : calendars.replace(roomId, calendar, loaded)) {
+                return loaded;
+            }
+        }
+    }
+
+    private RoomInventoryCalendar load(Long roomId, LocalDate start, LocalDate end) {
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        int quantity = room.getQuantity() != null && room.getQuantity() > 0 ? room.getQuantity() : 1;
+
+        LocalDate today = LocalDate.now();
+        LocalDate from = start.isBefore(today) ? start : today;
+        LocalDate to = today.plusDays(horizonDays);
+        if (!end.isBefore(to)) {
+            to = end.plusDays(1);
+        }
+
+        RoomInventoryCalendar calendar = new RoomInventoryCalendar(
+                roomId, quantity, from, (int) ChronoUnit.DAYS.between(from, to));
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : roomAvailabilityRepository.findCalendarRows(roomId, from, to)) {
+            calendar.addRow((LocalDate) row[0], (Integer) row[1], (Boolean) row[2], (String) row[3],
+                    (Long) row[4], (LocalDateTime) row[5], now);
+        }
+        return calendar;
+    }
+
+    /**
+     * The calendar is updated before commit; if the transaction rolls back, reload it from DB
+     */
+    private void evictOnRollback(Long roomId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(roomId);
+                }
+            }
+        });
+    }
+}
@@ -12,10 +12,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.verzol.stayhub.module.amenity.entity.Amenity;
 import com.verzol.stayhub.module.amenity.repository.AmenityRepository;
-import com.verzol.stayhub.module.booking.entity.Booking;
-import com.verzol.stayhub.module.booking.repository.BookingRepository;
-
 import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+import com.verzol.stayhub.module.hotel.service.HotelPriceService;
 import com.verzol.stayhub.module.room.dto.RoomDTO;
 import com.verzol.stayhub.module.room.entity.Room;
 import com.verzol.stayhub.module.room.entity.RoomAvailability;
@@ -32,7 +30,9 @@ public class RoomService {
     private final HotelRepository hotelRepository;
     private final AmenityRepository amenityRepository;
     private final RoomAvailabilityRepository roomAvailabilityRepository;
-    private final BookingRepository bookingRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final RoomAvailabilityIndexService roomAvailabilityIndexService;
+    private final HotelPriceService hotelPriceService;
 
     @Transactional
     public Room createRoom(Long hotelId, RoomDTO dto) {
@@ -42,7 +42,9 @@ public class RoomService {
         Room room = new Room();
         room.setHotelId(hotelId);
         mapDtoToEntity(dto, room);
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        hotelPriceService.refreshHotel(hotelId);
+        return saved;
     }
 
     @Transactional
@@ -51,7 +53,11 @@ public class RoomService {
                 .orElseThrow(() -> new RuntimeException("Room not found"));
         
         mapDtoToEntity(dto, room);
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        roomInventoryService.evict(id);
+        roomAvailabilityIndexService.markRoomDirty(id);
+        hotelPriceService.refreshHotel(saved.getHotelId());
+        return saved;
     }
 
     public List<Room> getHotelRooms(Long hotelId) {
@@ -60,12 +66,32 @@ public class RoomService {
     }
 
     public List<RoomAvailability> getAvailability(Long roomId, LocalDate start, LocalDate end) {
-        return roomAvailabilityRepository.findByRoomIdAndDateBetween(roomId, start, end);
+        // Unit 0 carries the host calendar (custom price / manual block)
+        // Expired holds are shown as free without waiting for the reaper
+        LocalDateTime now = LocalDateTime.now();
+        return roomAvailabilityRepository.findByRoomIdAndUnitAndDateBetween(roomId, 0, start, end).stream()
+                .map(slot -> RoomInventoryService.isExpiredHold(slot, now) ? freeCopy(slot) : slot)
+                .toList();
+    }
+
+    /**
+     * Detached copy of a slot shown as free, keeping the host's custom price
+     * (the managed entity itself is left untouched)
+     */
+    private static RoomAvailability freeCopy(RoomAvailability slot) {
+        RoomAvailability free = new RoomAvailability();
+        free.setId(slot.getId());
+        free.setRoomId(slot.getRoomId());
+        free.setDate(slot.getDate());
+        free.setUnit(slot.getUnit());
+        free.setIsAvailable(true);
+        free.setCustomPrice(slot.getCustomPrice());
+        return free;
     }
 
     @Transactional
     public void updateAvailability(Long roomId, LocalDate date, Boolean isAvailable, BigDecimal customPrice) {
-        RoomAvailability availability = roomAvailabilityRepository.findByRoomIdAndDate(roomId, date)
+        RoomAvailability availability = roomAvailabilityRepository.findByRoomIdAndDateAndUnit(roomId, date, 0)
                 .orElse(new RoomAvailability());
         
         if (availability.getId() == null) {
@@ -77,62 +103,20 @@ public class RoomService {
         availability.setCustomPrice(customPrice);
         
         roomAvailabilityRepository.save(availability);
+        roomInventoryService.evict(roomId);
+        roomAvailabilityIndexService.markDirty(roomId, date, date);
+        roomRepository.findById(roomId)
+                .ifPresent(room -> hotelPriceService.refreshNight(room.getHotelId(), date));
     }
 
     /**
      * Reserve room temporarily for PENDING bookings (temporary hold during payment)
      * Similar to how Booking.com/Agoda hold rooms during payment process
+     * Availability is checked against the in-memory inventory calendar and written as one batch
      */
     @Transactional
     public void reserveDatesTemporary(Long roomId, Long bookingId, LocalDate start, LocalDate end, LocalDateTime holdUntil) {
-        List<LocalDate> dates = start.datesUntil(end.plusDays(1)).collect(Collectors.toList());
-        for (LocalDate date : dates) {
-            RoomAvailability availability = roomAvailabilityRepository.findByRoomIdAndDate(roomId, date)
-                    .orElse(new RoomAvailability());
-            
-            if (availability.getId() == null) {
-                availability.setRoomId(roomId);
-                availability.setDate(date);
-            }
-
-            // Check if room is already booked by CONFIRMED booking
-            if (availability.getBookingId() != null && 
-                (availability.getBlockReason() == null || !"PENDING_HOLD".equals(availability.getBlockReason()))) {
-                 throw new RuntimeException("Room is already booked on " + date);
-            }
-            
-            // If there's a PENDING_HOLD, check if it's expired and clean it up
-            if (availability.getBookingId() != null && "PENDING_HOLD".equals(availability.getBlockReason())) {
-                Booking existingBooking = bookingRepository.findById(availability.getBookingId()).orElse(null);
-                if (existingBooking != null && existingBooking.getLockedUntil() != null) {
-                    // Check if the existing PENDING booking has expired
-                    if (existingBooking.getLockedUntil().isBefore(LocalDateTime.now()) || 
-                        !"PENDING".equals(existingBooking.getStatus())) {
-                        // Expired or not PENDING anymore - release this hold
-                        availability.setIsAvailable(true);
-                        availability.setBookingId(null);
-                        availability.setBlockReason(null);
-                    } else {
-                        // Valid PENDING_HOLD still active - room is taken
-                        throw new RuntimeException("Room is currently being held by another booking");
-                    }
-                }
-            }
-            
-            // Check if room is blocked by host (isAvailable is explicitly false)
-            Boolean isAvailable = availability.getIsAvailable();
-            if (isAvailable != null && !isAvailable && availability.getBookingId() == null) {
-                 // Already blocked by host
-                 throw new RuntimeException("Room is not available on " + date);
-            }
-
-            // Reserve the room temporarily (will be confirmed after payment)
-            availability.setIsAvailable(false);
-            availability.setBookingId(bookingId);
-            availability.setBlockReason("PENDING_HOLD"); // Mark as temporary hold
-            
-            roomAvailabilityRepository.save(availability);
-        }
+        roomInventoryService.hold(roomId, bookingId, start, end, holdUntil);
     }
 
     /**
@@ -140,53 +124,19 @@ public class RoomService {
      */
     @Transactional
     public void reserveDates(Long roomId, Long bookingId, LocalDate start, LocalDate end) {
-        List<LocalDate> dates = start.datesUntil(end.plusDays(1)).collect(Collectors.toList());
-        for (LocalDate date : dates) {
-            RoomAvailability availability = roomAvailabilityRepository.findByRoomIdAndDate(roomId, date)
-                    .orElse(new RoomAvailability());
-            
-            if (availability.getId() == null) {
-                availability.setRoomId(roomId);
-                availability.setDate(date);
-            }
-
-            // If already reserved by same booking (from PENDING_HOLD), just update status
-            if (availability.getBookingId() != null && availability.getBookingId().equals(bookingId)) {
-                availability.setBlockReason("BOOKED");
-                roomAvailabilityRepository.save(availability);
-                continue;
-            }
-
-            // Check if room is already booked by another booking
-            if (availability.getBookingId() != null) {
-                 throw new RuntimeException("Room is already booked on " + date);
-            }
-            
-            // Check if room is blocked by host (isAvailable is explicitly false)
-            Boolean isAvailable = availability.getIsAvailable();
-            if (isAvailable != null && !isAvailable && availability.getBookingId() == null) {
-                 // Already blocked by host
-                 throw new RuntimeException("Room is not available on " + date);
-            }
-
-            // Reserve the room permanently
-            availability.setIsAvailable(false);
-            availability.setBookingId(bookingId);
-            availability.setBlockReason("BOOKED");
-            
-            roomAvailabilityRepository.save(availability);
-        }
+        roomInventoryService.book(roomId, bookingId, start, end);
+    }
+
+    /**
+     * Check if room has a free unit on every night of [start, end] (answered from memory)
+     */
+    public boolean isAvailable(Long roomId, LocalDate start, LocalDate end) {
+        return roomInventoryService.isAvailable(roomId, start, end);
     }
 
     @Transactional
     public void cancelReservation(Long bookingId) {
-        List<RoomAvailability> availabilities = roomAvailabilityRepository.findByBookingId(bookingId);
-        for (RoomAvailability availability : availabilities) {
-            availability.setIsAvailable(true);
-            availability.setBookingId(null);
-            availability.setBlockReason(null);
-            roomAvailabilityRepository.save(availability);
-        }
+        roomInventoryService.release(bookingId);
     }
 
     private final com.verzol.stayhub.common.service.FileStorageService fileStorageService;
@@ -233,6 +183,10 @@ public class RoomService {
         room.setBedrooms(dto.getBedrooms());
         room.setBathrooms(dto.getBathrooms());
         room.setBedConfig(dto.getBedConfig());
+        if (dto.getQuantity() != null && dto.getQuantity() > RoomInventoryCalendar.MAX_UNITS) {
+            throw new RuntimeException("Room quantity cannot exceed " + RoomInventoryCalendar.MAX_UNITS
+                    + " units per room type");
+        }
         room.setQuantity(dto.getQuantity());
 
         if (dto.getAmenityIds() != null) {
@@ -0,0 +1,26 @@
+package com.verzol.stayhub.module.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Searchable snapshot of a hotel held by the in-memory search indexes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelSearchDocument {
+    private Long id;
+    private String name;
+    private String city;
+    private String country;
+    private String address;
+    // Active and approved - only these are shown to guests
+    private boolean visible;
+    // View count + non-cancelled bookings
+    private long popularity;
+    // Null when the host has not placed the hotel on the map
+    private Double latitude;
+    private Double longitude;
+}
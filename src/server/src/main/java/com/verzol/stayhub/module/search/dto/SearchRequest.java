@@ -16,4 +16,13 @@ public class SearchRequest {
     private List<Integer> stars;
     private List<Long> amenities;
     private String sortBy; // price_asc, price_desc, rating_desc
+
+    // Map search: a point + radius, or the visible map viewport
+    private Double lat;
+    private Double lng;
+    private Double radiusKm;
+    private Double north;
+    private Double south;
+    private Double east;
+    private Double west;
 }
@@ -0,0 +1,263 @@
+package com.verzol.stayhub.module.search.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+
+/**
+ * Immutable in-memory spatial index of visible hotels (fixed lat/lng grid).
+ *
+ * Hotels are stored sorted by grid cell, so the cells of one grid row that overlap a query box
+ * are a contiguous range found with one binary search. Very large boxes (zoomed-out map) touch
+ * more cells than hotels and are answered by a plain scan of the coordinate arrays instead.
+ * Results are exact (haversine) and sorted by distance.
+ */
+public class HotelGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180;
+
+    // ~5.5 km cells: a city-sized search touches a few hundred cells at most
+    private static final double CELL_DEGREES = 0.05;
+    private static final int LNG_CELLS = (int) Math.ceil(360 / CELL_DEGREES);
+
+    private final long[] ids;
+    private final double[] lats;
+    private final double[] lngs;
+    // Sorted cell keys of non-empty cells, and where each starts in ids / lats / lngs
+    private final long[] cells;
+    private final int[] starts;
+
+    private HotelGeoIndex(long[] ids, double[] lats, double[] lngs, long[] cells, int[] starts) {
+        this.ids = ids;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.cells = cells;
+        this.starts = starts;
+    }
+
+    public static HotelGeoIndex build(Collection<HotelSearchDocument> documents) {
+        List<HotelSearchDocument> located = new ArrayList<>();
+        for (HotelSearchDocument document : documents) {
+            if (document.isVisible() && document.getLatitude() != null && document.getLongitude() != null
+                    && Math.abs(document.getLatitude()) <= 90 && Math.abs(document.getLongitude()) <= 180) {
+                located.add(document);
+            }
+        }
+        located.sort((a, b) -> Long.compare(cellOf(a.getLatitude(), a.getLongitude()),
+                cellOf(b.getLatitude(), b.getLongitude())));
+
+        int n = located.size();
+        long[] ids = new long[n];
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        List<Long> cells = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            HotelSearchDocument document = located.get(i);
+            ids[i] = document.getId();
+            lats[i] = document.getLatitude();
+            lngs[i] = document.getLongitude();
+            long cell = cellOf(lats[i], lngs[i]);
+            if (cells.isEmpty() || cells.get(cells.size() - 1) != cell) {
+                cells.add(cell);
+                starts.add(i);
+            }
+        }
+        starts.add(n);
+
+        return new HotelGeoIndex(ids, lats, lngs,
+                cells.stream().mapToLong(Long::longValue).toArray(),
+                starts.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Hotels within {@code radiusKm} of a point, nearest first: hotel id -> distance in km
+     */
+    public Map<Long, Double> withinRadius(double lat, double lng, double radiusKm, int limit) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double south = Math.max(-90, lat - dLat);
+        double north = Math.min(90, lat + dLat);
+
+        // Longitude span grows towards the poles; a box touching a pole covers every longitude
+        double west = -180;
+        double east = 180;
+        double maxAbsLat = Math.max(Math.abs(south), Math.abs(north));
+        if (maxAbsLat < 89.9) {
+            double dLng = dLat / Math.cos(Math.toRadians(maxAbsLat));
+            if (dLng < 180) {
+                west = normalizeLng(lng - dLng);
+                east = normalizeLng(lng + dLng);
+            }
+        }
+
+        Nearest nearest = new Nearest(limit);
+        collect(south, west, north, east, i -> {
+            double distance = distanceKm(lat, lng, lats[i], lngs[i]);
+            if (distance <= radiusKm) {
+                nearest.offer(i, distance);
+            }
+        });
+        Map<Long, Double> result = new LinkedHashMap<>();
+        for (Hit hit : nearest.sorted()) {
+            result.put(ids[hit.doc], hit.distance);
+        }
+        return result;
+    }
+
+    /**
+     * Hotels inside a map viewport, nearest to its centre first: hotel id -> distance in km.
+     * {@code west > east} means the viewport crosses the antimeridian.
+     */
+    public Map<Long, Double> withinBounds(double south, double west, double north, double east, int limit) {
+        double centerLat = (south + north) / 2;
+        double centerLng = west <= east ? (west + east) / 2 : normalizeLng((west + east + 360) / 2);
+
+        // Rank by a flat-earth distance (no trig per hotel); exact distance only for the results
+        double lngScale = Math.cos(Math.toRadians(centerLat));
+        Nearest nearest = new Nearest(limit);
+        collect(south, west, north, east, i -> {
+            if (lats[i] >= south && lats[i] <= north && insideLng(lngs[i], west, east)) {
+                double dLat = lats[i] - centerLat;
+                double dLng = Math.abs(lngs[i] - centerLng);
+                dLng = Math.min(dLng, 360 - dLng) * lngScale;
+                nearest.offer(i, dLat * dLat + dLng * dLng);
+            }
+        });
+        Map<Long, Double> result = new LinkedHashMap<>();
+        for (Hit hit : nearest.sorted()) {
+            result.put(ids[hit.doc], distanceKm(centerLat, centerLng, lats[hit.doc], lngs[hit.doc]));
+        }
+        return result;
+    }
+
+    /**
+     * Calls back every hotel in the grid cells overlapping the box (a superset of the box)
+     */
+    private void collect(double south, double west, double north, double east, IntConsumer visitor) {
+        if (west > east) {
+            // Crosses the antimeridian: two boxes
+            collect(south, west, north, 180, visitor);
+            collect(south, -180, north, east, visitor);
+            return;
+        }
+
+        int fromRow = row(south);
+        int toRow = row(north);
+        int fromCol = col(west);
+        int toCol = col(east);
+        long cellCount = (long) (toRow - fromRow + 1) * (toCol - fromCol + 1);
+        if (cellCount > ids.length) {
+            // Zoomed out: scanning the arrays is cheaper than probing mostly empty cells
+            for (int i = 0; i < ids.length; i++) {
+                visitor.accept(i);
+            }
+            return;
+        }
+
+        for (int r = fromRow; r <= toRow; r++) {
+            long firstCell = (long) r * LNG_CELLS + fromCol;
+            long lastCell = (long) r * LNG_CELLS + toCol;
+            int c = Arrays.binarySearch(cells, firstCell);
+            if (c < 0) {
+                c = -c - 1;
+            }
+            for (; c < cells.length && cells[c] <= lastCell; c++) {
+                for (int i = starts[c]; i < starts[c + 1]; i++) {
+                    visitor.accept(i);
+                }
+            }
+        }
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static boolean insideLng(double lng, double west, double east) {
+        return west <= east ? lng >= west && lng <= east : lng >= west || lng <= east;
+    }
+
+    private static double normalizeLng(double lng) {
+        return lng > 180 ? lng - 360 : lng < -180 ? lng + 360 : lng;
+    }
+
+    private static long cellOf(double lat, double lng) {
+        return (long) row(lat) * LNG_CELLS + col(lng);
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_DEGREES);
+    }
+
+    private static int col(double lng) {
+        return Math.min(LNG_CELLS - 1, (int) Math.floor((lng + 180) / CELL_DEGREES));
+    }
+
+    /**
+     * Keeps the {@code limit} nearest hits in a bounded max-heap, so a zoomed-out viewport
+     * does not sort every hotel on the map
+     */
+    private final class Nearest {
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+        private final BitSet seen = new BitSet();
+
+        private Nearest(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024), (a, b) -> compare(b, a));
+        }
+
+        private void offer(int doc, double distance) {
+            // An antimeridian viewport may visit a hotel twice
+            if (limit <= 0 || seen.get(doc)) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.add(new Hit(doc, distance));
+            } else if (distance < heap.peek().distance) {
+                seen.clear(heap.poll().doc);
+                heap.add(new Hit(doc, distance));
+            } else {
+                return;
+            }
+            seen.set(doc);
+        }
+
+        private List<Hit> sorted() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(this::compare);
+            return hits;
+        }
+
+        private int compare(Hit a, Hit b) {
+            return a.distance != b.distance ? Double.compare(a.distance, b.distance) : Long.compare(ids[a.doc], ids[b.doc]);
+        }
+    }
+
+    private static final class Hit {
+        private final int doc;
+        private final double distance;
+
+        private Hit(int doc, double distance) {
+            this.doc = doc;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.verzol.stayhub.module.search.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+
+/**
+ * Owns the in-memory hotel search indexes.
+ *
+ * Built from the hotels table on startup and refreshed periodically (to pick up changes made
+ * outside the app, e.g. approvals). Hotel create / update / delete mark the hotel dirty after
+ * commit; a background publish re-reads all dirty hotels in one query, compares each with its
+ * indexed document and rebuilds only the snapshots whose fields actually changed, once for the
+ * whole batch. An edit of fields no index reads (description, policies, ...) or of a hidden
+ * hotel rebuilds nothing; a real change still rebuilds the affected snapshot in full.
+ * Readers always see a complete immutable snapshot, so queries never take a lock.
+ */
+@Service
+public class HotelSearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelSearchIndexService.class);
+
+    private final HotelRepository hotelRepository;
+
+    // Fields each index reads from a visible hotel
+    private static final Function<HotelSearchDocument, List<Object>> TEXT_FIELDS = document -> Arrays.asList(
+            document.getName(), document.getCity(), document.getCountry(), document.getAddress(),
+            document.getPopularity());
+    private static final Function<HotelSearchDocument, List<Object>> SUGGESTION_FIELDS = document -> Arrays.asList(
+            document.getName(), document.getCity(), document.getPopularity());
+    private static final Function<HotelSearchDocument, List<Object>> GEO_FIELDS = document -> Arrays.asList(
+            document.getLatitude(), document.getLongitude());
+
+    private final Map<Long, HotelSearchDocument> documents = new ConcurrentHashMap<>();
+    // Non-cancelled bookings per hotel as of the last full rebuild (part of popularity)
+    private volatile Map<Long, Long> bookingCounts = Map.of();
+    // Hotels changed since the last publish
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile HotelTextIndex textIndex = HotelTextIndex.build(List.of());
+    private volatile SuggestionTrie suggestionTrie = SuggestionTrie.build(List.of());
+    private volatile HotelGeoIndex geoIndex = HotelGeoIndex.build(List.of());
+
+    public HotelSearchIndexService(HotelRepository hotelRepository) {
+        this.hotelRepository = hotelRepository;
+    }
+
+    /**
+     * Visible hotel ids matching a free-text query, most relevant first
+     */
+    public List<Long> search(String query, int limit) {
+        return textIndex.search(query, limit);
+    }
+
+    /**
+     * Same as {@link #search}, with the relevance score of each hotel
+     */
+    public Map<Long, Float> searchScored(String query, int limit) {
+        return textIndex.searchScored(query, limit);
+    }
+
+    /**
+     * Autocomplete over visible cities and hotel names, most popular first
+     */
+    public List<String> suggest(String query, int limit) {
+        return suggestionTrie.suggest(query, limit);
+    }
+
+    /**
+     * Visible hotels within a radius of a point, nearest first: hotel id -> distance in km
+     */
+    public Map<Long, Double> searchNearby(double lat, double lng, double radiusKm, int limit) {
+        return geoIndex.withinRadius(lat, lng, radiusKm, limit);
+    }
+
+    /**
+     * Visible hotels inside a map viewport, nearest to its centre first: hotel id -> distance in km
+     */
+    public Map<Long, Double> searchInBounds(double south, double west, double north, double east, int limit) {
+        return geoIndex.withinBounds(south, west, north, east, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval-ms:600000}",
+               initialDelayString = "${app.search.index.refresh-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Long> bookings = new HashMap<>();
+        for (Object[] row : hotelRepository.countBookingsByHotel()) {
+            bookings.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<Long, HotelSearchDocument> loaded = new HashMap<>();
+        for (Object[] row : hotelRepository.findSearchFields()) {
+            HotelSearchDocument document = toDocument(row, bookings.getOrDefault((Long) row[0], 0L));
+            loaded.put(document.getId(), document);
+        }
+
+        synchronized (this) {
+            bookingCounts = bookings;
+            documents.clear();
+            documents.putAll(loaded);
+            publish();
+        }
+        logger.info("Hotel search index built: {} hotels in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-index one hotel once the current transaction commits (within one publish interval)
+     */
+    public void upsert(Long hotelId) {
+        afterCommit(() -> dirty.add(hotelId));
+    }
+
+    /**
+     * Drop a hotel once the current transaction commits (within one publish interval)
+     */
+    public void remove(Long hotelId) {
+        afterCommit(() -> dirty.add(hotelId));
+    }
+
+    /**
+     * Re-read the hotels changed since the last run and publish new snapshots once for all of them
+     */
+    @Scheduled(fixedDelayString = "${app.search.index.publish-interval-ms:1000}")
+    public void publishChanges() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> hotelIds = new ArrayList<>(dirty);
+        dirty.removeAll(hotelIds);
+
+        List<Object[]> rows;
+        try {
+            rows = hotelRepository.findSearchFieldsByIds(hotelIds);
+        } catch (Exception e) {
+            logger.warn("Failed to re-index {} hotels: {}", hotelIds.size(), e.getMessage());
+            dirty.addAll(hotelIds);
+            return;
+        }
+
+        synchronized (this) {
+            // Hotels without a row were deleted
+            Map<Long, HotelSearchDocument> current = new HashMap<>();
+            for (Object[] row : rows) {
+                current.put((Long) row[0], toDocument(row, bookingCounts.getOrDefault((Long) row[0], 0L)));
+            }
+
+            boolean text = false;
+            boolean suggestions = false;
+            boolean geo = false;
+            for (Long hotelId : hotelIds) {
+                HotelSearchDocument before = documents.get(hotelId);
+                HotelSearchDocument after = current.get(hotelId);
+                text |= changed(before, after, TEXT_FIELDS);
+                suggestions |= changed(before, after, SUGGESTION_FIELDS);
+                geo |= changed(before, after, GEO_FIELDS);
+                if (after != null) {
+                    documents.put(hotelId, after);
+                } else {
+                    documents.remove(hotelId);
+                }
+            }
+            publish(text, suggestions, geo);
+        }
+    }
+
+    private void publish() {
+        publish(true, true, true);
+    }
+
+    private void publish(boolean text, boolean suggestions, boolean geo) {
+        if (text) {
+            textIndex = HotelTextIndex.build(documents.values());
+        }
+        if (suggestions) {
+            suggestionTrie = SuggestionTrie.build(documents.values());
+        }
+        if (geo) {
+            geoIndex = HotelGeoIndex.build(documents.values());
+        }
+    }
+
+    /**
+     * Whether an index reading the given fields of visible hotels sees a difference
+     * (null document = deleted hotel)
+     */
+    private static boolean changed(HotelSearchDocument before, HotelSearchDocument after,
+                                   Function<HotelSearchDocument, List<Object>> fields) {
+        boolean wasIndexed = before != null && before.isVisible();
+        boolean isIndexed = after != null && after.isVisible();
+        if (wasIndexed != isIndexed) {
+            return true;
+        }
+        return isIndexed && !fields.apply(before).equals(fields.apply(after));
+    }
+
+    private static HotelSearchDocument toDocument(Object[] row, long bookings) {
+        long views = row[5] != null ? ((Number) row[5]).longValue() : 0;
+        boolean visible = Boolean.TRUE.equals(row[6]) && Boolean.TRUE.equals(row[7]);
+        Double latitude = row[8] != null ? ((Number) row[8]).doubleValue() : null;
+        Double longitude = row[9] != null ? ((Number) row[9]).doubleValue() : null;
+        return new HotelSearchDocument((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], visible, views + bookings, latitude, longitude);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.verzol.stayhub.module.search.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+import com.verzol.stayhub.util.TextNormalizer;
+
+/**
+ * Immutable in-memory inverted index over the name, city, country and address of visible
+ * (active and approved) hotels.
+ *
+ * Terms are accent-folded, so "Đà Nẵng", "da nang" and "DA NANG" are the same. Every query
+ * word must match some field, either exactly, as a prefix of an indexed word, or - if it
+ * matches nothing as typed - within one typo (insert / delete / substitute / swap, via a
+ * one-deletion neighbourhood map). A prefix expands to at most 64 indexed words, the ones
+ * found in the most hotels. Results are ranked by field weight x idf x match quality,
+ * boosted by popularity. Lookups only touch the postings of matched terms, so latency does
+ * not grow with the number of hotels.
+ */
+public class HotelTextIndex {
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CITY_WEIGHT = 2f;
+    private static final float COUNTRY_WEIGHT = 1f;
+    private static final float ADDRESS_WEIGHT = 1f;
+
+    private static final float EXACT = 1f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.6f;
+
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // A short prefix (e.g. "b") can match thousands of terms: only this many are looked up,
+    // those found in the most hotels
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final long[] ids;
+    private final float[] boosts;
+    // Sorted, so prefix matches are a contiguous range
+    private final String[] terms;
+    private final int[][] postings;
+    private final float[][] weights;
+    // Term with one character removed -> indexes of the terms it came from
+    private final Map<String, int[]> deletions;
+
+    private HotelTextIndex(long[] ids, float[] boosts, String[] terms, int[][] postings,
+                           float[][] weights, Map<String, int[]> deletions) {
+        this.ids = ids;
+        this.boosts = boosts;
+        this.terms = terms;
+        this.postings = postings;
+        this.weights = weights;
+        this.deletions = deletions;
+    }
+
+    public static HotelTextIndex build(Collection<HotelSearchDocument> documents) {
+        List<HotelSearchDocument> visible = documents.stream().filter(HotelSearchDocument::isVisible).toList();
+        long[] ids = new long[visible.size()];
+        float[] boosts = new float[visible.size()];
+        TreeMap<String, LinkedHashMap<Integer, Float>> termDocs = new TreeMap<>();
+
+        int doc = 0;
+        for (HotelSearchDocument document : visible) {
+            ids[doc] = document.getId();
+            boosts[doc] = (float) Math.log1p(Math.max(0, document.getPopularity()));
+            addField(termDocs, doc, document.getName(), NAME_WEIGHT);
+            addField(termDocs, doc, document.getCity(), CITY_WEIGHT);
+            addField(termDocs, doc, document.getCountry(), COUNTRY_WEIGHT);
+            addField(termDocs, doc, document.getAddress(), ADDRESS_WEIGHT);
+            doc++;
+        }
+
+        String[] terms = termDocs.keySet().toArray(new String[0]);
+        int[][] postings = new int[terms.length][];
+        float[][] weights = new float[terms.length][];
+        Map<String, List<Integer>> deletionLists = new HashMap<>();
+        for (int t = 0; t < terms.length; t++) {
+            LinkedHashMap<Integer, Float> docs = termDocs.get(terms[t]);
+            postings[t] = new int[docs.size()];
+            weights[t] = new float[docs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : docs.entrySet()) {
+                postings[t][i] = entry.getKey();
+                weights[t][i] = entry.getValue();
+                i++;
+            }
+            if (terms[t].length() >= MIN_FUZZY_LENGTH) {
+                for (String variant : oneDeletions(terms[t])) {
+                    deletionLists.computeIfAbsent(variant, k -> new ArrayList<>(2)).add(t);
+                }
+            }
+        }
+
+        Map<String, int[]> deletions = new HashMap<>(deletionLists.size() * 2);
+        deletionLists.forEach((variant, list) ->
+                deletions.put(variant, list.stream().mapToInt(Integer::intValue).distinct().toArray()));
+
+        return new HotelTextIndex(ids, boosts, terms, postings, weights, deletions);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Visible hotel ids matching every word of the query, best first
+     */
+    public List<Long> search(String query, int limit) {
+        return new ArrayList<>(searchScored(query, limit).keySet());
+    }
+
+    /**
+     * Same as {@link #search}, with the relevance score of each hotel (ties: lowest id first)
+     */
+    public Map<Long, Float> searchScored(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || ids.length == 0) {
+            return Map.of();
+        }
+
+        // doc -> best score per query word
+        Map<Integer, float[]> hits = new HashMap<>();
+        for (int k = 0; k < tokens.size(); k++) {
+            Map<Integer, Float> matches = matchTerms(tokens.get(k));
+            if (matches.isEmpty()) {
+                return Map.of();
+            }
+            for (Map.Entry<Integer, Float> match : matches.entrySet()) {
+                int t = match.getKey();
+                float idf = (float) Math.log(1 + (double) ids.length / postings[t].length);
+                for (int i = 0; i < postings[t].length; i++) {
+                    int doc = postings[t][i];
+                    float[] scores = k == 0
+                            ? hits.computeIfAbsent(doc, d -> new float[tokens.size()])
+                            : hits.get(doc);
+                    if (scores == null) {
+                        // Did not match an earlier word - can never match all of them
+                        continue;
+                    }
+                    scores[k] = Math.max(scores[k], match.getValue() * weights[t][i] * idf);
+                }
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>();
+        for (Map.Entry<Integer, float[]> hit : hits.entrySet()) {
+            float total = 0;
+            boolean all = true;
+            for (float score : hit.getValue()) {
+                if (score == 0) {
+                    all = false;
+                    break;
+                }
+                total += score;
+            }
+            if (all) {
+                int doc = hit.getKey();
+                ranked.add(new Hit(ids[doc], total * (1 + 0.1f * boosts[doc])));
+            }
+        }
+        ranked.sort((a, b) -> a.score != b.score ? Float.compare(b.score, a.score) : Long.compare(a.id, b.id));
+
+        Map<Long, Float> result = new LinkedHashMap<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.put(ranked.get(i).id, ranked.get(i).score);
+        }
+        return result;
+    }
+
+    /**
+     * Indexed terms matching one query word, with match quality
+     */
+    private Map<Integer, Float> matchTerms(String token) {
+        Map<Integer, Float> matches = new HashMap<>();
+
+        // Exact + prefix: contiguous range of the sorted term list
+        int from = Arrays.binarySearch(terms, token);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(token)) {
+            to++;
+        }
+        for (int t : topPrefixTerms(token, from, to)) {
+            float quality = terms[t].length() == token.length()
+                    ? EXACT
+                    : PREFIX * token.length() / terms[t].length();
+            matches.put(t, quality);
+        }
+
+        // One typo away - only when the word matches nothing as typed, so a typo never
+        // outranks a real word (e.g. "viet" must not pull in "view")
+        if (matches.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            List<String> variants = oneDeletions(token);
+            variants.add(token);
+            for (String variant : variants) {
+                int exact = Arrays.binarySearch(terms, variant);
+                if (exact >= 0) {
+                    addFuzzy(matches, exact, token);
+                }
+                int[] sources = deletions.get(variant);
+                if (sources != null) {
+                    for (int t : sources) {
+                        addFuzzy(matches, t, token);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Terms [from, to) of a prefix range, or the MAX_PREFIX_EXPANSIONS of them found in the most
+     * hotels when the range is larger (the exact term, first in the range, is always kept)
+     */
+    private int[] topPrefixTerms(String token, int from, int to) {
+        if (to - from <= MAX_PREFIX_EXPANSIONS) {
+            int[] all = new int[to - from];
+            for (int t = from; t < to; t++) {
+                all[t - from] = t;
+            }
+            return all;
+        }
+        // Min-heap on document frequency, ties keep the alphabetically first term
+        PriorityQueue<Integer> top = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                (a, b) -> postings[a].length != postings[b].length
+                        ? Integer.compare(postings[a].length, postings[b].length)
+                        : Integer.compare(b, a));
+        boolean exact = terms[from].equals(token);
+        int capacity = exact ? MAX_PREFIX_EXPANSIONS - 1 : MAX_PREFIX_EXPANSIONS;
+        for (int t = exact ? from + 1 : from; t < to; t++) {
+            top.offer(t);
+            if (top.size() > capacity) {
+                top.poll();
+            }
+        }
+        int[] result = new int[top.size() + (exact ? 1 : 0)];
+        int i = 0;
+        if (exact) {
+            result[i++] = from;
+        }
+        for (int t : top) {
+            result[i++] = t;
+        }
+        return result;
+    }
+
+    private void addFuzzy(Map<Integer, Float> matches, int t, String token) {
+        if (!matches.containsKey(t) && withinOneEdit(token, terms[t])) {
+            matches.put(t, FUZZY);
+        }
+    }
+
+    private static void addField(TreeMap<String, LinkedHashMap<Integer, Float>> termDocs,
+                                 int doc, String text, float weight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            termDocs.computeIfAbsent(token, k -> new LinkedHashMap<>()).merge(doc, weight, Math::max);
+        }
+    }
+
+    private static List<String> oneDeletions(String term) {
+        List<String> variants = new ArrayList<>(term.length() + 1);
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /**
+     * Optimal string alignment distance <= 1 (one insert, delete, substitute or adjacent swap)
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == la || i == lb) {
+            return true;
+        }
+        if (la == lb) {
+            // Substitution, or swap of two adjacent characters
+            return a.substring(i + 1).equals(b.substring(i + 1))
+                    || (i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                        && a.substring(i + 2).equals(b.substring(i + 2)));
+        }
+        return la > lb ? a.substring(i + 1).equals(b.substring(i)) : a.substring(i).equals(b.substring(i + 1));
+    }
+
+    private static final class Hit {
+        private final long id;
+        private final float score;
+
+        private Hit(long id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
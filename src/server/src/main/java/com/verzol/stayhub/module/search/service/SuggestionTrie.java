@@ -0,0 +1,168 @@
+package com.verzol.stayhub.module.search.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+import com.verzol.stayhub.util.TextNormalizer;
+
+/**
+ * Immutable autocomplete trie of cities and hotel names.
+ *
+ * Keys are accent-folded and every word of a phrase is a key start ("thanh" finds
+ * "Mường Thanh"). Each node keeps its best suggestions precomputed by popularity, so a lookup
+ * is one walk down the trie: no DB hit and no sorting at query time.
+ */
+public class SuggestionTrie {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    // Keys longer than this share the suggestions of their prefix
+    private static final int MAX_KEY_LENGTH = 24;
+
+    private final String[] suggestions;
+    private final Node root;
+
+    private SuggestionTrie(String[] suggestions, Node root) {
+        this.suggestions = suggestions;
+        this.root = root;
+    }
+
+    /**
+     * Build from visible hotels: a city weighs the popularity of all its hotels plus one per hotel
+     */
+    public static SuggestionTrie build(Collection<HotelSearchDocument> documents) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (HotelSearchDocument document : documents) {
+            if (!document.isVisible()) {
+                continue;
+            }
+            long popularity = Math.max(0, document.getPopularity());
+            addEntry(entries, document.getCity(), popularity + 1, true);
+            addEntry(entries, document.getName(), popularity, false);
+        }
+
+        // Insert best first, so the first MAX_SUGGESTIONS reaching a node are its top suggestions
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort((a, b) -> a.weight != b.weight ? Long.compare(b.weight, a.weight) : a.text.compareTo(b.text));
+
+        String[] suggestions = new String[sorted.size()];
+        BuilderNode root = new BuilderNode();
+        for (int i = 0; i < sorted.size(); i++) {
+            suggestions[i] = sorted.get(i).text;
+            if (sorted.get(i).city) {
+                // Blank query: most popular cities
+                root.offer(i);
+            }
+            List<String> words = TextNormalizer.tokenize(sorted.get(i).text);
+            for (int w = 0; w < words.size(); w++) {
+                String key = String.join(" ", words.subList(w, words.size()));
+                insert(root, key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key, i);
+            }
+        }
+        return new SuggestionTrie(suggestions, root.freeze());
+    }
+
+    /**
+     * Up to {@code limit} suggestions starting with the query (or most popular when blank)
+     */
+    public List<String> suggest(String query, int limit) {
+        String key = String.join(" ", TextNormalizer.tokenize(query));
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        int count = Math.min(Math.min(limit, MAX_SUGGESTIONS), node.top.length);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[node.top[i]]);
+        }
+        return result;
+    }
+
+    private static void addEntry(Map<String, Entry> entries, String text, long weight, boolean city) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String folded = String.join(" ", TextNormalizer.tokenize(text));
+        if (folded.isEmpty()) {
+            return;
+        }
+        // Same folded text (e.g. "Đà Nẵng" / "Da Nang") is one suggestion, first spelling wins
+        Entry entry = entries.computeIfAbsent(folded, k -> new Entry(text.trim()));
+        entry.weight += weight;
+        entry.city |= city;
+    }
+
+    private static void insert(BuilderNode root, String key, int entry) {
+        BuilderNode node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new BuilderNode());
+            node.offer(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final String text;
+        private long weight;
+        private boolean city;
+
+        private Entry(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class BuilderNode {
+        private final TreeMap<Character, BuilderNode> children = new TreeMap<>();
+        private final List<Integer> top = new ArrayList<>(4);
+
+        private void offer(int entry) {
+            // Entries arrive best first; the same entry can arrive again through another word
+            if (top.size() < MAX_SUGGESTIONS && (top.isEmpty() || top.get(top.size() - 1) != entry)) {
+                top.add(entry);
+            }
+        }
+
+        private Node freeze() {
+            char[] chars = new char[children.size()];
+            Node[] next = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> child : children.entrySet()) {
+                chars[i] = child.getKey();
+                next[i] = child.getValue().freeze();
+                i++;
+            }
+            return new Node(chars, next, top.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    private static final class Node {
+        private final char[] chars;
+        private final Node[] next;
+        private final int[] top;
+
+        private Node(char[] chars, Node[] next, int[] top) {
+            this.chars = chars;
+            this.next = next;
+            this.top = top;
+        }
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? next[i] : null;
+        }
+    }
+}
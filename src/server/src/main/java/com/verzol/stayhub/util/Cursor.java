@@ -0,0 +1,64 @@
+package com.verzol.stayhub.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque pagination token: the sort keys of the last row of a page, tagged with the ordering
+ * they belong to. Clients must treat it as an opaque string.
+ */
+public final class Cursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL = "~";
+
+    private Cursor() {
+    }
+
+    public static String encode(String ordering, Object... keys) {
+        StringBuilder raw = new StringBuilder(ordering);
+        for (Object key : keys) {
+            raw.append(SEPARATOR).append(key == null ? NULL : key.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sort keys of a cursor (null entries for null keys), or null for the first page
+     */
+    public static String[] decode(String token, String ordering, int keyCount) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        // A cursor from another sort order / filter mode cannot be resumed
+        if (parts.length != keyCount + 1 || !parts[0].equals(ordering)) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = NULL.equals(parts[i + 1]) ? null : parts[i + 1];
+        }
+        return keys;
+    }
+
+    /**
+     * Parse one decoded key (null stays null)
+     */
+    public static <T> T parse(String key, Function<String, T> parser) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return parser.apply(key);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.verzol.stayhub.util;
+
+import java.math.BigDecimal;
+
+/**
+ * VND amounts as shown to guests: "1,250,000 VNĐ" (same output as String.format("%,d VNĐ"),
+ * without parsing a format string per call)
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    public static String formatVnd(BigDecimal amount) {
+        return formatVnd(amount != null ? amount.longValue() : 0);
+    }
+
+    public static String formatVnd(long amount) {
+        String digits = Long.toString(Math.abs(amount));
+        StringBuilder out = new StringBuilder(digits.length() + digits.length() / 3 + 6);
+        if (amount < 0) {
+            out.append('-');
+        }
+        int firstGroup = digits.length() % 3 == 0 ? 3 : digits.length() % 3;
+        out.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            out.append(',').append(digits, i, i + 3);
+        }
+        return out.append(" VNĐ").toString();
+    }
+}
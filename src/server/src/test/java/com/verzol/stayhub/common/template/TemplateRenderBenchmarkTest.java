@@ -0,0 +1,141 @@
+package com.verzol.stayhub.common.template;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.booking.service.InvoicePdfRenderer;
+import com.verzol.stayhub.module.booking.service.InvoiceService;
+import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.room.entity.Room;
+
+/**
+ * JMH: render throughput and bytes allocated per render (gc.alloc.rate.norm) of the compiled
+ * templates, against String.format over the same OTP email. Opt-in:
+ *
+ *   mvn test -Dtest=TemplateRenderBenchmarkTest -Dbenchmark=true
+ */
+public class TemplateRenderBenchmarkTest {
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void renderThroughputAndAllocation() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TemplateRenderBenchmarkTest.class.getName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build()).run();
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public static class Renders {
+
+        private HtmlTemplate otp;
+        private String otpFormat;
+        private HtmlTemplate invoiceEmail;
+        private InvoiceService uncachedInvoices;
+        private InvoiceService cachedInvoices;
+        private Booking booking;
+        private Room room;
+        private Hotel hotel;
+
+        @Setup
+        public void setUp() throws Exception {
+            TemplateRegistry registry = new TemplateRegistry();
+            otp = registry.get("email/otp");
+            invoiceEmail = registry.get("email/invoice");
+            // The same email as a format string, the way it used to be built
+            try (var in = getClass().getClassLoader().getResourceAsStream("templates/email/otp.html")) {
+                otpFormat = new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8)
+                        .replace("%", "%%").replace("{{action}}", "%s").replace("{{otp}}", "%s");
+            }
+
+            // max-cached is 0 unless set
+            InvoicePdfRenderer pdfRenderer = new InvoicePdfRenderer();
+            uncachedInvoices = new InvoiceService(registry, pdfRenderer);
+            cachedInvoices = new InvoiceService(registry, pdfRenderer);
+            ReflectionTestUtils.setField(cachedInvoices, "maxCached", 100);
+
+            booking = new Booking();
+            booking.setId(42L);
+            booking.setStatus("CONFIRMED");
+            booking.setCreatedAt(LocalDateTime.of(2025, 3, 1, 9, 30));
+            booking.setGuests(2);
+            booking.setGuestEmail("guest@example.com");
+            booking.setGuestPhone("0901234567");
+            booking.setCheckInDate(LocalDate.of(2025, 4, 10));
+            booking.setCheckOutDate(LocalDate.of(2025, 4, 13));
+            booking.setCouponCode("SPRING10");
+            booking.setTotalPrice(BigDecimal.valueOf(3_240_000));
+            room = new Room();
+            room.setName("Deluxe Ocean View");
+            room.setBasePrice(BigDecimal.valueOf(1_200_000));
+            hotel = new Hotel();
+            hotel.setName("StayHub Da Nang");
+            hotel.setAddress("1 Vo Nguyen Giap");
+            hotel.setCity("Da Nang");
+        }
+
+        @Benchmark
+        public String otpStringFormat() {
+            return String.format(otpFormat, "verify your account", "482913");
+        }
+
+        @Benchmark
+        public String otpCompiled() {
+            String[] values = otp.newValues();
+            values[0] = "verify your account";
+            values[1] = "482913";
+            return otp.render(values);
+        }
+
+        @Benchmark
+        public String invoiceEmailCompiled() {
+            String[] values = invoiceEmail.newValues();
+            values[invoiceEmail.slot("guestName")] = "Nguyễn Văn A";
+            values[invoiceEmail.slot("bookingId")] = "42";
+            values[invoiceEmail.slot("hotelName")] = "StayHub Da Nang";
+            values[invoiceEmail.slot("roomName")] = "Deluxe Ocean View";
+            values[invoiceEmail.slot("checkIn")] = "2025-04-10";
+            values[invoiceEmail.slot("checkOut")] = "2025-04-13";
+            values[invoiceEmail.slot("guests")] = "2";
+            values[invoiceEmail.slot("totalPrice")] = "3,240,000 VNĐ";
+            values[invoiceEmail.slot("couponCode")] = "SPRING10";
+            values[invoiceEmail.slot("frontendUrl")] = "https://stay-hub.site";
+            return invoiceEmail.render(values);
+        }
+
+        @Benchmark
+        public String invoiceDocumentRendered() {
+            return uncachedInvoices.generateInvoiceHtml(booking, room, hotel, "Nguyễn Văn A");
+        }
+
+        @Benchmark
+        public String invoiceDocumentCached() {
+            return cachedInvoices.generateInvoiceHtml(booking, room, hotel, "Nguyễn Văn A");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.verzol.stayhub.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Request handling on a 200-thread platform pool (Tomcat's default) vs. one virtual thread per
+ * request, with and without the connection guard, in front of a 5-connection Hikari pool.
+ * Every simulated request holds a connection for the DB latency and then blocks on SMTP.
+ * The comparison is opt-in and needs Java 21:
+ *
+ *   mvn test -Dtest=VirtualThreadLoadBenchmarkTest -Dbenchmark=true \
+ *            -Dbenchmark.requests=5000 -Dbenchmark.db-ms=5 -Dbenchmark.smtp-ms=50
+ */
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int POOL_SIZE = 5;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Test
+    void guardNeverLendsMoreConnectionsThanPermits() throws Exception {
+        try (HikariDataSource pool = pool()) {
+            ConnectionLimitingDataSource guard = new ConnectionLimitingDataSource(pool, 3, 10_000);
+            AtomicInteger inUse = new AtomicInteger();
+            AtomicInteger maxInUse = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(32);
+            for (int i = 0; i < 200; i++) {
+                executor.submit(() -> {
+                    try (Connection connection = guard.getConnection()) {
+                        maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        inUse.decrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertTrue(maxInUse.get() <= 3, "at most 3 connections at once, saw " + maxInUse.get());
+            assertEquals(3, guard.getAvailablePermits());
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void comparePlatformAndVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        int requests = Integer.getInteger("benchmark.requests", 5_000);
+        long dbMs = Long.getLong("benchmark.db-ms", 5);
+        long smtpMs = Long.getLong("benchmark.smtp-ms", 50);
+
+        System.out.printf("%d requests, %d ms holding a connection (pool of %d) + %d ms blocking SMTP:%n",
+                requests, dbMs, POOL_SIZE, smtpMs);
+        try (HikariDataSource pool = pool()) {
+            ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            run("platform x" + PLATFORM_THREADS, pool, platform::execute, requests, dbMs, smtpMs);
+            platform.shutdown();
+
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("bench-");
+            virtual.setVirtualThreads(true);
+            run("virtual", pool, virtual::execute, requests, dbMs, smtpMs);
+            run("virtual + guard", new ConnectionLimitingDataSource(pool, POOL_SIZE, 30_000),
+                    virtual::execute, requests, dbMs, smtpMs);
+        }
+    }
+
+    private void run(String mode, DataSource dataSource, java.util.concurrent.Executor executor,
+                     int requests, long dbMs, long smtpMs) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                        Thread.sleep(dbMs);
+                    }
+                    Thread.sleep(smtpMs);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[request] = System.nanoTime() - submitted;
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("  %-16s: %8.0f req/s, p50 %7.1f ms, p99 %7.1f ms, %d failed%n", mode,
+                requests / seconds, latencies[requests / 2] / 1e6,
+                latencies[(int) (requests * 0.99) - 1] / 1e6, failures.get());
+    }
+
+    private static HikariDataSource pool() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(30_000);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,226 @@
+package com.verzol.stayhub.module.booking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.booking.entity.InvoiceExport;
+import com.verzol.stayhub.module.booking.repository.BookingRepository;
+import com.verzol.stayhub.module.booking.repository.InvoiceExportRepository;
+import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+import com.verzol.stayhub.module.room.entity.Room;
+import com.verzol.stayhub.module.room.repository.RoomRepository;
+
+/**
+ * Builds real exports with a batch size of 4, so a month of 10 bookings is read in three keyset
+ * pages, and checks the ZIP: one PDF per booking in id order, then the ledger. Also checks that
+ * an export whose worker stopped sending heartbeats is claimed and finished by another one.
+ * The scheduled sweep is pushed out of the way; the tests call buildNext themselves.
+ */
+@SpringBootTest(properties = {
+        "app.invoice.export.batch-size=4",
+        "app.invoice.export.initial-delay-ms=3600000",
+        "app.invoice.export.stale-after-ms=60000"
+})
+class InvoiceExportWorkerTest {
+
+    private static final Path EXPORT_DIR = createExportDir();
+
+    @Autowired
+    private InvoiceExportWorker invoiceExportWorker;
+
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private InvoiceExportRepository invoiceExportRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void exportDir(DynamicPropertyRegistry registry) {
+        registry.add("app.invoice.export.dir", EXPORT_DIR::toString);
+    }
+
+    @Test
+    void buildsEveryBookingAcrossKeysetPages() throws IOException {
+        long ownerId = 9001;
+        Long roomId = createRoom(ownerId, "Biển Xanh");
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String guest = i == 3 ? "Nguyễn, Văn A" : i == 7 ? "=HYPERLINK(\"x\")" : "Guest " + i;
+            expected.add(createBooking(roomId, LocalDate.of(2026, 3, 1 + i), guest));
+        }
+        // Outside the month, and another owner's hotel in the same month
+        createBooking(roomId, LocalDate.of(2026, 4, 1), "April guest");
+        createBooking(createRoom(9002, "Other"), LocalDate.of(2026, 3, 5), "Other guest");
+        Collections.sort(expected);
+
+        Long exportId = invoiceExportService.requestExport(ownerId, null, YearMonth.of(2026, 3)).getId();
+        runQueue();
+
+        InvoiceExport export = invoiceExportRepository.findById(exportId).orElseThrow();
+        assertEquals(InvoiceExport.COMPLETED, export.getStatus());
+        assertEquals(10, export.getTotalBookings());
+        assertEquals(10, export.getProcessedBookings());
+        assertNull(export.getClaimToken());
+        Path file = Paths.get(export.getFilePath());
+        assertEquals(Files.size(file), export.getFileSize());
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            List<String> names = new ArrayList<>();
+            zip.stream().forEach(entry -> names.add(entry.getName()));
+            List<String> expectedNames = new ArrayList<>();
+            expected.forEach(id -> expectedNames.add("invoices/invoice_" + id + ".pdf"));
+            expectedNames.add("ledger.csv");
+            assertEquals(expectedNames, names);
+
+            for (Long id : expected) {
+                try (InputStream in = zip.getInputStream(zip.getEntry("invoices/invoice_" + id + ".pdf"))) {
+                    assertEquals("%PDF", new String(in.readNBytes(4), StandardCharsets.US_ASCII));
+                }
+            }
+
+            String ledger = read(zip, zip.getEntry("ledger.csv"));
+            assertTrue(ledger.startsWith("﻿booking_id,"));
+            String[] lines = ledger.split("\n");
+            assertEquals(11, lines.length);
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue(lines[i + 1].startsWith(expected.get(i) + ","), lines[i + 1]);
+                assertTrue(lines[i + 1].endsWith(",invoices/invoice_" + expected.get(i) + ".pdf"), lines[i + 1]);
+            }
+            assertTrue(ledger.contains(",\"Nguyễn, Văn A\","));
+            assertTrue(ledger.contains(",\"'=HYPERLINK(\"\"x\"\")\","));
+        }
+    }
+
+    @Test
+    void staleClaimIsTakenOver() throws IOException {
+        long ownerId = 9003;
+        Long roomId = createRoom(ownerId, "Sông Hàn");
+        for (int i = 0; i < 6; i++) {
+            createBooking(roomId, LocalDate.of(2026, 5, 1 + i), "Guest " + i);
+        }
+        Long exportId = invoiceExportService.requestExport(ownerId, null, YearMonth.of(2026, 5)).getId();
+
+        // A worker claimed it and died half way: no heartbeat for ten minutes
+        LocalDateTime lastHeartbeat = LocalDateTime.now().minusMinutes(10);
+        jdbcTemplate.update("UPDATE invoice_exports SET status = 'RUNNING', claim_token = 'dead-worker', " +
+                "started_at = ?, heartbeat_at = ?, processed_bookings = 4 WHERE id = ?",
+                lastHeartbeat, lastHeartbeat, exportId);
+        // ... while another one is still alive
+        Long liveId = invoiceExportService.requestExport(ownerId, null, YearMonth.of(2026, 6)).getId();
+        jdbcTemplate.update("UPDATE invoice_exports SET status = 'RUNNING', claim_token = 'live-worker', " +
+                "started_at = ?, heartbeat_at = ? WHERE id = ?", LocalDateTime.now(), LocalDateTime.now(), liveId);
+
+        runQueue();
+
+        InvoiceExport export = invoiceExportRepository.findById(exportId).orElseThrow();
+        assertEquals(InvoiceExport.COMPLETED, export.getStatus());
+        assertEquals(6, export.getProcessedBookings());
+        assertFalse(export.getFilePath().contains("dead-worker"));
+        try (ZipFile zip = new ZipFile(export.getFilePath())) {
+            assertEquals(7, zip.size());
+        }
+        // The dead worker, should it wake up, has lost its claim
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status ->
+                invoiceExportRepository.heartbeat(exportId, "dead-worker", 6, 6, LocalDateTime.now())));
+
+        InvoiceExport live = invoiceExportRepository.findById(liveId).orElseThrow();
+        assertEquals(InvoiceExport.RUNNING, live.getStatus());
+        assertEquals("live-worker", live.getClaimToken());
+    }
+
+    private void runQueue() {
+        int guard = 0;
+        while (invoiceExportWorker.buildNext()) {
+            assertTrue(++guard < 20, "export queue never drained");
+        }
+    }
+
+    private Long createRoom(long ownerId, String hotelName) {
+        Hotel hotel = new Hotel();
+        hotel.setOwnerId(ownerId);
+        hotel.setName(hotelName);
+        hotel.setAddress("1 Bạch Đằng");
+        hotel.setCity("Đà Nẵng");
+        hotel.setCountry("Việt Nam");
+        Long hotelId = hotelRepository.save(hotel).getId();
+
+        Room room = new Room();
+        room.setHotelId(hotelId);
+        room.setName("Deluxe");
+        room.setBasePrice(BigDecimal.valueOf(100));
+        room.setCapacity(2);
+        room.setQuantity(1);
+        return roomRepository.save(room).getId();
+    }
+
+    private Long createBooking(Long roomId, LocalDate checkIn, String guestName) {
+        Booking booking = new Booking();
+        booking.setUserId(1L);
+        booking.setRoomId(roomId);
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkIn.plusDays(2));
+        booking.setGuests(2);
+        booking.setGuestName(guestName);
+        booking.setGuestEmail("guest@example.com");
+        booking.setTotalPrice(BigDecimal.valueOf(200));
+        booking.setStatus("CONFIRMED");
+        return bookingRepository.save(booking).getId();
+    }
+
+    private static String read(ZipFile zip, ZipEntry entry) throws IOException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path createExportDir() {
+        try {
+            return Files.createTempDirectory("invoice-exports");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.verzol.stayhub.module.hotel.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.room.service.RoomAvailabilityIndexService;
+import com.verzol.stayhub.module.search.dto.SearchRequest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Date-filtered hotel search: correlated COUNT over bookings (previous HotelSpecification)
+ * vs. the room_inventory_days index. Opt-in, seeds a large data set:
+ *
+ *   mvn test -Dtest=HotelAvailabilitySearchBenchmarkTest -Dbenchmark=true \
+ *            -Dbenchmark.hotels=10000 -Dbenchmark.bookings=1000000
+ *
+ * The bookings table gets a (room_id, check_in_date) index so the old query runs at its best.
+ * Both must return the same hotels: every room has one unit (so counting overlapping bookings
+ * equals checking each night) and only past bookings are cancelled (the old query counted them).
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotelAvailabilitySearchBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    private static final String OLD_QUERY =
+            "SELECT h.id FROM Hotel h WHERE h.isActive = true AND h.isApproved = true " +
+            "AND EXISTS (SELECT r.hotelId FROM Room r WHERE r.hotelId = h.id AND r.capacity >= :guests " +
+            "  AND (SELECT COUNT(b) FROM Booking b WHERE b.roomId = r.id " +
+            "       AND b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn) < r.quantity)";
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomAvailabilityIndexService roomAvailabilityIndexService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void compareOldSpecificationWithIndex() {
+        int hotels = Integer.getInteger("benchmark.hotels", 10_000);
+        int bookings = Integer.getInteger("benchmark.bookings", 1_000_000);
+        seed(hotels, bookings);
+
+        long oldCount = 0;
+        long newCount = 0;
+        long oldNanos = 0;
+        long newNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            // Different dates every round so no result is served from a cache
+            LocalDate checkIn = LocalDate.now().plusDays(10 + 7L * i);
+            LocalDate checkOut = checkIn.plusDays(3);
+            SearchRequest request = new SearchRequest();
+            request.setCheckIn(checkIn);
+            request.setCheckOut(checkOut);
+            request.setGuests(2);
+
+            long t0 = System.nanoTime();
+            List<Long> oldIds = entityManager.createQuery(OLD_QUERY, Long.class)
+                    .setParameter("guests", 2)
+                    .setParameter("checkIn", checkIn)
+                    .setParameter("checkOut", checkOut)
+                    .getResultList();
+            long t1 = System.nanoTime();
+            List<Long> newIds = findIds(new HotelSpecification(request));
+            long t2 = System.nanoTime();
+            oldNanos += t1 - t0;
+            newNanos += t2 - t1;
+
+            assertEquals(new HashSet<>(oldIds), new HashSet<>(newIds), "Different hotels for " + checkIn);
+            oldCount = oldIds.size();
+            newCount = newIds.size();
+            // Neither every hotel nor none: the dates really filter
+            assertTrue(newCount > 0 && newCount < hotels);
+        }
+
+        System.out.printf("Availability search over %d hotels / %d bookings (mean of %d):%n", hotels, bookings, ROUNDS);
+        System.out.printf("  booking subquery : %8.1f ms, %d hotels%n", oldNanos / 1e6 / ROUNDS, oldCount);
+        System.out.printf("  inventory index  : %8.1f ms, %d hotels%n", newNanos / 1e6 / ROUNDS, newCount);
+    }
+
+    private List<Long> findIds(HotelSpecification spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Hotel> root = query.from(Hotel.class);
+        query.select(root.get("id")).where(spec.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private void seed(int hotels, int bookings) {
+        Long hotelBase = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM hotels", Long.class);
+        jdbcTemplate.update("INSERT INTO hotels (owner_id, name, address, city, country, star_rating, is_active, is_approved) " +
+                "SELECT 1, 'Hotel ' || x, 'Street ' || x, 'City ' || MOD(x, 50), 'Vietnam', MOD(x, 5) + 1, true, true " +
+                "FROM SYSTEM_RANGE(1, ?) AS s(x)", hotels);
+
+        Long roomBase = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM rooms", Long.class);
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, name, base_price, capacity, quantity) " +
+                "SELECT h.id, 'Room ' || k.x, 100 + MOD(h.id, 200), 1 + MOD(h.id + k.x, 3), 1 " +
+                "FROM hotels h CROSS JOIN SYSTEM_RANGE(1, 2) AS k(x) WHERE h.id > ?", hotelBase);
+        Long firstRoom = jdbcTemplate.queryForObject("SELECT MIN(id) FROM rooms WHERE id > ?", Long.class, roomBase);
+        Long roomCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rooms WHERE id > ?", Long.class, roomBase);
+
+        // Three years of history plus a few months ahead; one in ten past bookings cancelled
+        jdbcTemplate.update("INSERT INTO bookings (user_id, room_id, check_in_date, check_out_date, guests, total_price, status) " +
+                "SELECT 1, ? + MOD(x * 7919 + x / 1200, ?), DATEADD('DAY', MOD(x * 31, 1200) - 1100, CURRENT_DATE), " +
+                "DATEADD('DAY', MOD(x * 31, 1200) - 1100 + 1 + MOD(x, 4), CURRENT_DATE), 2, 100, " +
+                "CASE WHEN MOD(x, 10) = 0 AND MOD(x * 31, 1200) < 1100 THEN 'CANCELLED' ELSE 'CONFIRMED' END " +
+                "FROM SYSTEM_RANGE(1, ?) AS s(x)", firstRoom, roomCount, bookings);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS bench_bookings_room_dates ON bookings (room_id, check_in_date)");
+
+        // Inventory slots of upcoming confirmed stays (a night already taken keeps its first booking)
+        jdbcTemplate.update("INSERT INTO room_availability (room_id, date, unit, is_available, block_reason, booking_id) " +
+                "SELECT b.room_id, DATEADD('DAY', d.x, b.check_in_date), MOD(b.id, r.quantity), false, 'BOOKED', b.id " +
+                "FROM bookings b JOIN rooms r ON r.id = b.room_id CROSS JOIN SYSTEM_RANGE(0, 4) AS d(x) " +
+                "WHERE b.status = 'CONFIRMED' AND b.check_in_date >= CURRENT_DATE AND b.room_id >= ? " +
+                "AND DATEADD('DAY', d.x, b.check_in_date) <= b.check_out_date " +
+                "ON CONFLICT DO NOTHING", firstRoom);
+
+        roomAvailabilityIndexService.rebuild();
+    }
+}
@@ -0,0 +1,153 @@
+package com.verzol.stayhub.module.room.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.verzol.stayhub.module.booking.entity.Booking;
+import com.verzol.stayhub.module.booking.repository.BookingRepository;
+import com.verzol.stayhub.module.hotel.entity.Hotel;
+import com.verzol.stayhub.module.hotel.repository.HotelRepository;
+import com.verzol.stayhub.module.room.entity.Room;
+import com.verzol.stayhub.module.room.repository.RoomRepository;
+
+/**
+ * Fires hundreds of parallel multi-night holds at one room type and checks that no slot
+ * is ever given to two bookings and that no stay is left half-claimed.
+ * A background thread keeps evicting the in-memory calendar so that most requests run on a
+ * stale view and only the conditional UPDATE in the database decides who wins.
+ */
+@SpringBootTest
+class RoomInventoryConcurrencyTest {
+
+    private static final int QUANTITY = 3;
+    private static final int REQUESTS = 300;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelHoldsNeverDoubleBook() throws Exception {
+        Hotel hotel = new Hotel();
+        hotel.setOwnerId(1L);
+        hotel.setName("Stress hotel");
+        hotel.setAddress("1 Test street");
+        hotel.setCity("Da Nang");
+        hotel.setCountry("Vietnam");
+        Long hotelId = hotelRepository.save(hotel).getId();
+
+        Room room = new Room();
+        room.setHotelId(hotelId);
+        room.setName("Stress room");
+        room.setBasePrice(BigDecimal.valueOf(100));
+        room.setCapacity(2);
+        room.setQuantity(QUANTITY);
+        Long roomId = roomRepository.save(room).getId();
+
+        LocalDate base = LocalDate.now().plusDays(30);
+        LocalDateTime holdUntil = LocalDateTime.now().plusMinutes(20);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            // Overlapping stays of 1-3 nights inside a 6 day window
+            LocalDate checkIn = base.plusDays(i % 4);
+            Booking booking = new Booking();
+            booking.setUserId(1L);
+            booking.setRoomId(roomId);
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkIn.plusDays(i % 3));
+            booking.setGuests(1);
+            booking.setTotalPrice(BigDecimal.valueOf(100));
+            booking.setStatus("PENDING");
+            booking.setLockedUntil(holdUntil);
+            bookings.add(bookingRepository.save(booking));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Set<Long> succeeded = ConcurrentHashMap.newKeySet();
+
+        Thread evictor = new Thread(() -> {
+            while (running.get()) {
+                roomInventoryService.evict(roomId);
+                Thread.onSpinWait();
+            }
+        });
+        evictor.start();
+
+        for (Booking booking : bookings) {
+            pool.submit(() -> {
+                start.await();
+                try {
+                    roomInventoryService.hold(roomId, booking.getId(),
+                            booking.getCheckInDate(), booking.getCheckOutDate(), holdUntil);
+                    succeeded.add(booking.getId());
+                } catch (RuntimeException e) {
+                    // Rejected: room taken, lock conflict or duplicate slot - all fine
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        running.set(false);
+        evictor.join();
+
+        assertTrue(!succeeded.isEmpty(), "at least one hold must succeed");
+
+        // Never more claimed units per night than the room type has
+        List<Map<String, Object>> perNight = jdbcTemplate.queryForList(
+                "SELECT date, COUNT(*) AS claimed, COUNT(DISTINCT booking_id) AS bookings " +
+                "FROM room_availability WHERE room_id = ? AND booking_id IS NOT NULL GROUP BY date", roomId);
+        for (Map<String, Object> night : perNight) {
+            long claimed = ((Number) night.get("claimed")).longValue();
+            assertTrue(claimed <= QUANTITY, "night " + night.get("date") + " claimed " + claimed + " times");
+            assertEquals(claimed, ((Number) night.get("bookings")).longValue(),
+                    "a booking holds two units on the same night");
+        }
+
+        // Every winner holds its whole stay, every loser holds nothing
+        for (Booking booking : bookings) {
+            Integer slots = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM room_availability WHERE booking_id = ?", Integer.class, booking.getId());
+            int nights = (int) ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate()) + 1;
+            if (succeeded.contains(booking.getId())) {
+                assertEquals(nights, slots, "booking " + booking.getId() + " is half-claimed");
+            } else {
+                assertEquals(0, slots, "rejected booking " + booking.getId() + " kept slots");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.verzol.stayhub.module.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+
+/**
+ * Radius and viewport queries of the grid index, including across the antimeridian
+ */
+class HotelGeoIndexTest {
+
+    private static final HotelGeoIndex VIETNAM = HotelGeoIndex.build(List.of(
+            hotel(1, 21.0285, 105.8542),   // Hoàn Kiếm, Hà Nội
+            hotel(2, 21.0368, 105.8342),   // Ba Đình, ~2.3 km away
+            hotel(3, 21.1285, 105.8542),   // 0.1° north, ~11.1 km away
+            hotel(4, 10.7769, 106.7009),   // Sài Gòn
+            new HotelSearchDocument(5L, "Hidden", null, null, null, false, 0, 21.0290, 105.8540),
+            new HotelSearchDocument(6L, "Unplaced", null, null, null, true, 0, null, null)));
+
+    private static final HotelGeoIndex PACIFIC = HotelGeoIndex.build(List.of(
+            hotel(1, -17.7134, 178.0650),  // Fiji
+            hotel(2, -13.8333, -171.7500), // Samoa
+            hotel(3, -17.5000, 0.0)));
+
+    @Test
+    void radiusIsExactAndNearestFirst() {
+        Map<Long, Double> nearby = VIETNAM.withinRadius(21.0285, 105.8542, 10, 100);
+        assertEquals(List.of(1L, 2L), List.copyOf(nearby.keySet()));
+        assertEquals(0, nearby.get(1L), 1e-6);
+        assertEquals(2.3, nearby.get(2L), 0.2);
+
+        // The grid cells reach further than the radius; the distance check does not
+        assertEquals(List.of(1L, 2L), List.copyOf(VIETNAM.withinRadius(21.0285, 105.8542, 11.0, 100).keySet()));
+        assertEquals(List.of(1L, 2L, 3L), List.copyOf(VIETNAM.withinRadius(21.0285, 105.8542, 11.2, 100).keySet()));
+        assertEquals(List.of(1L, 2L, 3L, 4L), List.copyOf(VIETNAM.withinRadius(21.0285, 105.8542, 2000, 100).keySet()));
+    }
+
+    @Test
+    void limitKeepsNearest() {
+        assertEquals(List.of(1L, 2L), List.copyOf(VIETNAM.withinRadius(21.0285, 105.8542, 2000, 2).keySet()));
+        assertEquals(List.of(4L), List.copyOf(VIETNAM.withinRadius(10.7769, 106.7009, 2000, 1).keySet()));
+    }
+
+    @Test
+    void viewportNearestToCentreFirst() {
+        Map<Long, Double> inside = VIETNAM.withinBounds(20.9, 105.7, 21.1, 106.0, 100);
+        assertEquals(List.of(1L, 2L), List.copyOf(inside.keySet()));
+        assertTrue(inside.get(1L) < inside.get(2L));
+
+        // Zoomed out to the whole world: scans every located, visible hotel
+        assertEquals(4, VIETNAM.withinBounds(-90, -180, 90, 180, 100).size());
+        assertEquals(4, VIETNAM.size());
+    }
+
+    @Test
+    void viewportAcrossAntimeridian() {
+        // West edge east of the east edge: the box wraps around 180°
+        Map<Long, Double> inside = PACIFIC.withinBounds(-20, 170, -10, -165, 100);
+        assertEquals(2, inside.size());
+        assertTrue(inside.containsKey(1L) && inside.containsKey(2L));
+
+        assertEquals(List.of(2L), List.copyOf(PACIFIC.withinBounds(-20, -175, -10, -165, 100).keySet()));
+    }
+
+    @Test
+    void radiusAcrossAntimeridian() {
+        Map<Long, Double> nearby = PACIFIC.withinRadius(-16.0, 179.9, 1500, 100);
+        assertEquals(List.of(1L, 2L), List.copyOf(nearby.keySet()));
+        assertTrue(nearby.get(1L) < 300);
+        assertTrue(nearby.get(2L) < 1100);
+    }
+
+    private static HotelSearchDocument hotel(long id, double lat, double lng) {
+        return new HotelSearchDocument(id, "Hotel " + id, null, null, null, true, 0, lat, lng);
+    }
+}
@@ -0,0 +1,134 @@
+package com.verzol.stayhub.module.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+
+/**
+ * Accent folding, typo tolerance, ranking and prefix expansion of the in-memory text index
+ */
+class HotelTextIndexTest {
+
+    @Test
+    void foldsDiacriticsAndCase() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Khách sạn Biển Xanh", "Đà Nẵng", 0),
+                hotel(2, "Sunrise", "Da Nang", 0),
+                hotel(3, "Hanoi Pearl", "Hà Nội", 0)));
+
+        assertEquals(List.of(1L, 2L), index.search("da nang", 10));
+        assertEquals(List.of(1L, 2L), index.search("ĐÀ NẴNG", 10));
+        assertEquals(List.of(1L), index.search("bien xanh", 10));
+        assertEquals(List.of(3L), index.search("Hà   Nội!", 10));
+    }
+
+    @Test
+    void toleratesOneTypoPerWord() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Mường Thanh Grand", "Nha Trang", 0),
+                hotel(2, "Vinpearl Resort", "Phú Quốc", 0)));
+
+        // Adjacent swap, substitution, missing and extra letter
+        assertEquals(List.of(1L), index.search("muong thnah", 10));
+        assertEquals(List.of(2L), index.search("vinpaarl", 10));
+        assertEquals(List.of(2L), index.search("resrt", 10));
+        assertEquals(List.of(1L), index.search("grandd", 10));
+        // Two edits away, or too short to guess
+        assertEquals(List.of(), index.search("thxnz", 10));
+        assertEquals(List.of(), index.search("nhx", 10));
+        // Every word must match
+        assertEquals(List.of(), index.search("muong resort", 10));
+    }
+
+    @Test
+    void typoNeverOutranksRealWord() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Viet Hotel", "Huế", 0),
+                hotel(2, "Ocean View", "Huế", 0)));
+
+        assertEquals(List.of(1L), index.search("viet", 10));
+    }
+
+    @Test
+    void ranksByFieldAndMatchQuality() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Green Hotel", "Sapa", 0),
+                hotel(2, "Sapa Garden", "Lào Cai", 0),
+                hotel(3, "Maison Lodge", "Mai Châu", 0),
+                hotel(4, "Mai Lodge", "Hòa Bình", 0)));
+
+        // Same word: in the name before in the city
+        assertEquals(List.of(2L, 1L), index.search("sapa", 10));
+        assertEquals(List.of(2L), index.search("sapa", 1));
+        // Same field: exact word before a longer word it prefixes
+        assertEquals(List.of(4L, 3L), index.search("mai lodge", 10));
+
+        Map<Long, Float> scored = index.searchScored("sapa", 10);
+        assertEquals(List.of(2L, 1L), List.copyOf(scored.keySet()));
+        assertTrue(scored.get(2L) > scored.get(1L));
+    }
+
+    @Test
+    void popularityBreaksEqualMatches() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Lotus Hotel", "Huế", 5),
+                hotel(2, "Lotus Hotel", "Huế", 500),
+                hotel(3, "Lotus Hotel", "Huế", 5)));
+
+        // Same text: most popular first, then lowest id
+        assertEquals(List.of(2L, 1L, 3L), index.search("lotus", 10));
+    }
+
+    @Test
+    void prefixExpansionKeepsMostFrequentTerms() {
+        List<HotelSearchDocument> hotels = new ArrayList<>();
+        // 69 words starting with "an" found in one hotel each: anaa, anab, ... ancq
+        for (int i = 0; i < 69; i++) {
+            String word = "an" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+            hotels.add(hotel(i + 1, word, null, 0));
+        }
+        // ... and one, alphabetically last, found in six
+        for (long id = 100; id < 106; id++) {
+            hotels.add(hotel(id, "anzz", null, 0));
+        }
+        HotelTextIndex index = HotelTextIndex.build(hotels);
+
+        // 64 words expanded: "anzz" plus the 63 alphabetically first of the rest
+        List<Long> result = index.search("an", 1000);
+        assertEquals(69, result.size());
+        for (long id = 100; id < 106; id++) {
+            assertTrue(result.contains(id));
+        }
+        assertTrue(result.contains(63L));
+        assertFalse(result.contains(64L));
+
+        // The word typed in full is always looked up, even when it is rare
+        hotels.add(hotel(200, "An", null, 0));
+        List<Long> withExact = HotelTextIndex.build(hotels).search("an", 1000);
+        assertEquals(200L, withExact.get(0));
+        assertTrue(withExact.contains(100L) && withExact.contains(62L));
+        assertFalse(withExact.contains(63L));
+    }
+
+    @Test
+    void indexesOnlyVisibleHotels() {
+        HotelTextIndex index = HotelTextIndex.build(List.of(
+                hotel(1, "Lotus Hotel", "Huế", 0),
+                new HotelSearchDocument(2L, "Lotus Inn", "Huế", "Việt Nam", null, false, 1000, null, null)));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(1L), index.search("lotus", 10));
+    }
+
+    private static HotelSearchDocument hotel(long id, String name, String city, long popularity) {
+        return new HotelSearchDocument(id, name, city, null, null, true, popularity, null, null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.verzol.stayhub.module.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.verzol.stayhub.module.search.dto.HotelSearchDocument;
+
+/**
+ * Accent folding, word-start matching and popularity order of the autocomplete trie
+ */
+class SuggestionTrieTest {
+
+    @Test
+    void foldsDiacriticsAndMergesSpellings() {
+        SuggestionTrie trie = SuggestionTrie.build(List.of(
+                hotel(1, "Sunrise", "Đà Nẵng", 10),
+                hotel(2, "Biển Xanh", "Da Nang", 0)));
+
+        // One suggestion per folded text, first spelling wins
+        assertEquals(List.of("Đà Nẵng"), trie.suggest("da n", 10));
+        assertEquals(List.of("Đà Nẵng"), trie.suggest("ĐÀ NẴ", 10));
+        assertEquals(List.of("Biển Xanh"), trie.suggest("bien", 10));
+    }
+
+    @Test
+    void matchesFromAnyWord() {
+        SuggestionTrie trie = SuggestionTrie.build(List.of(
+                hotel(1, "Mường Thanh Luxury", "Nha Trang", 0)));
+
+        assertEquals(List.of("Mường Thanh Luxury"), trie.suggest("thanh", 10));
+        assertEquals(List.of("Mường Thanh Luxury"), trie.suggest("thanh lux", 10));
+        assertEquals(List.of("Nha Trang"), trie.suggest("trang", 10));
+        assertEquals(List.of(), trie.suggest("luxury thanh", 10));
+    }
+
+    @Test
+    void ordersByPopularity() {
+        SuggestionTrie trie = SuggestionTrie.build(List.of(
+                hotel(1, "Old Quarter Inn", "Hà Nội", 10),
+                hotel(2, "Lake View", "Hà Nội", 10),
+                hotel(3, "Harbour Hotel", "Hải Phòng", 50),
+                hotel(4, "Hidden Gem", "Sa Pa", 30)));
+
+        // A city weighs its hotels' popularity plus one per hotel: 51, 31 (hotel), 22
+        assertEquals(List.of("Hải Phòng", "Harbour Hotel", "Hidden Gem", "Hà Nội"), trie.suggest("h", 10));
+        assertEquals(List.of("Hải Phòng", "Harbour Hotel"), trie.suggest("h", 2));
+        // Blank query: most popular cities only
+        assertEquals(List.of("Hải Phòng", "Sa Pa", "Hà Nội"), trie.suggest("", 10));
+    }
+
+    @Test
+    void suggestsOnlyVisibleHotels() {
+        SuggestionTrie trie = SuggestionTrie.build(List.of(
+                hotel(1, "Lotus Hotel", "Huế", 0),
+                new HotelSearchDocument(2L, "Lotus Palace", "Hội An", null, null, false, 1000, null, null)));
+
+        assertEquals(List.of("Lotus Hotel"), trie.suggest("lotus", 10));
+        assertEquals(List.of(), trie.suggest("hoi", 10));
+    }
+
+    private static HotelSearchDocument hotel(long id, String name, String city, long popularity) {
+        return new HotelSearchDocument(id, name, city, null, null, true, popularity, null, null);
+    }
+}